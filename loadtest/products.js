@@ -0,0 +1,49 @@
+// k6-skript för att jämföra servlet (plattformstrådar), virtuella trådar och den reaktiva stacken.
+// Kör: k6 run -e BASE_URL=http://localhost:8080 -e VUS=10000 loadtest/products.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000');
+const DURATION = __ENV.DURATION || '2m';
+const COLORS = ['Red', 'Blue', 'Green', 'Black', 'White'];
+
+export const options = {
+    scenarios: {
+        finders: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: DURATION, target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(90)', 'p(99)', 'p(99.9)', 'max'],
+};
+
+export function setup() {
+    // ett litet, känt dataset så att alla lägen läser samma sak
+    for (let i = 0; i < 500; i++) {
+        http.post(`${BASE_URL}/api/products`, JSON.stringify({
+            name: `Load Product ${i % 50}`,
+            description: 'Load test product',
+            color: COLORS[i % COLORS.length],
+            price: (i % 100) + 0.99,
+            stockQuantity: 100,
+        }), { headers: { 'Content-Type': 'application/json' } });
+    }
+}
+
+export default function () {
+    const i = Math.floor(Math.random() * 50);
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/products/name/Load%20Product%20${i}`],
+        ['GET', `${BASE_URL}/api/products/color/${COLORS[i % COLORS.length]}`],
+        ['GET', `${BASE_URL}/api/products/price?minPrice=${i}&maxPrice=${i + 10}`],
+    ]);
+    responses.forEach((response) => check(response, {
+        'status is 200 or 404': (r) => r.status === 200 || r.status === 404,
+    }));
+}
@@ -0,0 +1,43 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.models.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic catalog used by all benchmarks, so results are comparable between runs.
+ */
+final class BenchmarkData {
+
+    static final String[] COLORS = {"Red", "Blue", "Green", "Black", "White", "Yellow", "Purple", "Orange"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(String.format("%024x", i));
+            product.setName("Product " + (i % 1000));
+            product.setDescription("Description for product " + i + ", long enough to look like a real catalog text.");
+            product.setColor(COLORS[i % COLORS.length]);
+            product.setPrice((i % 10_000) / 10.0);
+            product.setStockQuantity(i % 500);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static ProductDTO productDTO() {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product C");
+        productDTO.setDescription("Description C");
+        productDTO.setColor("Green");
+        productDTO.setPrice(30.99);
+        productDTO.setStockQuantity(300);
+        return productDTO;
+    }
+}
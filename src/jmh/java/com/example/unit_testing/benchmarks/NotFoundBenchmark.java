@@ -0,0 +1,123 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.cache.CatalogVersion;
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.exceptions.ProblemJson;
+import com.example.unit_testing.index.ProductPriceIndex;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.repository.memory.InMemoryProductTombstoneRepository;
+import com.example.unit_testing.services.LookupResult;
+import com.example.unit_testing.services.ProductService;
+import com.example.unit_testing.services.ProductSyncService;
+import com.example.unit_testing.snapshot.ProductSnapshotIndex;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A name lookup without matches, from the service call to the 404 body, as under bot traffic:
+ * an exception with a stack trace (the previous behaviour), the stackless NotFoundException and
+ * the LookupResult, plus the problem details written by Jackson instead of ProblemJson.
+ * The empty result is cached, so the repository is out of the picture. stackDepth adds frames
+ * below the lookup, since a real request runs under the servlet container and Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    private static final String MISSING_NAME = "No such product";
+
+    @Param({"0", "100"})
+    public int stackDepth;
+
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = StubProductRepository.of(BenchmarkData.products(1000));
+        ProductQueryCache productQueryCache = new ProductQueryCache(10_000, Duration.ofMinutes(10));
+        ApplicationEventPublisher noEvents = event -> {
+        };
+        InMemoryProductSequence productSequence = new InMemoryProductSequence();
+        // snapshotindexet är avstängt, finder-metoderna mäts mot repositoryt och cachen
+        ProductSnapshotIndex productSnapshotIndex = new ProductSnapshotIndex(null, productQueryCache,
+                new CatalogVersion(productSequence, productQueryCache, Duration.ZERO), "unused", false, Duration.ZERO);
+        ProductSyncService productSyncService = new ProductSyncService(productRepository,
+                new InMemoryProductTombstoneRepository(), productSequence);
+        productService = new ProductService(productRepository, productQueryCache,
+                new ProductPriceIndex(productRepository, false), productSnapshotIndex, noEvents, productSequence,
+                productSyncService);
+        objectMapper = new ObjectMapper();
+    }
+
+    private static String atDepth(int depth, Supplier<String> action) {
+        return depth == 0 ? action.get() : atDepth(depth - 1, action);
+    }
+
+    // som före LookupResult: NoSuchElementException med stack, meddelandet som body
+    @Benchmark
+    public String exceptionWithStackTrace() {
+        return atDepth(stackDepth, () -> {
+            try {
+                LookupResult<List<Product>> result = productService.findProductsByName(MISSING_NAME);
+                if (!result.isFound()) {
+                    throw new NoSuchElementException(result.getNotFoundDetail());
+                }
+                return "found";
+            } catch (NoSuchElementException e) {
+                return e.getMessage();
+            }
+        });
+    }
+
+    @Benchmark
+    public String stacklessException() {
+        return atDepth(stackDepth, () -> {
+            try {
+                productService.getProductsByName(MISSING_NAME);
+                return "found";
+            } catch (NoSuchElementException e) {
+                return ProblemJson.body(HttpStatus.NOT_FOUND, e.getMessage());
+            }
+        });
+    }
+
+    @Benchmark
+    public String lookupResult() {
+        return atDepth(stackDepth, () -> {
+            LookupResult<List<Product>> result = productService.findProductsByName(MISSING_NAME);
+            return result.isFound() ? "found" : ProblemJson.body(HttpStatus.NOT_FOUND, result.getNotFoundDetail());
+        });
+    }
+
+    @Benchmark
+    public String lookupResultJackson() {
+        return atDepth(stackDepth, () -> {
+            LookupResult<List<Product>> result = productService.findProductsByName(MISSING_NAME);
+            if (result.isFound()) {
+                return "found";
+            }
+            try {
+                return objectMapper.writeValueAsString(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, result.getNotFoundDetail()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.index.ProductColumnStore;
+import com.example.unit_testing.models.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Color plus price range scans over the whole catalog: filtering Product objects versus the
+ * primitive columns and color bitmaps of ProductColumnStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductColumnStoreBenchmark {
+
+    private static final List<String> COLORS = List.of("Red", "Blue");
+    private static final double MIN_PRICE = 100.0;
+    private static final double MAX_PRICE = 500.0;
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    private List<Product> products;
+    private ProductColumnStore productColumnStore;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(catalogSize);
+        productColumnStore = new ProductColumnStore(StubProductRepository.of(products), true);
+        productColumnStore.load();
+    }
+
+    @Benchmark
+    public long objectScan() {
+        Set<String> colors = Set.copyOf(COLORS);
+        long totalStock = 0;
+        for (Product product : products) {
+            if (colors.contains(product.getColor()) && product.getPrice() >= MIN_PRICE
+                    && product.getPrice() <= MAX_PRICE && product.getStockQuantity() > 0) {
+                totalStock += product.getStockQuantity();
+            }
+        }
+        return totalStock;
+    }
+
+    @Benchmark
+    public long columnScan() {
+        ProductAnalyticsDTO analytics = productColumnStore.analyze(COLORS, MIN_PRICE, MAX_PRICE, true);
+        return analytics.getTotalStock();
+    }
+
+    @Benchmark
+    public long columnPriceOnlyScan() {
+        return productColumnStore.analyze(null, MIN_PRICE, MAX_PRICE, null).getCount();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductFieldDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by a catalog of products as they come out of the MongoDB converter, with and without
+ * the ProductFieldDictionary. Not a timing benchmark: each run loads the catalog once and the retained
+ * heap is reported as the auxiliary counters retainedMegabytes and bytesPerProduct.
+ * Run with -Djmh.args="ProductHeapFootprint"; add "-p catalogSize=500000" on small machines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ProductHeapFootprintBenchmark {
+
+    @Param({"5000000"})
+    public int catalogSize;
+
+    // fälten som slås upp i ordlistan, "" betyder ingen ordlista
+    @Param({"", "color", "name,color"})
+    public String fields;
+
+    private ProductFieldDictionary dictionary;
+    private List<Product> products;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedMegabytes;
+        public long bytesPerProduct;
+    }
+
+    @Setup
+    public void setUp() {
+        dictionary = fields.isEmpty() ? null : new ProductFieldDictionary(List.of(fields.split(",")), 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        products = null;
+    }
+
+    @Benchmark
+    public int load(Footprint footprint) {
+        long before = usedHeap();
+        products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = decoded(i);
+            products.add(dictionary == null ? product : dictionary.onAfterConvert(product, null, "products"));
+        }
+        long retained = usedHeap() - before;
+        footprint.retainedMegabytes = retained / (1024 * 1024);
+        footprint.bytesPerProduct = retained / catalogSize;
+        return products.size();
+    }
+
+    // som när BSON avkodas: varje dokument ger egna String-instanser, även för samma värde
+    private static Product decoded(int i) {
+        Product product = new Product();
+        product.setId(copy(String.format("%024x", i)));
+        product.setName(copy("Product " + (i % 1000)));
+        product.setDescription(copy("Description for product " + i));
+        product.setColor(copy(BenchmarkData.COLORS[i % BenchmarkData.COLORS.length]));
+        product.setPrice((i % 10_000) / 10.0);
+        product.setStockQuantity(i % 500);
+        product.setModSequence(i);
+        return product;
+    }
+
+    private static String copy(String value) {
+        return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.models.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of product lists as returned by the listing endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int listSize;
+
+    private List<Product> products;
+    private ObjectWriter listWriter;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(listSize);
+        listWriter = new ObjectMapper().writerFor(new ObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, Product.class));
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.cache.CatalogVersion;
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.index.ProductPriceIndex;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.repository.memory.InMemoryProductTombstoneRepository;
+import com.example.unit_testing.services.ProductService;
+import com.example.unit_testing.services.ProductSyncService;
+import com.example.unit_testing.services.ProductValidator;
+import com.example.unit_testing.snapshot.ProductSnapshotIndex;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of ProductService against an in-memory repository, with and without the query cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private ProductService productService;
+    private ProductDTO productDTO;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = StubProductRepository.of(BenchmarkData.products(catalogSize));
+        // ttl 0 betyder att varje anrop går till repositoryt
+        ProductQueryCache productQueryCache = cached
+                ? new ProductQueryCache(10_000, Duration.ofMinutes(10))
+                : new ProductQueryCache(10_000, Duration.ZERO);
+
+        ApplicationEventPublisher noEvents = event -> {
+        };
+        InMemoryProductSequence productSequence = new InMemoryProductSequence();
+        // snapshotindexet är avstängt, finder-metoderna mäts mot repositoryt och cachen
+        ProductSnapshotIndex productSnapshotIndex = new ProductSnapshotIndex(null, productQueryCache,
+                new CatalogVersion(productSequence, productQueryCache, Duration.ZERO), "unused", false, Duration.ZERO);
+        ProductSyncService productSyncService = new ProductSyncService(productRepository,
+                new InMemoryProductTombstoneRepository(), productSequence);
+        productService = new ProductService(productRepository, productQueryCache,
+                new ProductPriceIndex(productRepository, false), productSnapshotIndex, noEvents, productSequence,
+                productSyncService);
+        productDTO = BenchmarkData.productDTO();
+    }
+
+    @Benchmark
+    public Product createProduct() {
+        return productService.createProduct(productDTO);
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return ProductValidator.toProduct(productDTO);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByName() {
+        return productService.getProductsByName("Product 42");
+    }
+
+    @Benchmark
+    public List<Product> getProductsByColor() {
+        return productService.getProductsByColor("Green");
+    }
+
+    @Benchmark
+    public List<Product> getProductsByPriceRange() {
+        return productService.getProductsByPriceRange(100.0, 200.0);
+    }
+}
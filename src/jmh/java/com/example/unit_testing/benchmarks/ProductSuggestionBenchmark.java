@@ -0,0 +1,46 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.index.ProductSuggestionIndex;
+import com.example.unit_testing.models.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups in the suggestion index. Sample time mode reports percentiles,
+ * so the p99 can be checked against the 5 ms target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSuggestionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    // kort prefix matchar många namn, långt prefix nästan ett, "42" bara ett senare ord
+    @Param({"p", "product 4", "product 421", "42"})
+    public String prefix;
+
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(catalogSize);
+        // unika namn, så att ett kort prefix matchar hela katalogen och alla träffar måste rankas
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setName("Product " + i);
+        }
+        productSuggestionIndex = new ProductSuggestionIndex(StubProductRepository.of(products), true);
+        productSuggestionIndex.load();
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return productSuggestionIndex.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.unit_testing.benchmarks;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory ProductRepository for benchmarks: the finders used by ProductService answer from
+ * precomputed maps and save returns its argument, every other method is unsupported.
+ */
+final class StubProductRepository {
+
+    private StubProductRepository() {
+    }
+
+    static ProductRepository of(List<Product> products) {
+        Map<String, List<Product>> byName = products.stream().collect(Collectors.groupingBy(Product::getName));
+        Map<String, List<Product>> byColor = products.stream().collect(Collectors.groupingBy(Product::getColor));
+
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByName" -> byName.getOrDefault((String) args[0], List.of());
+                    case "findByColor" -> byColor.getOrDefault((String) args[0], List.of());
+                    case "findByPriceBetween" -> {
+                        double minPrice = (double) args[0];
+                        double maxPrice = (double) args[1];
+                        List<Product> result = new ArrayList<>();
+                        for (Product product : products) {
+                            if (product.getPrice() > minPrice && product.getPrice() < maxPrice) {
+                                result.add(product);
+                            }
+                        }
+                        yield result;
+                    }
+                    case "save" -> args[0];
+                    case "findAll" -> products;
+                    case "streamAllByOrderByIdAsc" -> products.stream();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubProductRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
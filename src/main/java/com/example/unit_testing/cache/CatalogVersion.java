@@ -0,0 +1,146 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.sync.ProductSequence;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version of the product catalog, used as ETag for the product read endpoints.
+ * <p>
+ * The version is the safe sequence of ProductSequence, which is shared by every application instance and
+ * moves past every product write and delete once it has completed. It is polled every poll-interval; when it
+ * has moved past numbers taken by another instance the query cache is cleared as well, since it may hold
+ * products changed there. Changes made through this instance already invalidate their cache keys through
+ * ProductChangeEvents, so steady local writes do not empty the cache.
+ * Changes made through this instance change the tag at once: until the next poll the tag also carries a
+ * per-process epoch and a local change counter, so it never matches a tag from another instance.
+ * <p>
+ * Behind a load balancer a tag can confirm a cached response for up to one poll interval, plus the
+ * renewal interval of the sequence leases, after a change made on another instance. Changes written to
+ * MongoDB by other applications are not seen.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private final ProductSequence productSequence;
+    private final ProductQueryCache productQueryCache;
+    private final Duration pollInterval;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-version");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // skyddas av monitorn; -1 tills den första avläsningen, så att taggen bär epoken fram till dess
+    private long sequence = -1;
+    private long changes;
+    private long changesAtPoll = -1;
+    private volatile String etag;
+
+    public CatalogVersion(ProductSequence productSequence,
+                          ProductQueryCache productQueryCache,
+                          @Value("${products.http.version-poll-interval:1s}") Duration pollInterval) {
+        this.productSequence = productSequence;
+        this.productQueryCache = productQueryCache;
+        this.pollInterval = pollInterval;
+        updateEtag();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!pollInterval.isZero() && !pollInterval.isNegative()) {
+            // på poll-tråden, så att en databas som inte svarar inte håller upp starten
+            long intervalMillis = pollInterval.toMillis();
+            poller.scheduleWithFixedDelay(this::pollQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdown();
+    }
+
+    /**
+     * The current version as a strong ETag value, including quotes.
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Bumps the version for changes that do not arrive as events, e.g. catching up a product snapshot.
+     */
+    public synchronized void bump() {
+        changes++;
+        updateEtag();
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        bump();
+    }
+
+    /**
+     * Reads the shared sequence and, if it has moved since the last poll, takes it as the version. The query
+     * cache is cleared first if another instance can have written in between. Called from a single poll thread.
+     *
+     * @return true if the version moved.
+     */
+    public boolean poll() {
+        long before;
+        synchronized (this) {
+            before = changes;
+        }
+        long safe = productSequence.safe();
+        long previous;
+        synchronized (this) {
+            // bara framåt, en tagg som redan har delats ut får inte stå för ett annat innehåll
+            if (safe <= sequence) {
+                return false;
+            }
+            previous = sequence;
+        }
+        // cachen töms före taggen byts, annars kan den nya taggen följa med ett gammalt svar.
+        // Egna skrivningar publicerar sitt event efter att numret släppts, och eventet byter taggen igen
+        if (!productSequence.takenLocally(previous, safe)) {
+            productQueryCache.invalidateAll();
+        }
+        synchronized (this) {
+            sequence = safe;
+            // lokala ändringar under avläsningen kan ligga över sekvensen och behåller epoken i taggen
+            changesAtPoll = before;
+            updateEtag();
+        }
+        return true;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // ett undantag som lämnar run() stoppar scheduleWithFixedDelay för gott
+            log.warn("Could not read the catalog version, ETags only follow this instance's changes: {}", e.getMessage());
+        }
+    }
+
+    private void updateEtag() {
+        etag = changes == changesAtPoll
+                ? "\"" + sequence + "\""
+                : "\"" + sequence + "-" + epoch + "-" + changes + "\"";
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.dto.CacheStatsDTO;
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache for facet aggregations, keyed by the price boundaries.
+ * Every product change clears it, since any product can move any count. An aggregation still running
+ * when a change arrives is returned but not kept. A ttl of 0 disables caching.
+ */
+@Component
+public class ProductFacetCache implements MeterBinder {
+
+    private final Cache<List<Double>, ProductFacetsDTO> byPriceBoundaries;
+    // ökas före varje tömning, invalidateAll når inte en nyckel som fortfarande laddas
+    private final AtomicLong version = new AtomicLong();
+
+    public ProductFacetCache(@Value("${products.facets.cache-ttl:5s}") Duration ttl) {
+        this.byPriceBoundaries = Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public ProductFacetsDTO get(List<Double> priceBoundaries, Function<List<Double>, ProductFacetsDTO> loader) {
+        List<Double> key = List.copyOf(priceBoundaries);
+        long before = version.get();
+        ProductFacetsDTO facets = byPriceBoundaries.get(key, loader);
+        if (version.get() != before) {
+            byPriceBoundaries.asMap().remove(key, facets);
+        }
+        return facets;
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        version.incrementAndGet();
+        byPriceBoundaries.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byPriceBoundaries, "products.facets");
+    }
+
+    public Map<String, CacheStatsDTO> getStats() {
+        return Map.of("products.facets", CacheStatsDTO.of(byPriceBoundaries));
+    }
+}
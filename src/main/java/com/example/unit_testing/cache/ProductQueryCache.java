@@ -0,0 +1,195 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.dto.CacheStatsDTO;
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the ProductRepository finders, bounded by size and time to live.
+ * Full documents and summary projections are cached separately.
+ * Empty results are cached as well, so repeated lookups of unknown names do not reach MongoDB.
+ * Entries are invalidated key by key when products are created, updated or deleted through
+ * this instance, and all at once when CatalogVersion sees changes made on other instances;
+ * changes made outside the application become visible when the entry expires.
+ * <p>
+ * A load that is still running when an invalidation happens may have read the old data, and an entry
+ * that is not in the cache yet cannot be invalidated; its result is returned but not kept.
+ */
+@Component
+public class ProductQueryCache implements MeterBinder {
+
+    /**
+     * The bounds of a cached price range query.
+     */
+    public record PriceRange(double minPrice, double maxPrice) {
+        // priserna är sorterade, så ett intervall avgörs med en binärsökning
+        boolean containsAny(double[] sortedPrices) {
+            if (maxPrice < sortedPrices[0] || minPrice > sortedPrices[sortedPrices.length - 1]) {
+                return false;
+            }
+            int index = Arrays.binarySearch(sortedPrices, minPrice);
+            int first = index >= 0 ? index : -index - 1;
+            return first < sortedPrices.length && sortedPrices[first] <= maxPrice;
+        }
+    }
+
+    // en uppsättning cacher per resultattyp (hela dokument eller projektion)
+    private static final class FinderCaches<T> {
+        private final String prefix;
+        private final Cache<String, List<T>> byName;
+        private final Cache<String, List<T>> byColor;
+        private final Cache<PriceRange, List<T>> byPriceRange;
+        // ökas före varje invalidering, så att en laddning som pågick under den inte sparas
+        private final AtomicLong version = new AtomicLong();
+
+        FinderCaches(String prefix, long maximumSize, Duration ttl) {
+            this.prefix = prefix;
+            this.byName = newCache(maximumSize, ttl);
+            this.byColor = newCache(maximumSize, ttl);
+            this.byPriceRange = newCache(maximumSize, ttl);
+        }
+
+        private static <K, T> Cache<K, List<T>> newCache(long maximumSize, Duration ttl) {
+            return Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+        }
+
+        <K> List<T> get(Cache<K, List<T>> cache, K key, Function<K, List<T>> loader) {
+            long before = version.get();
+            List<T> result = cache.get(key, k -> List.copyOf(loader.apply(k)));
+            if (version.get() != before) {
+                cache.asMap().remove(key, result);
+            }
+            return result;
+        }
+
+        // en genomgång av prisintervallen per batch, inte en per produkt
+        void invalidate(Collection<Product> changed) {
+            version.incrementAndGet();
+            byName.invalidateAll(changed.stream().map(Product::getName).filter(Objects::nonNull).toList());
+            byColor.invalidateAll(changed.stream().map(Product::getColor).filter(Objects::nonNull).toList());
+            double[] prices = changed.stream().mapToDouble(Product::getPrice).sorted().toArray();
+            if (prices.length > 0) {
+                byPriceRange.asMap().keySet().removeIf(range -> range.containsAny(prices));
+            }
+        }
+
+        void invalidateAll() {
+            version.incrementAndGet();
+            byName.invalidateAll();
+            byColor.invalidateAll();
+            byPriceRange.invalidateAll();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            CaffeineCacheMetrics.monitor(registry, byName, prefix + ".byName");
+            CaffeineCacheMetrics.monitor(registry, byColor, prefix + ".byColor");
+            CaffeineCacheMetrics.monitor(registry, byPriceRange, prefix + ".byPriceRange");
+        }
+
+        void addStats(Map<String, CacheStatsDTO> stats) {
+            stats.put(prefix + ".byName", CacheStatsDTO.of(byName));
+            stats.put(prefix + ".byColor", CacheStatsDTO.of(byColor));
+            stats.put(prefix + ".byPriceRange", CacheStatsDTO.of(byPriceRange));
+        }
+    }
+
+    private final FinderCaches<Product> products;
+    private final FinderCaches<ProductSummaryDTO> summaries;
+
+    public ProductQueryCache(@Value("${products.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${products.cache.ttl:60s}") Duration ttl) {
+        this.products = new FinderCaches<>("products", maximumSize, ttl);
+        this.summaries = new FinderCaches<>("productSummaries", maximumSize, ttl);
+    }
+
+    public List<Product> getByName(String name, Function<String, List<Product>> loader) {
+        return products.get(products.byName, name, loader);
+    }
+
+    public List<Product> getByColor(String color, Function<String, List<Product>> loader) {
+        return products.get(products.byColor, color, loader);
+    }
+
+    public List<Product> getByPriceRange(double minPrice, double maxPrice, Function<PriceRange, List<Product>> loader) {
+        return products.get(products.byPriceRange, new PriceRange(minPrice, maxPrice), loader);
+    }
+
+    public List<ProductSummaryDTO> getSummariesByName(String name, Function<String, List<ProductSummaryDTO>> loader) {
+        return summaries.get(summaries.byName, name, loader);
+    }
+
+    public List<ProductSummaryDTO> getSummariesByColor(String color, Function<String, List<ProductSummaryDTO>> loader) {
+        return summaries.get(summaries.byColor, color, loader);
+    }
+
+    public List<ProductSummaryDTO> getSummariesByPriceRange(double minPrice, double maxPrice,
+                                                            Function<PriceRange, List<ProductSummaryDTO>> loader) {
+        return summaries.get(summaries.byPriceRange, new PriceRange(minPrice, maxPrice), loader);
+    }
+
+    /**
+     * Removes exactly the entries whose result can contain the given product:
+     * its name, its color and every cached price range that includes its price.
+     */
+    public void invalidate(Product product) {
+        invalidate(List.of(product));
+    }
+
+    /**
+     * Removes the entries whose result can contain any of the given products, with one pass over the
+     * cached price ranges for the whole batch.
+     */
+    public void invalidate(Collection<Product> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        products.invalidate(changed);
+        summaries.invalidate(changed);
+    }
+
+    public void invalidateAll() {
+        products.invalidateAll();
+        summaries.invalidateAll();
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        invalidate(event.getProducts());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        products.bindTo(registry);
+        summaries.bindTo(registry);
+    }
+
+    public Map<String, CacheStatsDTO> getStats() {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+        products.addStats(stats);
+        summaries.addStats(stats);
+        return stats;
+    }
+}
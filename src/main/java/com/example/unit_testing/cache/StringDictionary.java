@@ -0,0 +1,44 @@
+package com.example.unit_testing.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps equal strings to one shared instance, so a low-cardinality value that is read many times
+ * is kept in memory once. The dictionary stops growing at maxEntries, after that unknown values are
+ * returned as they are, so a field with more distinct values than expected cannot fill the heap.
+ */
+public final class StringDictionary {
+
+    // inte String.intern(): JVM:ens strängtabell är obegränsad och går inte att mäta per fält
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public StringDictionary(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A dictionary must allow at least 1 entry.");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The shared instance equal to value, value itself if it is new, or null for null.
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = values.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (values.size() >= maxEntries) {
+            return value;
+        }
+        existing = values.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.dto.CacheStatsDTO;
+import com.example.unit_testing.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for users by ID, bounded by size and time to live.
+ * Only found users are cached; a miss always goes to the loader.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<String, User> byId;
+
+    public UserCache(@Value("${users.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${users.cache.ttl:60s}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<User> getById(String id, Function<String, Optional<User>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void invalidate(String id) {
+        byId.invalidate(id);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "users.byId");
+    }
+
+    public Map<String, CacheStatsDTO> getStats() {
+        return Map.of("users.byId", CacheStatsDTO.of(byId));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.unit_testing.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool limits for the MongoDB driver. With virtual threads the number of concurrent
+ * requests is no longer capped by the Tomcat thread pool, so the connection pool becomes the
+ * real concurrency limit. A short max-wait makes excess requests fail fast with 503 instead of
+ * queueing inside the driver for the default two minutes.
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(
+            @Value("${products.mongo.pool.max-size:100}") int maxSize,
+            @Value("${products.mongo.pool.min-size:0}") int minSize,
+            @Value("${products.mongo.pool.max-connecting:2}") int maxConnecting,
+            @Value("${products.mongo.pool.max-wait:120s}") Duration maxWait) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalStateException("products.mongo.pool.min-size and max-size must satisfy 0 <= min-size <= max-size and max-size >= 1.");
+        }
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.unit_testing.config;
+
+import com.example.unit_testing.dto.IndexReportDTO;
+import com.example.unit_testing.services.ProductIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on Product at startup and warns about any that are still missing.
+ * Failures are logged instead of stopping the application, so an unreachable database or a
+ * user without createIndex rights only degrades query performance.
+ */
+@Component
+public class ProductIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexInitializer.class);
+
+    private final ProductIndexService productIndexService;
+    private final boolean autoCreate;
+    private final boolean verify;
+
+    public ProductIndexInitializer(ProductIndexService productIndexService,
+                                   @Value("${products.indexes.auto-create:true}") boolean autoCreate,
+                                   @Value("${products.indexes.verify-on-startup:true}") boolean verify) {
+        this.productIndexService = productIndexService;
+        this.autoCreate = autoCreate;
+        this.verify = verify;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIndexes() {
+        try {
+            if (autoCreate) {
+                int count = productIndexService.ensureIndexes();
+                log.info("Ensured {} index(es) on the products collection", count);
+            }
+            if (verify) {
+                IndexReportDTO report = productIndexService.getIndexReport();
+                for (String missing : report.getMissing()) {
+                    log.warn("Expected index {} is missing on the products collection, finders using it will scan the whole collection", missing);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create or verify indexes on the products collection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.unit_testing.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Warns when spring.threads.virtual.enabled is set but cannot take effect, or when the
+ * MongoDB pool settings would let virtual threads queue up inside the driver.
+ */
+@Component
+public class VirtualThreadsCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    private final boolean virtualThreadsEnabled;
+    private final Duration maxWait;
+
+    public VirtualThreadsCheck(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                               @Value("${products.mongo.pool.max-wait:120s}") Duration maxWait) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.maxWait = maxWait;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled=true has no effect on Java {}, requests run on platform threads. Java 21 or later is required.", javaVersion);
+            return;
+        }
+        if (maxWait.compareTo(Duration.ofSeconds(10)) > 0) {
+            log.warn("Virtual threads are enabled but products.mongo.pool.max-wait is {}; under overload requests will queue for a connection instead of failing fast.", maxWait);
+        }
+        log.info("Request handling runs on virtual threads");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.cache.ProductFacetCache;
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.cache.UserCache;
+import com.example.unit_testing.dto.CacheStatsDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final ProductQueryCache productQueryCache;
+    private final ProductFacetCache productFacetCache;
+    private final UserCache userCache;
+
+    // Konstruktorinjektion
+    public CacheController(ProductQueryCache productQueryCache, ProductFacetCache productFacetCache, UserCache userCache) {
+        this.productQueryCache = productQueryCache;
+        this.productFacetCache = productFacetCache;
+        this.userCache = userCache;
+    }
+
+    // Träffar, missar och evictions per cache
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStatsDTO>> getStats() {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>(productQueryCache.getStats());
+        stats.putAll(productFacetCache.getStats());
+        stats.putAll(userCache.getStats());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.services.ProductAnalyticsService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/analytics")
+public class ProductAnalyticsController {
+
+    private final ProductAnalyticsService productAnalyticsService;
+
+    // Konstruktorinjektion
+    public ProductAnalyticsController(ProductAnalyticsService productAnalyticsService) {
+        this.productAnalyticsService = productAnalyticsService;
+    }
+
+    // Antal, lager och prisstatistik, t.ex. ?color=Red&color=Blue&minPrice=10&maxPrice=50&inStock=true
+    @GetMapping
+    public ResponseEntity<ProductAnalyticsDTO> getAnalytics(@RequestParam(required = false) List<String> color,
+                                                            @RequestParam(required = false) Double minPrice,
+                                                            @RequestParam(required = false) Double maxPrice,
+                                                            @RequestParam(required = false) Boolean inStock) {
+        ProductAnalyticsDTO analytics = productAnalyticsService.analyze(color, minPrice, maxPrice, inStock);
+        return new ResponseEntity<>(analytics, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.feed.ProductChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// finns bara när products.change-feed.enabled=true
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "products.change-feed.enabled", havingValue = "true")
+@RequestMapping("/api/products/events")
+public class ProductChangeFeedController {
+
+    private final ProductChangeFeed productChangeFeed;
+
+    // Konstruktorinjektion
+    public ProductChangeFeedController(ProductChangeFeed productChangeFeed) {
+        this.productChangeFeed = productChangeFeed;
+    }
+
+    // Strömma ändringar som server-sent events, Last-Event-ID fortsätter efter senast mottagna händelse
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+}
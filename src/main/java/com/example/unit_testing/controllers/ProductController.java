@@ -1,23 +1,66 @@
 package com.example.unit_testing.controllers;
 
+import com.example.unit_testing.cache.CatalogVersion;
+import com.example.unit_testing.dto.BatchDeleteResultDTO;
+import com.example.unit_testing.dto.BatchGetResultDTO;
+import com.example.unit_testing.dto.BulkImportResultDTO;
 import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.dto.ProductPageDTO;
+import com.example.unit_testing.dto.StockReservationDTO;
+import com.example.unit_testing.exceptions.ProblemJson;
 import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.LookupResult;
+import com.example.unit_testing.services.ProductExportService;
+import com.example.unit_testing.services.ProductImportService;
 import com.example.unit_testing.services.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
+// ersätts av ReactiveProductRouter i profilen "reactive"
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 public class ProductController {
 
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String VIEW_FULL = "full";
+    static final String VIEW_SUMMARY = "summary";
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final CatalogVersion catalogVersion;
+    private final CacheControl cacheControl;
+    private final Duration exportTimeout;
 
     // Konstruktorinjektion
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductExportService productExportService, CatalogVersion catalogVersion,
+                             @Value("${products.http.max-age:0s}") Duration maxAge,
+                             @Value("${products.export.timeout:30m}") Duration exportTimeout) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.catalogVersion = catalogVersion;
+        this.exportTimeout = exportTimeout;
+        // max-age 0 betyder att klienter och CDN alltid revaliderar med If-None-Match
+        this.cacheControl = maxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(maxAge).mustRevalidate();
     }
 
     // Skapa en produkt
@@ -27,33 +70,145 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    // Importera många produkter i batchar, body läses som ström (JSON-array eller NDJSON)
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON})
+    public ResponseEntity<BulkImportResultDTO> importProducts(
+            InputStream body,
+            @RequestParam(required = false) Integer batchSize) throws IOException {
+        BulkImportResultDTO result = batchSize == null
+                ? productImportService.importProducts(body)
+                : productImportService.importProducts(body, batchSize);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     // Hämta alla produkter
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<List<Product>> getAllProducts(WebRequest request) {
+        return conditionalGet(request, productService::getAllProducts);
+    }
+
+    // Strömma alla produkter som NDJSON direkt från en Mongo-cursor
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts(WebRequest request) {
+        StreamingResponseBody body = outputStream ->
+                productExportService.export(ProductExportService.Format.NDJSON, null, false, outputStream);
+        ProductExportController.extendTimeout(request, exportTimeout);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    // Hämta produkter sida för sida (keyset-paginering på id)
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageDTO> getProductPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int size,
+            WebRequest request) {
+        return conditionalGet(request, () -> productService.getProductPage(after, size));
+    }
+
+    // Hämta många produkter med en fråga, svaret listar id:n som saknas
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResultDTO> getProductsByIds(@RequestBody List<String> ids) {
+        BatchGetResultDTO result = productService.getProductsByIds(ids);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Radera många produkter med en fråga
+    @DeleteMapping
+    public ResponseEntity<BatchDeleteResultDTO> deleteProducts(@RequestBody List<String> ids) {
+        BatchDeleteResultDTO result = productService.deleteProducts(ids);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Kombinera namn, färg, prisintervall och lagerstatus i en fråga, t.ex. ?color=Red&minPrice=10&maxPrice=50&sort=-price
+    @GetMapping("/filter")
+    public ResponseEntity<List<Product>> filterProducts(
+            ProductFilterDTO filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        return conditionalGet(request, () -> productService.filterProducts(filter, sort, limit));
     }
 
     // Hämta produkter efter namn
     @GetMapping("/name/{name}")
-    public ResponseEntity<List<Product>> getProductsByName(@PathVariable String name) {
-        List<Product> products = productService.getProductsByName(name);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<?> getProductsByName(@PathVariable String name,
+                                               @RequestParam(defaultValue = VIEW_FULL) String view,
+                                               WebRequest request) {
+        boolean summary = isSummaryView(view);
+        return conditionalLookup(request, () -> summary
+                ? productService.findProductSummariesByName(name)
+                : productService.findProductsByName(name));
     }
 
     // Hämta produkter inom prisintervall
     @GetMapping("/price")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public ResponseEntity<?> getProductsByPriceRange(
             @RequestParam double minPrice,
-            @RequestParam double maxPrice) {
-        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+            @RequestParam double maxPrice,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            WebRequest request) {
+        boolean summary = isSummaryView(view);
+        return conditionalLookup(request, () -> summary
+                ? productService.findProductSummariesByPriceRange(minPrice, maxPrice)
+                : productService.findProductsByPriceRange(minPrice, maxPrice));
     }
 
     // Hämta produkter efter färg
     @GetMapping("/color/{color}")
-    public ResponseEntity<List<Product>> getProductsByColor(@PathVariable String color) {
-        List<Product> products = productService.getProductsByColor(color);
+    public ResponseEntity<?> getProductsByColor(@PathVariable String color,
+                                                @RequestParam(defaultValue = VIEW_FULL) String view,
+                                                WebRequest request) {
+        boolean summary = isSummaryView(view);
+        return conditionalLookup(request, () -> summary
+                ? productService.findProductSummariesByColor(color)
+                : productService.findProductsByColor(color));
+    }
+
+    // Svarar 304 utan att läsa från databasen om klientens ETag matchar katalogversionen.
+    // Versionen läses före frågan, så en samtidig ändring ger i värsta fall en extra hämtning.
+    private <T> ResponseEntity<T> conditionalGet(WebRequest request, Supplier<T> body) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+
+    // Som conditionalGet, men en tom träff blir 404 direkt från resultatet utan undantag
+    private ResponseEntity<?> conditionalLookup(WebRequest request, Supplier<? extends LookupResult<?>> lookup) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        LookupResult<?> result = lookup.get();
+        if (!result.isFound()) {
+            return ProblemJson.response(HttpStatus.NOT_FOUND, result.getNotFoundDetail());
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(result.orElseThrow());
+    }
+
+    // view=summary utelämnar description och läser bara de fälten från databasen
+    private static boolean isSummaryView(String view) {
+        if (VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            return true;
+        }
+        if (VIEW_FULL.equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new IllegalArgumentException("View must be '" + VIEW_FULL + "' or '" + VIEW_SUMMARY + "'.");
+    }
+
+    // Ändra lagersaldot atomiskt, negativt delta tar ut ur lagret (409 om saldot inte räcker)
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<Product> adjustStock(@PathVariable String id, @RequestParam int delta) {
+        Product product = productService.adjustStock(id, delta);
+        return new ResponseEntity<>(product, HttpStatus.OK);
+    }
+
+    // Reservera lager för flera produkter, allt eller inget
+    @PostMapping("/reservations")
+    public ResponseEntity<List<Product>> reserveStock(@RequestBody List<StockReservationDTO> reservations) {
+        List<Product> products = productService.reserveStock(reservations);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
@@ -0,0 +1,43 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.ExplainResultDTO;
+import com.example.unit_testing.dto.IndexReportDTO;
+import com.example.unit_testing.services.ProductIndexService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/diagnostics")
+public class ProductDiagnosticsController {
+
+    private final ProductIndexService productIndexService;
+
+    // Konstruktorinjektion
+    public ProductDiagnosticsController(ProductIndexService productIndexService) {
+        this.productIndexService = productIndexService;
+    }
+
+    // Jämför deklarerade index med de som finns i databasen
+    @GetMapping("/indexes")
+    public ResponseEntity<IndexReportDTO> getIndexReport() {
+        IndexReportDTO report = productIndexService.getIndexReport();
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    // Visa frågeplanen för varje finder i ProductRepository
+    @GetMapping("/explain")
+    public ResponseEntity<List<ExplainResultDTO>> explainFinders(
+            @RequestParam(defaultValue = "probe") String name,
+            @RequestParam(defaultValue = "probe") String color,
+            @RequestParam(defaultValue = "0") double minPrice,
+            @RequestParam(defaultValue = "100") double maxPrice) {
+        List<ExplainResultDTO> results = productIndexService.explainFinders(name, color, minPrice, maxPrice);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.services.ProductExportService;
+import com.example.unit_testing.services.ProductValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/export")
+public class ProductExportController {
+
+    private final ProductExportService productExportService;
+    private final Duration timeout;
+
+    // Konstruktorinjektion
+    public ProductExportController(ProductExportService productExportService,
+                                   @Value("${products.export.timeout:30m}") Duration timeout) {
+        this.productExportService = productExportService;
+        this.timeout = timeout;
+    }
+
+    // Exportera hela katalogen, t.ex. ?format=csv&gzip=true; en avbruten nedladdning återupptas med ?after=<sista id>
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(required = false) String after,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                WebRequest request) {
+        ProductExportService.Format exportFormat = ProductExportService.Format.parse(format);
+        // valideras innan svaret börjar strömmas, efter det kan det inte längre bli 400
+        if (after != null && !after.isBlank()) {
+            ProductValidator.validateCursor(after);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("products." + exportFormat.getExtension())
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = outputStream -> productExportService.export(exportFormat, after, gzip, outputStream);
+        extendTimeout(request, timeout);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // bara exporten får den långa timeouten, övriga asynkrona svar behåller serverns standard
+    static void extendTimeout(WebRequest request, Duration timeout) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
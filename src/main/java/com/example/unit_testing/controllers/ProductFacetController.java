@@ -0,0 +1,33 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.services.ProductFacetService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/facets")
+public class ProductFacetController {
+
+    private final ProductFacetService productFacetService;
+
+    // Konstruktorinjektion
+    public ProductFacetController(ProductFacetService productFacetService) {
+        this.productFacetService = productFacetService;
+    }
+
+    // Antal per färg, prisintervall och i lager, t.ex. ?priceBoundaries=0,50,100,500
+    @GetMapping
+    public ResponseEntity<ProductFacetsDTO> getFacets(@RequestParam(required = false) List<Double> priceBoundaries) {
+        ProductFacetsDTO facets = productFacetService.getFacets(priceBoundaries);
+        return new ResponseEntity<>(facets, HttpStatus.OK);
+    }
+}
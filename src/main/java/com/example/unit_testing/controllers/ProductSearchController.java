@@ -0,0 +1,44 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.ProductSearchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/search")
+public class ProductSearchController {
+
+    private final ProductSearchService productSearchService;
+
+    // Konstruktorinjektion
+    public ProductSearchController(ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    // Fritextsökning i namn och beskrivning, mest relevanta först
+    @GetMapping
+    public ResponseEntity<List<Product>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<Product> products = productSearchService.search(q, limit);
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    // Förslag på produktnamn medan användaren skriver
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<String> names = productSearchService.suggest(prefix, limit);
+        return new ResponseEntity<>(names, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.ProductSnapshotDTO;
+import com.example.unit_testing.services.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/snapshot")
+public class ProductSnapshotController {
+
+    private final ProductService productService;
+    private final Path snapshotPath;
+
+    // Konstruktorinjektion
+    public ProductSnapshotController(ProductService productService,
+                                     @Value("${products.snapshot.path:data/products.snapshot}") String snapshotPath) {
+        this.productService = productService;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    // Skriv en ny ögonblicksbild av katalogen, läsrepliker mappar filen vid start
+    @PostMapping
+    public ResponseEntity<ProductSnapshotDTO> writeSnapshot() throws IOException {
+        ProductSnapshotDTO snapshot = productService.writeSnapshot(snapshotPath);
+        return new ResponseEntity<>(snapshot, HttpStatus.CREATED);
+    }
+}
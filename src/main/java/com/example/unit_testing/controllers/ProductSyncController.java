@@ -0,0 +1,32 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.ProductChangesDTO;
+import com.example.unit_testing.services.ProductSyncService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/products/changes")
+public class ProductSyncController {
+
+    private final ProductSyncService productSyncService;
+
+    // Konstruktorinjektion
+    public ProductSyncController(ProductSyncService productSyncService) {
+        this.productSyncService = productSyncService;
+    }
+
+    // Ändringar sedan en sekvens, t.ex. ?since=1042&limit=500; nästa anrop använder nextSince
+    @GetMapping
+    public ResponseEntity<ProductChangesDTO> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                        @RequestParam(defaultValue = "1000") int limit) {
+        ProductChangesDTO changes = productSyncService.getChanges(since, limit);
+        return new ResponseEntity<>(changes, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.unit_testing.controllers;
+
+import com.example.unit_testing.dto.StockLevelDTO;
+import com.example.unit_testing.stock.StockWriteBuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+// finns bara när products.stock-buffer.enabled=true
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "products.stock-buffer.enabled", havingValue = "true")
+@RequestMapping("/api/products")
+public class StockBufferController {
+
+    private final StockWriteBuffer stockWriteBuffer;
+
+    // Konstruktorinjektion
+    public StockBufferController(StockWriteBuffer stockWriteBuffer) {
+        this.stockWriteBuffer = stockWriteBuffer;
+    }
+
+    // Ändra lagersaldot via write-behind-bufferten, 202 eftersom databasen uppdateras vid nästa flush
+    @PatchMapping("/{id}/stock/buffered")
+    public ResponseEntity<StockLevelDTO> adjustStock(@PathVariable String id, @RequestParam int delta) {
+        long stockQuantity = stockWriteBuffer.adjustStock(id, delta);
+        return new ResponseEntity<>(new StockLevelDTO(id, stockQuantity), HttpStatus.ACCEPTED);
+    }
+
+    // Skriv bufferten till databasen direkt
+    @PostMapping("/stock/flush")
+    public ResponseEntity<Void> flush() throws IOException {
+        stockWriteBuffer.flush();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.unit_testing.dto;
+
+import java.util.List;
+
+public class BatchDeleteResultDTO {
+
+    private int deleted;
+    private List<String> missingIds;
+
+
+    public BatchDeleteResultDTO() {
+    }
+
+    public BatchDeleteResultDTO(int deleted, List<String> missingIds) {
+        this.deleted = deleted;
+        this.missingIds = missingIds;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.unit_testing.dto;
+
+import com.example.unit_testing.models.Product;
+
+import java.util.List;
+
+public class BatchGetResultDTO {
+
+    private List<Product> products;
+    private List<String> missingIds;
+
+
+    public BatchGetResultDTO() {
+    }
+
+    public BatchGetResultDTO(List<Product> products, List<String> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.unit_testing.dto;
+
+public class BulkImportFailureDTO {
+
+    private long index;
+    private String message;
+
+
+    public BulkImportFailureDTO() {
+    }
+
+    public BulkImportFailureDTO(long index, String message) {
+        this.index = index;
+        this.message = message;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.unit_testing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportResultDTO {
+
+    private long received;
+    private long inserted;
+    private long failed;
+    private List<BulkImportFailureDTO> failures = new ArrayList<>();
+    private boolean failuresTruncated;
+    private long elapsedMillis;
+    private double productsPerSecond;
+
+
+    public BulkImportResultDTO() {
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkImportFailureDTO> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<BulkImportFailureDTO> failures) {
+        this.failures = failures;
+    }
+
+    public boolean isFailuresTruncated() {
+        return failuresTruncated;
+    }
+
+    public void setFailuresTruncated(boolean failuresTruncated) {
+        this.failuresTruncated = failuresTruncated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getProductsPerSecond() {
+        return productsPerSecond;
+    }
+
+    public void setProductsPerSecond(double productsPerSecond) {
+        this.productsPerSecond = productsPerSecond;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.unit_testing.dto;
+
+public class ExplainResultDTO {
+
+    private String finder;
+    private String filter;
+    private String winningStage;
+    private String indexName;
+    private boolean usesIndex;
+
+
+    public ExplainResultDTO() {
+    }
+
+    public String getFinder() {
+        return finder;
+    }
+
+    public void setFinder(String finder) {
+        this.finder = finder;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    public String getWinningStage() {
+        return winningStage;
+    }
+
+    public void setWinningStage(String winningStage) {
+        this.winningStage = winningStage;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public boolean isUsesIndex() {
+        return usesIndex;
+    }
+
+    public void setUsesIndex(boolean usesIndex) {
+        this.usesIndex = usesIndex;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.unit_testing.dto;
+
+import java.util.List;
+
+public class IndexReportDTO {
+
+    private List<String> expected;
+    private List<String> existing;
+    private List<String> missing;
+
+
+    public IndexReportDTO() {
+    }
+
+    public IndexReportDTO(List<String> expected, List<String> existing, List<String> missing) {
+        this.expected = expected;
+        this.existing = existing;
+        this.missing = missing;
+    }
+
+    public List<String> getExpected() {
+        return expected;
+    }
+
+    public void setExpected(List<String> expected) {
+        this.expected = expected;
+    }
+
+    public List<String> getExisting() {
+        return existing;
+    }
+
+    public void setExisting(List<String> existing) {
+        this.existing = existing;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
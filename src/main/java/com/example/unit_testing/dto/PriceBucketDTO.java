@@ -0,0 +1,46 @@
+package com.example.unit_testing.dto;
+
+/**
+ * One price histogram bucket, lower bound inclusive and upper bound exclusive.
+ * Both bounds are null for the bucket of prices outside the requested boundaries.
+ */
+public class PriceBucketDTO {
+
+    private Double minPrice;
+    private Double maxPrice;
+    private long count;
+
+
+    public PriceBucketDTO() {
+    }
+
+    public PriceBucketDTO(Double minPrice, Double maxPrice, long count) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.count = count;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.unit_testing.dto;
+
+/**
+ * Aggregates over the products matching GET /api/products/analytics. The price fields are null
+ * when no product matches.
+ */
+public class ProductAnalyticsDTO {
+
+    private long count;
+    private long totalStock;
+    private double stockValue;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double averagePrice;
+
+
+    public ProductAnalyticsDTO() {
+    }
+
+    public ProductAnalyticsDTO(long count, long totalStock, double stockValue,
+                               Double minPrice, Double maxPrice, Double averagePrice) {
+        this.count = count;
+        this.totalStock = totalStock;
+        this.stockValue = stockValue;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.averagePrice = averagePrice;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getTotalStock() {
+        return totalStock;
+    }
+
+    public void setTotalStock(long totalStock) {
+        this.totalStock = totalStock;
+    }
+
+    public double getStockValue() {
+        return stockValue;
+    }
+
+    public void setStockValue(double stockValue) {
+        this.stockValue = stockValue;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Double getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(Double averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.unit_testing.dto;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+
+/**
+ * One product mutation on the change feed. The product is null for deletions.
+ */
+public class ProductChangeFeedEventDTO {
+
+    private ProductChangeEvent.Type type;
+    private String productId;
+    private Product product;
+
+
+    public ProductChangeFeedEventDTO() {
+    }
+
+    public ProductChangeFeedEventDTO(ProductChangeEvent.Type type, String productId, Product product) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+    }
+
+    public ProductChangeEvent.Type getType() {
+        return type;
+    }
+
+    public void setType(ProductChangeEvent.Type type) {
+        this.type = type;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.unit_testing.dto;
+
+import com.example.unit_testing.models.Product;
+
+import java.util.List;
+
+public class ProductChangesDTO {
+
+    private List<Product> products;
+    private List<String> deletedIds;
+    private long nextSince;
+    private boolean hasMore;
+
+
+    public ProductChangesDTO() {
+    }
+
+    public ProductChangesDTO(List<Product> products, List<String> deletedIds, long nextSince, boolean hasMore) {
+        this.products = products;
+        this.deletedIds = deletedIds;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public List<String> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public void setDeletedIds(List<String> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
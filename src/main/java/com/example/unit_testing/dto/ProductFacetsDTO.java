@@ -0,0 +1,55 @@
+package com.example.unit_testing.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFacetsDTO {
+
+    private long total;
+    private long inStock;
+    private Map<String, Long> colors;
+    private List<PriceBucketDTO> prices;
+
+
+    public ProductFacetsDTO() {
+    }
+
+    public ProductFacetsDTO(long total, long inStock, Map<String, Long> colors, List<PriceBucketDTO> prices) {
+        this.total = total;
+        this.inStock = inStock;
+        this.colors = colors;
+        this.prices = prices;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(long inStock) {
+        this.inStock = inStock;
+    }
+
+    public Map<String, Long> getColors() {
+        return colors;
+    }
+
+    public void setColors(Map<String, Long> colors) {
+        this.colors = colors;
+    }
+
+    public List<PriceBucketDTO> getPrices() {
+        return prices;
+    }
+
+    public void setPrices(List<PriceBucketDTO> prices) {
+        this.prices = prices;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.unit_testing.dto;
+
+/**
+ * Criteria for GET /api/products/filter. Every field is optional; null means no restriction.
+ */
+public class ProductFilterDTO {
+
+    private String name;
+    private String color;
+    private Double minPrice;
+    private Double maxPrice;
+    private Boolean inStock;
+
+
+    public ProductFilterDTO() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Boolean getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(Boolean inStock) {
+        this.inStock = inStock;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.unit_testing.dto;
+
+import com.example.unit_testing.models.Product;
+
+import java.util.List;
+
+public class ProductPageDTO {
+
+    private List<Product> products;
+    private String nextCursor;
+
+
+    public ProductPageDTO() {
+    }
+
+    public ProductPageDTO(List<Product> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.unit_testing.dto;
+
+public class ProductSnapshotDTO {
+
+    private String path;
+    private long productCount;
+    private long sequence;
+    private long sizeBytes;
+
+
+    public ProductSnapshotDTO() {
+    }
+
+    public ProductSnapshotDTO(String path, long productCount, long sequence, long sizeBytes) {
+        this.path = path;
+        this.productCount = productCount;
+        this.sequence = sequence;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+}
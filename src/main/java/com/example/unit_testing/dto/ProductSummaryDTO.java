@@ -0,0 +1,70 @@
+package com.example.unit_testing.dto;
+
+import com.example.unit_testing.models.Product;
+
+/**
+ * List view of a product without the description. Also used as a repository projection,
+ * so only these fields are read from MongoDB.
+ */
+public class ProductSummaryDTO {
+
+    private String id;
+    private String name;
+    private String color;
+    private double price;
+    private int stockQuantity;
+
+
+    public ProductSummaryDTO() {
+    }
+
+    public static ProductSummaryDTO from(Product product) {
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId(product.getId());
+        summary.setName(product.getName());
+        summary.setColor(product.getColor());
+        summary.setPrice(product.getPrice());
+        summary.setStockQuantity(product.getStockQuantity());
+        return summary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(int stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.unit_testing.dto;
+
+public class StockLevelDTO {
+
+    private String productId;
+    private long stockQuantity;
+
+
+    public StockLevelDTO() {
+    }
+
+    public StockLevelDTO(String productId, long stockQuantity) {
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public long getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(long stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+}
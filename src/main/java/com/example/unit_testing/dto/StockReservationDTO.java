@@ -0,0 +1,32 @@
+package com.example.unit_testing.dto;
+
+public class StockReservationDTO {
+
+    private String productId;
+    private int quantity;
+
+
+    public StockReservationDTO() {
+    }
+
+    public StockReservationDTO(String productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
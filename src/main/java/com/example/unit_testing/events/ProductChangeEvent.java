@@ -0,0 +1,46 @@
+package com.example.unit_testing.events;
+
+import com.example.unit_testing.models.Product;
+
+import java.util.List;
+
+/**
+ * Published after products have been written to the database, so in-memory structures derived
+ * from the catalog can update themselves. Listeners run synchronously on the writing thread.
+ */
+public class ProductChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final List<Product> products;
+
+    public ProductChangeEvent(Type type, List<Product> products) {
+        this.type = type;
+        this.products = products;
+    }
+
+    public static ProductChangeEvent created(Product product) {
+        return new ProductChangeEvent(Type.CREATED, List.of(product));
+    }
+
+    public static ProductChangeEvent updated(Product product) {
+        return new ProductChangeEvent(Type.UPDATED, List.of(product));
+    }
+
+    public static ProductChangeEvent deleted(Product product) {
+        return new ProductChangeEvent(Type.DELETED, List.of(product));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+}
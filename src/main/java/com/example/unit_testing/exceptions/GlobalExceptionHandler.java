@@ -1,21 +1,41 @@
 package com.example.unit_testing.exceptions;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.NoSuchElementException;
 
+/**
+ * Maps exceptions to status codes with RFC 7807 problem details (application/problem+json) as body.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // en räknare per undantagstyp och statuskod, t.ex. api_exceptions_total{exception="NoSuchElementException",status="404"}
+    private void count(Exception ex, HttpStatus status) {
+        meterRegistry.counter("api.exceptions",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
+
     /**
      * Handles IllegalArgumentException and returns a 400 Bad Request.
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        count(ex, HttpStatus.BAD_REQUEST);
+        return ProblemJson.response(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     /**
@@ -23,7 +43,36 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<String> handleNoSuchElement(NoSuchElementException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        count(ex, HttpStatus.NOT_FOUND);
+        return ProblemJson.response(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    /**
+     * Handles InsufficientStockException and returns a 409 Conflict.
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStockException ex) {
+        count(ex, HttpStatus.CONFLICT);
+        return ProblemJson.response(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handles an unreachable database or an exhausted connection pool and returns a 503 Service Unavailable.
+     */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<String> handleDataAccessResourceFailure(DataAccessResourceFailureException ex) {
+        count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ProblemJson.response(HttpStatus.SERVICE_UNAVAILABLE, "The database is temporarily unavailable.");
+    }
+
+    /**
+     * Handles ResponseStatusException and returns its status and reason.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleResponseStatus(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        count(ex, status);
+        return ProblemJson.response(status, ex.getReason());
     }
 
     /**
@@ -31,7 +80,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGeneral(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("An unexpected error occurred.");
+        count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        return ProblemJson.response(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred.");
     }
 }
\ No newline at end of file
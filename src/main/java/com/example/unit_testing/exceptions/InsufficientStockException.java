@@ -0,0 +1,7 @@
+package com.example.unit_testing.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.unit_testing.exceptions;
+
+import java.util.NoSuchElementException;
+
+/**
+ * NoSuchElementException without a stack trace. Not found is an expected outcome answered with
+ * a 404, the stack trace would only cost time to fill in and is never logged.
+ */
+public class NotFoundException extends NoSuchElementException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
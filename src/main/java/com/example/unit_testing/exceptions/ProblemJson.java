@@ -0,0 +1,73 @@
+package com.example.unit_testing.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * RFC 7807 problem details written straight to a string. The body only has the standard members
+ * type, title, status and detail, so a small escaper replaces the JSON serializer, and everything
+ * before the detail is prepared once per status.
+ */
+public final class ProblemJson {
+
+    public static final MediaType MEDIA_TYPE = new MediaType(MediaType.APPLICATION_PROBLEM_JSON, StandardCharsets.UTF_8);
+
+    private static final Map<HttpStatus, String> PREFIXES = new EnumMap<>(HttpStatus.class);
+
+    static {
+        for (HttpStatus status : HttpStatus.values()) {
+            StringBuilder prefix = new StringBuilder("{\"type\":\"about:blank\",\"title\":\"");
+            escape(status.getReasonPhrase(), prefix);
+            PREFIXES.put(status, prefix.append("\",\"status\":").append(status.value()).toString());
+        }
+    }
+
+    private ProblemJson() {
+    }
+
+    /**
+     * @param status The HTTP status of the problem.
+     * @param detail Explanation of this occurrence, left out when null.
+     * @return The problem details as an application/problem+json document.
+     */
+    public static String body(HttpStatus status, String detail) {
+        String prefix = PREFIXES.get(status);
+        if (detail == null) {
+            return prefix + "}";
+        }
+        StringBuilder json = new StringBuilder(prefix.length() + detail.length() + 16)
+                .append(prefix)
+                .append(",\"detail\":\"");
+        escape(detail, json);
+        return json.append("\"}").toString();
+    }
+
+    public static ResponseEntity<String> response(HttpStatus status, String detail) {
+        return ResponseEntity.status(status).contentType(MEDIA_TYPE).body(body(status, detail));
+    }
+
+    private static void escape(String value, StringBuilder json) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
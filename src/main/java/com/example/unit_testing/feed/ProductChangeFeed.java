@@ -0,0 +1,338 @@
+package com.example.unit_testing.feed;
+
+import com.example.unit_testing.dto.ProductChangeFeedEventDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for product mutations, read from a MongoDB change stream on the products
+ * collection, so writes from every application instance are included. All subscribers share one
+ * change stream cursor on one thread, opened with the first subscriber and closed with the last, so the
+ * feed holds a single pooled connection however many clients listen. The event id is the resume token:
+ * a client that reconnects with Last-Event-ID first reads its own cursor from that token until it has
+ * caught up, as long as the token is still in the oplog, and then continues on the shared stream.
+ * Change streams need a replica set or a sharded cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "products.change-feed.enabled", havingValue = "true")
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    // hur länge tryNext väntar, bestämmer hur snabbt en tom prenumerantlista upptäcks
+    private static final long MAX_AWAIT_MILLIS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration heartbeatInterval;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor catchUps;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    // den delade strömmens tråd, null när ingen lyssnar
+    private Thread watcher;
+
+    public ProductChangeFeed(MongoTemplate mongoTemplate,
+                             @Value("${products.change-feed.max-subscribers:50}") int maxSubscribers,
+                             @Value("${products.change-feed.timeout:30m}") Duration timeout,
+                             @Value("${products.change-feed.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.heartbeatInterval = heartbeatInterval;
+        // ingen kö: varje återupptagen prenumeration läser ikapp på en egen tråd tills den når den delade strömmen
+        this.catchUps = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                this::newThread);
+    }
+
+    /**
+     * Starts streaming product mutations to a new subscriber.
+     *
+     * @param lastEventId The id of the last event the client received, or null to start with new changes.
+     * @return The emitter that the events are sent to.
+     * @throws IllegalArgumentException if lastEventId is not a resume token.
+     * @throws ResponseStatusException with 503 when the maximum number of subscribers is reached.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        BsonDocument resumeToken = parseResumeToken(lastEventId);
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()), resumeToken != null);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers.");
+            }
+            // registreras före ikappläsningen så att inget hamnar mellan den och den delade strömmen
+            subscribers.add(subscriber);
+            if (watcher == null) {
+                watcher = newThread(this::watch);
+                watcher.start();
+            }
+        }
+        if (resumeToken != null) {
+            try {
+                catchUps.execute(() -> catchUp(subscriber, resumeToken));
+            } catch (RejectedExecutionException e) {
+                subscribers.remove(subscriber);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers.");
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        catchUps.shutdownNow();
+        synchronized (this) {
+            if (watcher != null) {
+                watcher.interrupt();
+            }
+        }
+    }
+
+    static BsonDocument parseResumeToken(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return BsonDocument.parse(lastEventId);
+        } catch (JsonParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Last-Event-ID is not a valid resume token.");
+        }
+    }
+
+    private Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "product-change-feed-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> changes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        return resumeToken == null ? changes.cursor() : changes.resumeAfter(resumeToken).cursor();
+    }
+
+    private void watch() {
+        long lastSent = System.nanoTime();
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(null)) {
+            while (!Thread.currentThread().isInterrupted() && !stopIfIdle()) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    ProductChangeFeedEventDTO event = toEvent(change.getOperationType(), change.getDocumentKey(),
+                            change.getFullDocument());
+                    if (event == null) {
+                        // drop, rename eller invalidate, strömmen kan inte fortsätta
+                        List.copyOf(subscribers).forEach(subscriber -> subscriber.close(null));
+                        return;
+                    }
+                    subscribers.forEach(subscriber -> subscriber.deliver(change.getResumeToken(), event));
+                    lastSent = System.nanoTime();
+                } else if (System.nanoTime() - lastSent > heartbeatInterval.toNanos()) {
+                    // håller proxyer vid liv och upptäcker klienter som har försvunnit
+                    subscribers.forEach(Subscriber::heartbeat);
+                    lastSent = System.nanoTime();
+                }
+            }
+        } catch (MongoException e) {
+            log.warn("Product change feed stopped: {}", e.getMessage());
+            // klienterna återansluter med Last-Event-ID och startar en ny ström
+            List.copyOf(subscribers).forEach(subscriber -> subscriber.close(e));
+        } finally {
+            synchronized (this) {
+                if (watcher == Thread.currentThread()) {
+                    watcher = null;
+                    // en prenumerant som kom till efter att strömmen tog slut får en ny ström
+                    if (!subscribers.isEmpty() && !catchUps.isShutdown()) {
+                        watcher = newThread(this::watch);
+                        watcher.start();
+                    }
+                }
+            }
+        }
+    }
+
+    // under låset så att en ny prenumerant antingen ses här eller startar en ny tråd
+    private synchronized boolean stopIfIdle() {
+        if (!subscribers.isEmpty()) {
+            return false;
+        }
+        watcher = null;
+        return true;
+    }
+
+    private void catchUp(Subscriber subscriber, BsonDocument resumeToken) {
+        BsonDocument last = resumeToken;
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(resumeToken)) {
+            ChangeStreamDocument<Document> change;
+            while (!subscriber.closed.get() && (change = cursor.tryNext()) != null) {
+                ProductChangeFeedEventDTO event = toEvent(change.getOperationType(), change.getDocumentKey(),
+                        change.getFullDocument());
+                subscriber.send(change.getResumeToken(), event);
+                if (event == null) {
+                    return;
+                }
+                last = change.getResumeToken();
+            }
+        } catch (MongoException e) {
+            log.warn("Product change feed could not resume: {}", e.getMessage());
+            subscriber.close(e);
+            return;
+        }
+        subscriber.caughtUp(last);
+    }
+
+    /**
+     * One SSE client. While it catches up from a resume token, events from the shared stream are held back and
+     * sent afterwards, skipping those the catch-up already sent.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // null när prenumeranten tar emot direkt från den delade strömmen
+        private List<Map.Entry<BsonDocument, ProductChangeFeedEventDTO>> pending;
+
+        private Subscriber(SseEmitter emitter, boolean catchingUp) {
+            this.emitter = emitter;
+            this.pending = catchingUp ? new ArrayList<>() : null;
+        }
+
+        private synchronized void deliver(BsonDocument resumeToken, ProductChangeFeedEventDTO event) {
+            if (pending != null) {
+                pending.add(new AbstractMap.SimpleImmutableEntry<>(resumeToken, event));
+            } else {
+                send(resumeToken, event);
+            }
+        }
+
+        private synchronized void caughtUp(BsonDocument last) {
+            List<Map.Entry<BsonDocument, ProductChangeFeedEventDTO>> held = pending;
+            pending = null;
+            for (Map.Entry<BsonDocument, ProductChangeFeedEventDTO> change : held) {
+                if (isAfter(change.getKey(), last)) {
+                    send(change.getKey(), change.getValue());
+                }
+            }
+        }
+
+        private synchronized void send(BsonDocument resumeToken, ProductChangeFeedEventDTO event) {
+            if (closed.get()) {
+                return;
+            }
+            if (event == null) {
+                close(null);
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(resumeToken.toJson())
+                        .name(event.getType().name())
+                        .data(event));
+            } catch (IOException | IllegalStateException e) {
+                // klienten har kopplat ned eller emittern har redan avslutats
+                close(e);
+            }
+        }
+
+        private synchronized void heartbeat() {
+            if (closed.get() || pending != null) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+            }
+        }
+
+        // null avslutar strömmen normalt
+        private void close(Throwable error) {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                if (error == null) {
+                    emitter.complete();
+                } else {
+                    emitter.completeWithError(error);
+                }
+            }
+        }
+    }
+
+    // resume tokens jämförs som hexsträngar (MongoDB 4.2+), annars skickas hellre en dubblett än att något tappas
+    static boolean isAfter(BsonDocument resumeToken, BsonDocument last) {
+        BsonValue token = resumeToken.get("_data");
+        BsonValue lastToken = last.get("_data");
+        if (token == null || !token.isString() || lastToken == null || !lastToken.isString()) {
+            return true;
+        }
+        return token.asString().getValue().compareTo(lastToken.asString().getValue()) > 0;
+    }
+
+    ProductChangeFeedEventDTO toEvent(OperationType operationType, BsonDocument documentKey, Document fullDocument) {
+        ProductChangeEvent.Type type = switch (operationType) {
+            case INSERT -> ProductChangeEvent.Type.CREATED;
+            case UPDATE, REPLACE -> ProductChangeEvent.Type.UPDATED;
+            case DELETE -> ProductChangeEvent.Type.DELETED;
+            default -> null;
+        };
+        if (type == null) {
+            return null;
+        }
+        // fullDocument saknas för delete, och för update om dokumentet hann tas bort före uppslaget
+        Product product = fullDocument == null ? null : mongoTemplate.getConverter().read(Product.class, fullDocument);
+        return new ProductChangeFeedEventDTO(type, toId(documentKey.get("_id")), product);
+    }
+
+    private static String toId(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
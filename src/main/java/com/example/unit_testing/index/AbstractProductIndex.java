@@ -0,0 +1,116 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Base class for the optional in-memory product indexes. An index is filled from a cursor over all
+ * products when the application is ready and is then maintained from ProductChangeEvents, so it only
+ * sees writes made through this application instance.
+ * <p>
+ * Events that arrive while the cursor is running win over it: the ids written or deleted by those
+ * events are recorded and their cursor rows skipped, because a row read later may be older than the event.
+ */
+public abstract class AbstractProductIndex {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final String description;
+    private final String fallback;
+
+    // skrivna eller borttagna av events under laddningen, skyddas av monitorn
+    private final Set<String> changedWhileLoading = new HashSet<>();
+
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    /**
+     * @param description What the index is called in log messages, e.g. "price index".
+     * @param fallback    What happens while the index cannot be used, e.g. "price range queries will use MongoDB".
+     */
+    protected AbstractProductIndex(ProductRepository productRepository, boolean enabled, String description, String fallback) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.description = description;
+        this.fallback = fallback;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        loading = true;
+        long start = System.nanoTime();
+        try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+            products.forEach(this::addLoaded);
+            ready = true;
+            log.info("Loaded {} products into the {} in {} ms", size(), description,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.warn("Could not load the {}, {}: {}", description, fallback, e.getMessage());
+        } finally {
+            synchronized (this) {
+                loading = false;
+                changedWhileLoading.clear();
+            }
+        }
+    }
+
+    /**
+     * @return true when the index has been fully loaded and can answer queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return The number of products in the index.
+     */
+    public abstract int size();
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (!ready && !loading) {
+            return;
+        }
+        synchronized (this) {
+            for (Product product : event.getProducts()) {
+                if (loading && product.getId() != null) {
+                    changedWhileLoading.add(product.getId());
+                }
+                if (event.getType() == ProductChangeEvent.Type.DELETED) {
+                    remove(product.getId());
+                } else {
+                    add(product);
+                }
+            }
+        }
+    }
+
+    // kontrollen och skrivningen under samma monitor som eventen, annars kan en äldre rad hinna emellan
+    private synchronized void addLoaded(Product product) {
+        if (!changedWhileLoading.contains(product.getId())) {
+            add(product);
+        }
+    }
+
+    /**
+     * Adds a product, or replaces the indexed version of it.
+     */
+    protected abstract void add(Product product);
+
+    protected abstract void remove(String productId);
+}
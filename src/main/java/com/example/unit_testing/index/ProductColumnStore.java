@@ -0,0 +1,302 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.dto.PriceBucketDTO;
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory column store for analytical scans over the whole catalog. Only the fields the
+ * scans need are kept, one primitive array per field indexed by row: price as double[], stock as int[]
+ * and color as int[] codes into a dictionary, plus a bitmap of rows per color.
+ * <p>
+ * A color predicate is a union of bitmaps, and price and stock predicates are tested against the arrays
+ * for the remaining rows, so a scan reads a few contiguous arrays instead of visiting a Product object
+ * per row, and allocates nothing per row.
+ */
+@Component
+public class ProductColumnStore extends AbstractProductIndex {
+
+    static final int INITIAL_CAPACITY = 1024;
+    static final int NO_COLOR = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private int[] colorCodes = new int[INITIAL_CAPACITY];
+    // antal använda rader, borttagna rader återanvänds via live
+    private int rowCount;
+    private final BitSet live = new BitSet();
+    private final Map<String, Integer> rowById = new HashMap<>();
+    // färgkoder tas aldrig bort, färger är få
+    private final Map<String, Integer> colorCodeByName = new HashMap<>();
+    private final List<String> colorNames = new ArrayList<>();
+    private final List<BitSet> colorRows = new ArrayList<>();
+
+    public ProductColumnStore(ProductRepository productRepository,
+                              @Value("${products.column-store.enabled:false}") boolean enabled) {
+        super(productRepository, enabled, "column store", "analytics and facets will use MongoDB");
+    }
+
+    @Override
+    public int size() {
+        return read(live::cardinality);
+    }
+
+    /**
+     * Returns the ids of the products with the given color, like ProductRepository.findByColor.
+     */
+    public List<String> findIdsByColor(String color) {
+        return findIds(List.of(color), null, null, null);
+    }
+
+    /**
+     * Returns the ids of the products with a price strictly between minPrice and maxPrice, matching
+     * the bounds of ProductRepository.findByPriceBetween.
+     */
+    public List<String> findIdsByPriceBetween(double minPrice, double maxPrice) {
+        return findIds(null, Math.nextUp(minPrice), Math.nextDown(maxPrice), null);
+    }
+
+    /**
+     * Returns the ids of the products matching all given predicates, in row order. Null or empty
+     * arguments do not restrict the result; the price bounds are inclusive like GET /api/products/filter.
+     *
+     * @param colors   The colors to match, any of them.
+     * @param minPrice The lowest price to match.
+     * @param maxPrice The highest price to match.
+     * @param inStock  true for products with stock, false for products without.
+     */
+    public List<String> findIds(Collection<String> colors, Double minPrice, Double maxPrice, Boolean inStock) {
+        return read(() -> {
+            BitSet rows = select(colors, minPrice, maxPrice, inStock);
+            List<String> result = new ArrayList<>(rows.cardinality());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                result.add(ids[row]);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts and aggregates the products matching all given predicates, see findIds for the arguments.
+     */
+    public ProductAnalyticsDTO analyze(Collection<String> colors, Double minPrice, Double maxPrice, Boolean inStock) {
+        return read(() -> {
+            BitSet rows = select(colors, minPrice, maxPrice, inStock);
+            long count = 0;
+            long totalStock = 0;
+            double stockValue = 0;
+            double priceSum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                double price = prices[row];
+                count++;
+                totalStock += stock[row];
+                stockValue += price * stock[row];
+                priceSum += price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+            }
+            return count == 0
+                    ? new ProductAnalyticsDTO(0, 0, 0, null, null, null)
+                    : new ProductAnalyticsDTO(count, totalStock, stockValue, min, max, priceSum / count);
+        });
+    }
+
+    /**
+     * Computes the same facets as the $facet aggregation of ProductFacetService: counts per color
+     * (most common first), per price bucket [lower, upper) with an "other" bucket for prices outside
+     * the boundaries, and in stock.
+     *
+     * @param boundaries Strictly increasing bucket boundaries, already validated.
+     */
+    public ProductFacetsDTO getFacets(List<Double> boundaries) {
+        double[] bounds = boundaries.stream().mapToDouble(Double::doubleValue).toArray();
+        return read(() -> {
+            long inStock = 0;
+            long outside = 0;
+            long[] bucketCounts = new long[bounds.length - 1];
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (stock[row] > 0) {
+                    inStock++;
+                }
+                // sista gränsen är exklusiv, precis som i $bucket
+                int bucket = Arrays.binarySearch(bounds, prices[row]);
+                bucket = bucket >= 0 ? bucket : -bucket - 2;
+                if (bucket < 0 || bucket >= bucketCounts.length) {
+                    outside++;
+                } else {
+                    bucketCounts[bucket]++;
+                }
+            }
+
+            List<Map.Entry<String, Long>> colorCounts = new ArrayList<>();
+            for (int code = 0; code < colorNames.size(); code++) {
+                long count = colorRows.get(code).cardinality();
+                if (count > 0) {
+                    colorCounts.add(Map.entry(colorNames.get(code), count));
+                }
+            }
+            colorCounts.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> colors = new LinkedHashMap<>();
+            colorCounts.forEach(entry -> colors.put(entry.getKey(), entry.getValue()));
+
+            List<PriceBucketDTO> priceBuckets = new ArrayList<>(bounds.length);
+            for (int i = 0; i < bucketCounts.length; i++) {
+                priceBuckets.add(new PriceBucketDTO(bounds[i], bounds[i + 1], bucketCounts[i]));
+            }
+            if (outside > 0) {
+                priceBuckets.add(new PriceBucketDTO(null, null, outside));
+            }
+            return new ProductFacetsDTO(live.cardinality(), inStock, colors, priceBuckets);
+        });
+    }
+
+    // en färg ger en union av bitmappar, pris och lager testas sedan mot arrayerna för de rader som återstår
+    private BitSet select(Collection<String> colors, Double minPrice, Double maxPrice, Boolean inStock) {
+        double min = minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+        double max = maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+        boolean filterPrice = minPrice != null || maxPrice != null;
+
+        BitSet rows;
+        if (colors == null || colors.isEmpty()) {
+            if (!filterPrice && inStock == null) {
+                return (BitSet) live.clone();
+            }
+            // utan färg läses prisarrayen i ordning, det är den mest cachevänliga skanningen;
+            // borttagna rader har priset NaN och faller bort i jämförelsen utan att live behöver läsas
+            rows = new BitSet(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                double price = prices[row];
+                if (price >= min && price <= max && (inStock == null || (stock[row] > 0) == inStock)) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        }
+
+        rows = new BitSet(rowCount);
+        for (String color : colors) {
+            Integer code = colorCodeByName.get(color);
+            if (code != null) {
+                rows.or(colorRows.get(code));
+            }
+        }
+        if (filterPrice || inStock != null) {
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                double price = prices[row];
+                if (!(price >= min && price <= max) || (inStock != null && (stock[row] > 0) != inStock)) {
+                    rows.clear(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    protected void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.get(product.getId());
+            int row;
+            if (existing != null) {
+                row = existing;
+                clearColor(row);
+            } else {
+                row = live.nextClearBit(0);
+                if (row == rowCount) {
+                    ensureCapacity(rowCount + 1);
+                    rowCount++;
+                }
+                rowById.put(product.getId(), row);
+                live.set(row);
+            }
+            ids[row] = product.getId();
+            prices[row] = product.getPrice();
+            stock[row] = product.getStockQuantity();
+            colorCodes[row] = colorCode(product.getColor());
+            if (colorCodes[row] != NO_COLOR) {
+                colorRows.get(colorCodes[row]).set(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(productId);
+            if (row == null) {
+                return;
+            }
+            clearColor(row);
+            ids[row] = null;
+            prices[row] = Double.NaN;
+            colorCodes[row] = NO_COLOR;
+            live.clear(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearColor(int row) {
+        if (colorCodes[row] != NO_COLOR) {
+            colorRows.get(colorCodes[row]).clear(row);
+        }
+    }
+
+    private int colorCode(String color) {
+        if (color == null) {
+            return NO_COLOR;
+        }
+        return colorCodeByName.computeIfAbsent(color, name -> {
+            colorNames.add(name);
+            colorRows.add(new BitSet());
+            return colorNames.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        stock = Arrays.copyOf(stock, newCapacity);
+        colorCodes = Arrays.copyOf(colorCodes, newCapacity);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
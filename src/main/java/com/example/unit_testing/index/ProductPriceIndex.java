@@ -0,0 +1,77 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Optional in-memory index of all products ordered by price, so price range queries are answered
+ * with a skip list lookup instead of a database round trip, already sorted by price (then by ID).
+ */
+@Component
+public class ProductPriceIndex extends AbstractProductIndex {
+
+    private final ConcurrentSkipListMap<Double, ConcurrentSkipListMap<String, Product>> byPrice = new ConcurrentSkipListMap<>();
+    private final Map<String, Double> priceById = new ConcurrentHashMap<>();
+
+    public ProductPriceIndex(ProductRepository productRepository,
+                             @Value("${products.price-index.enabled:false}") boolean enabled) {
+        super(productRepository, enabled, "price index", "price range queries will use MongoDB");
+    }
+
+    @Override
+    public int size() {
+        return priceById.size();
+    }
+
+    /**
+     * Returns the products with a price strictly between minPrice and maxPrice, matching the
+     * bounds of ProductRepository.findByPriceBetween, ordered by price and then by ID.
+     */
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        List<Product> products = new ArrayList<>();
+        if (minPrice >= maxPrice) {
+            return products;
+        }
+        ConcurrentNavigableMap<Double, ConcurrentSkipListMap<String, Product>> range =
+                byPrice.subMap(minPrice, false, maxPrice, false);
+        for (ConcurrentSkipListMap<String, Product> samePrice : range.values()) {
+            products.addAll(samePrice.values());
+        }
+        return products;
+    }
+
+    @Override
+    protected synchronized void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        remove(product.getId());
+        byPrice.computeIfAbsent(product.getPrice(), price -> new ConcurrentSkipListMap<>())
+                .put(product.getId(), product);
+        priceById.put(product.getId(), product.getPrice());
+    }
+
+    @Override
+    protected synchronized void remove(String productId) {
+        Double price = priceById.remove(productId);
+        if (price == null) {
+            return;
+        }
+        ConcurrentSkipListMap<String, Product> samePrice = byPrice.get(price);
+        if (samePrice != null) {
+            samePrice.remove(productId);
+            if (samePrice.isEmpty()) {
+                byPrice.remove(price);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over product names for typeahead. Every name is stored under its
+ * lower-cased full text and under each of its words, in a skip list ordered by term, so all
+ * terms starting with a prefix form one contiguous range (the same lookup a trie would do).
+ * <p>
+ * The full names are also kept per name length, each length in a skip list ordered by lower-cased name.
+ * Names that start with the prefix are read from the shortest length up, which is already the suggestion
+ * order, so a lookup stops after the first limit names however many names match. Only when fewer names
+ * start with the prefix are the names where a later word matches ranked, in a heap of the remaining size.
+ */
+@Component
+public class ProductSuggestionIndex extends AbstractProductIndex {
+
+    // samma ordning som namnen har i namesByLength: längd, normaliserat namn, namn
+    private record Candidate(String name, String normalized) {
+    }
+
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator.<Candidate>comparingInt(candidate -> candidate.name().length())
+            .thenComparing(Candidate::normalized)
+            .thenComparing(Candidate::name);
+
+    // term -> namn -> antal produkter med det namnet
+    private final ConcurrentSkipListMap<String, Map<String, Integer>> namesByTerm = new ConcurrentSkipListMap<>();
+    // namnets längd -> normaliserat namn -> namn -> antal produkter med det namnet
+    private final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, Integer>>> namesByLength =
+            new ConcurrentSkipListMap<>();
+    private final Map<String, String> nameById = new ConcurrentHashMap<>();
+
+    public ProductSuggestionIndex(ProductRepository productRepository,
+                                  @Value("${products.search.suggest-index.enabled:false}") boolean enabled) {
+        super(productRepository, enabled, "suggestion index", "suggestions will use MongoDB");
+    }
+
+    @Override
+    public int size() {
+        return nameById.size();
+    }
+
+    /**
+     * Returns distinct product names where the full name or one of its words starts with the prefix,
+     * ignoring case. Names starting with the prefix come first, then shorter names, then alphabetical.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        if (limit <= 0) {
+            return List.of();
+        }
+        String upper = normalized + Character.MAX_VALUE;
+        List<String> suggestions = new ArrayList<>(limit);
+        // namn som börjar med prefixet kommer redan i rankordning, kortast först
+        collect:
+        for (ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, Integer>> sameLength
+                : namesByLength.tailMap(normalized.length()).values()) {
+            for (ConcurrentSkipListMap<String, Integer> sameName : sameLength.subMap(normalized, true, upper, true).values()) {
+                for (String name : sameName.keySet()) {
+                    suggestions.add(name);
+                    if (suggestions.size() == limit) {
+                        break collect;
+                    }
+                }
+            }
+        }
+        if (suggestions.size() == limit) {
+            return suggestions;
+        }
+
+        // resten är namn där ett senare ord matchar; alla rankas, men bara de bästa hålls i en heap med den sämsta överst
+        int remaining = limit - suggestions.size();
+        PriorityQueue<Candidate> best = new PriorityQueue<>(remaining + 1, CANDIDATE_ORDER.reversed());
+        for (Map<String, Integer> sameTerm : namesByTerm.subMap(normalized, true, upper, true).values()) {
+            for (String name : sameTerm.keySet()) {
+                String normalizedName = normalize(name);
+                if (normalizedName.startsWith(normalized)) {
+                    continue;
+                }
+                Candidate candidate = new Candidate(name, normalizedName);
+                if (best.size() == remaining && CANDIDATE_ORDER.compare(candidate, best.peek()) >= 0) {
+                    continue;
+                }
+                // ett namn finns under flera ord; en dubblett som inte ligger i heapen har redan slagits ut
+                if (best.contains(candidate)) {
+                    continue;
+                }
+                best.add(candidate);
+                if (best.size() > remaining) {
+                    best.poll();
+                }
+            }
+        }
+        List<Candidate> candidates = new ArrayList<>(best);
+        candidates.sort(CANDIDATE_ORDER);
+        for (Candidate candidate : candidates) {
+            suggestions.add(candidate.name());
+        }
+        return suggestions;
+    }
+
+    /**
+     * The suggestion order for a prefix, also used when suggestions come from MongoDB.
+     */
+    public static Comparator<String> ranking(String prefix) {
+        String normalizedPrefix = normalize(prefix);
+        return Comparator.<String, Boolean>comparing(name -> !normalize(name).startsWith(normalizedPrefix))
+                .thenComparingInt(String::length)
+                .thenComparing(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // hela namnet plus varje ord, så att "Red Shirt" hittas på både "red" och "shi"
+    static Set<String> terms(String name) {
+        Set<String> terms = new LinkedHashSet<>();
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        terms.add(normalized);
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    @Override
+    protected synchronized void add(Product product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        remove(product.getId());
+        Set<String> terms = terms(product.getName());
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (String term : terms) {
+            namesByTerm.computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                    .merge(product.getName(), 1, Integer::sum);
+        }
+        namesByLength.computeIfAbsent(product.getName().length(), length -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(normalize(product.getName()), key -> new ConcurrentSkipListMap<>())
+                .merge(product.getName(), 1, Integer::sum);
+        nameById.put(product.getId(), product.getName());
+    }
+
+    @Override
+    protected synchronized void remove(String productId) {
+        String name = nameById.remove(productId);
+        if (name == null) {
+            return;
+        }
+        for (String term : terms(name)) {
+            Map<String, Integer> names = namesByTerm.get(term);
+            if (names == null) {
+                continue;
+            }
+            names.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+            if (names.isEmpty()) {
+                namesByTerm.remove(term);
+            }
+        }
+        ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, Integer>> sameLength = namesByLength.get(name.length());
+        ConcurrentSkipListMap<String, Integer> sameName = sameLength == null ? null : sameLength.get(normalize(name));
+        if (sameName != null) {
+            sameName.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+            if (sameName.isEmpty()) {
+                sameLength.remove(normalize(name));
+                if (sameLength.isEmpty()) {
+                    namesByLength.remove(name.length());
+                }
+            }
+        }
+    }
+}
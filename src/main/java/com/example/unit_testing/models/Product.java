@@ -1,17 +1,29 @@
 package com.example.unit_testing.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "products")
+@CompoundIndex(name = "color_price", def = "{'color': 1, 'price': 1}")
 public class Product {
     @Id
     private String id;
+    @Indexed
+    @TextIndexed(weight = 3)
     private String name;
+    @TextIndexed
     private String description;
+    @Indexed
     private String color;
+    @Indexed
     private double price;
     private int stockQuantity;
+    // ökas vid varje skrivning, se ProductSequence och GET /api/products/changes
+    @Indexed
+    private long modSequence;
 
 
     public Product() {
@@ -64,4 +76,12 @@ public class Product {
     public void setStockQuantity(int stockQuantity) {
         this.stockQuantity = stockQuantity;
     }
+
+    public long getModSequence() {
+        return modSequence;
+    }
+
+    public void setModSequence(long modSequence) {
+        this.modSequence = modSequence;
+    }
 }
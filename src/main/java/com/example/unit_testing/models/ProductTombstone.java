@@ -0,0 +1,53 @@
+package com.example.unit_testing.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marker for a deleted product, so delta sync clients learn about deletions.
+ */
+@Document(collection = "product_tombstones")
+public class ProductTombstone {
+    @Id
+    private String id;
+    @Indexed
+    private long modSequence;
+    private Instant deletedAt;
+
+
+    public ProductTombstone() {
+    }
+
+    public ProductTombstone(String id, long modSequence, Instant deletedAt) {
+        this.id = id;
+        this.modSequence = modSequence;
+        this.deletedAt = deletedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getModSequence() {
+        return modSequence;
+    }
+
+    public void setModSequence(long modSequence) {
+        this.modSequence = modSequence;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductFieldDictionary;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// ReactiveMongoTemplate anropar bara reaktiva callbacks, samma ordlista som i servlet-varianten
+@Component
+@Profile("reactive")
+public class ReactiveProductFieldDictionary implements ReactiveAfterConvertCallback<Product> {
+
+    private final ProductFieldDictionary productFieldDictionary;
+
+    public ReactiveProductFieldDictionary(ProductFieldDictionary productFieldDictionary) {
+        this.productFieldDictionary = productFieldDictionary;
+    }
+
+    @Override
+    public Publisher<Product> onAfterConvert(Product product, Document document, String collection) {
+        return Mono.just(productFieldDictionary.canonicalize(product));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.exceptions.ProblemJson;
+import com.example.unit_testing.models.Product;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Handler functions for the reactive product API. Errors are mapped to the same status codes
+ * and RFC 7807 problem bodies (ProblemJson) as GlobalExceptionHandler uses for ProductController.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveProductHandler {
+
+    private final ReactiveProductService productService;
+
+    // Konstruktorinjektion
+    public ReactiveProductHandler(ReactiveProductService productService) {
+        this.productService = productService;
+    }
+
+    // Skapa en produkt
+    public Mono<ServerResponse> createProduct(ServerRequest request) {
+        return request.bodyToMono(ProductDTO.class)
+                .flatMap(productService::createProduct)
+                .flatMap(product -> ServerResponse.status(HttpStatus.CREATED).bodyValue(product))
+                .onErrorResume(ReactiveProductHandler::toErrorResponse);
+    }
+
+    // Hämta alla produkter, strömmas eftersom listan aldrig ger 404
+    public Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        return ServerResponse.ok().body(productService.getAllProducts(), Product.class);
+    }
+
+    // Hämta produkter efter namn
+    public Mono<ServerResponse> getProductsByName(ServerRequest request) {
+        return list(productService.getProductsByName(request.pathVariable("name")));
+    }
+
+    // Hämta produkter inom prisintervall
+    public Mono<ServerResponse> getProductsByPriceRange(ServerRequest request) {
+        double minPrice;
+        double maxPrice;
+        try {
+            minPrice = Double.parseDouble(request.queryParam("minPrice").orElseThrow());
+            maxPrice = Double.parseDouble(request.queryParam("maxPrice").orElseThrow());
+        } catch (NoSuchElementException | NumberFormatException e) {
+            return problem(HttpStatus.BAD_REQUEST, "minPrice and maxPrice are required numbers.");
+        }
+        return list(productService.getProductsByPriceRange(minPrice, maxPrice));
+    }
+
+    // Hämta produkter efter färg
+    public Mono<ServerResponse> getProductsByColor(ServerRequest request) {
+        return list(productService.getProductsByColor(request.pathVariable("color")));
+    }
+
+    // Radera en produkt
+    public Mono<ServerResponse> deleteProduct(ServerRequest request) {
+        return productService.deleteProduct(request.pathVariable("id"))
+                .then(ServerResponse.noContent().build())
+                .onErrorResume(ReactiveProductHandler::toErrorResponse);
+    }
+
+    // samlar listan så att fel (t.ex. inga träffar) blir rätt statuskod innan svaret börjar skrivas
+    private static Mono<ServerResponse> list(Flux<Product> products) {
+        return products.collectList()
+                .flatMap(list -> ServerResponse.ok().bodyValue(list))
+                .onErrorResume(ReactiveProductHandler::toErrorResponse);
+    }
+
+    private static Mono<ServerResponse> toErrorResponse(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return problem(HttpStatus.BAD_REQUEST, error.getMessage());
+        }
+        if (error instanceof NoSuchElementException) {
+            return problem(HttpStatus.NOT_FOUND, error.getMessage());
+        }
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred.");
+    }
+
+    // samma RFC 7807-kropp som GlobalExceptionHandler
+    private static Mono<ServerResponse> problem(HttpStatus status, String detail) {
+        return ServerResponse.status(status).contentType(ProblemJson.MEDIA_TYPE).bodyValue(ProblemJson.body(status, detail));
+    }
+}
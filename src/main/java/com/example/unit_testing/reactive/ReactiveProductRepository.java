@@ -0,0 +1,16 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.models.Product;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+@Profile("reactive")
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+    Flux<Product> findByName(String name);
+
+    Flux<Product> findByPriceBetween(double minPrice, double maxPrice);
+
+    Flux<Product> findByColor(String color);
+
+}
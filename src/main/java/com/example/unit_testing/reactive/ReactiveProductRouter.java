@@ -0,0 +1,38 @@
+package com.example.unit_testing.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional routes for the reactive product API, served by Netty on the same paths as
+ * ProductController, which is disabled in the "reactive" profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveProductRouter {
+
+    // Tomcat finns också på classpath för servlet-stacken, välj Netty explicit
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(ReactiveProductHandler handler) {
+        return route()
+                .path("/api/products", builder -> builder
+                        .POST("", handler::createProduct)
+                        .GET("", handler::getAllProducts)
+                        .GET("/name/{name}", handler::getProductsByName)
+                        .GET("/price", handler::getProductsByPriceRange)
+                        .GET("/color/{color}", handler::getProductsByColor)
+                        .DELETE("/{id}", handler::deleteProduct))
+                .build();
+    }
+}
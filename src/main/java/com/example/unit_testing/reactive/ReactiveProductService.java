@@ -0,0 +1,137 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.exceptions.NotFoundException;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.ProductSyncService;
+import com.example.unit_testing.services.ProductValidator;
+import com.example.unit_testing.sync.ProductSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Non-blocking counterpart of ProductService with the same validation rules and error messages.
+ * Errors are signalled through the returned publisher instead of being thrown.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductService {
+
+    @Autowired
+    private ReactiveProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductSequence productSequence;
+
+    @Autowired
+    private ProductSyncService productSyncService;
+
+    /**
+     * Creates a new product based on the provided ProductDTO.
+     *
+     * @param productDTO The data transfer object containing product details.
+     * @return The saved product with an assigned ID, or an IllegalArgumentException signal
+     * if required fields are missing or invalid.
+     */
+    public Mono<Product> createProduct(ProductDTO productDTO) {
+        return Mono.fromCallable(() -> {
+                    ProductValidator.validate(productDTO);
+                    return ProductValidator.toProduct(productDTO);
+                })
+                // numret är i luften tills sparningen är klar eller har misslyckats
+                .flatMap(product -> Mono.using(productSequence::next,
+                        sequence -> {
+                            product.setModSequence(sequence.first());
+                            return productRepository.save(product);
+                        },
+                        ProductSequence.Reservation::close))
+                // ProductSequence är blockerande
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(savedProduct -> eventPublisher.publishEvent(ProductChangeEvent.created(savedProduct)));
+    }
+
+    /**
+     * Retrieves all products from the repository.
+     *
+     * @return All products.
+     */
+    public Flux<Product> getAllProducts() {
+        return productRepository.findAll();
+    }
+
+    /**
+     * Deletes a product by its ID.
+     *
+     * @param productId The ID of the product to delete.
+     * @return Completion, or a NoSuchElementException signal if the product does not exist.
+     */
+    public Mono<Void> deleteProduct(String productId) {
+        return productRepository.findById(productId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Product not found with id: " + productId)))
+                .flatMap(product -> Mono.using(() -> productSyncService.writeTombstones(List.of(productId)),
+                                reservation -> productRepository.deleteById(productId)
+                                        .onErrorResume(e -> Mono.fromRunnable(
+                                                        () -> productSyncService.removeTombstones(List.of(productId), e))
+                                                .subscribeOn(Schedulers.boundedElastic())
+                                                .then(Mono.error(e))),
+                                ProductSequence.Reservation::close)
+                        // tombstones skrivs blockerande, likaså lyssnarna nedan
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.fromRunnable(() -> eventPublisher.publishEvent(ProductChangeEvent.deleted(product)))
+                                .subscribeOn(Schedulers.boundedElastic())))
+                .then();
+    }
+
+    /**
+     * Retrieves products by their name.
+     *
+     * @param name The name of the products to retrieve.
+     * @return The matching products, an IllegalArgumentException signal if the name is null or empty,
+     * or a NoSuchElementException signal if no products match.
+     */
+    public Flux<Product> getProductsByName(String name) {
+        return Mono.fromRunnable(() -> ProductValidator.validateName(name))
+                .thenMany(Flux.defer(() -> productRepository.findByName(name)))
+                .switchIfEmpty(Flux.error(() -> new NotFoundException("No products found with name: " + name)));
+    }
+
+    /**
+     * Retrieves products within a specified price range.
+     *
+     * @param minPrice The minimum price.
+     * @param maxPrice The maximum price.
+     * @return The matching products, an IllegalArgumentException signal if the range is invalid,
+     * or a NoSuchElementException signal if no products are in range.
+     */
+    public Flux<Product> getProductsByPriceRange(double minPrice, double maxPrice) {
+        return Mono.fromRunnable(() -> ProductValidator.validatePriceRange(minPrice, maxPrice))
+                .thenMany(Flux.defer(() -> productRepository.findByPriceBetween(minPrice, maxPrice)))
+                .switchIfEmpty(Flux.error(() -> new NotFoundException(
+                        "No products found within price range: " + minPrice + " - " + maxPrice)));
+    }
+
+    /**
+     * Retrieves products by their color.
+     *
+     * @param color The color of the products to retrieve.
+     * @return The matching products, an IllegalArgumentException signal if the color is null or empty,
+     * or a NoSuchElementException signal if no products match.
+     */
+    public Flux<Product> getProductsByColor(String color) {
+        return Mono.fromRunnable(() -> ProductValidator.validateColor(color))
+                .thenMany(Flux.defer(() -> productRepository.findByColor(color)))
+                .switchIfEmpty(Flux.error(() -> new NotFoundException("No products found with color: " + color)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.models.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+@Profile("reactive")
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+}
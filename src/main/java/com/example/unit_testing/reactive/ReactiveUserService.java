@@ -0,0 +1,40 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.exceptions.NotFoundException;
+import com.example.unit_testing.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of UserService.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    /**
+     * Creates a new user by saving it to the repository.
+     *
+     * @param user The user to create.
+     * @return The saved user with an assigned ID.
+     */
+    public Mono<User> createUser(User user) {
+        return userRepository.save(user);
+    }
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param id The ID of the user to retrieve.
+     * @return The found user, or a NotFoundException signal if no user is found with the given ID.
+     */
+    public Mono<User> getUserById(String id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User not found with id: " + id)));
+    }
+}
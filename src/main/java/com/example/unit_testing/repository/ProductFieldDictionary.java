@@ -0,0 +1,89 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.cache.StringDictionary;
+import com.example.unit_testing.models.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the configured String fields of every Product read from MongoDB with shared instances
+ * from a StringDictionary per field. Without it every document read carries its own copy of e.g.
+ * "Red", which adds up for products held in caches and in-memory indexes.
+ */
+@Component
+public class ProductFieldDictionary implements AfterConvertCallback<Product>, MeterBinder {
+
+    public static final List<String> SUPPORTED_FIELDS = List.of("name", "color", "description");
+
+    private final Map<String, StringDictionary> dictionaries = new LinkedHashMap<>();
+    // fälten som fasta referenser, så att varje läsning slipper en map-uppslagning per fält
+    private final StringDictionary names;
+    private final StringDictionary colors;
+    private final StringDictionary descriptions;
+
+    public ProductFieldDictionary(@Value("${products.dictionary.fields:color}") List<String> fields,
+                                  @Value("${products.dictionary.max-entries:10000}") int maxEntries) {
+        for (String field : fields) {
+            if (field.isBlank()) {
+                continue;
+            }
+            if (!SUPPORTED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown dictionary field '" + field + "', supported fields are "
+                        + SUPPORTED_FIELDS + ".");
+            }
+            dictionaries.put(field, new StringDictionary(maxEntries));
+        }
+        this.names = dictionaries.get("name");
+        this.colors = dictionaries.get("color");
+        this.descriptions = dictionaries.get("description");
+    }
+
+    @Override
+    public Product onAfterConvert(Product product, Document document, String collection) {
+        return canonicalize(product);
+    }
+
+    /**
+     * Replaces the configured fields of the product with their shared instances.
+     *
+     * @return The same product.
+     */
+    public Product canonicalize(Product product) {
+        if (names != null) {
+            product.setName(names.canonicalize(product.getName()));
+        }
+        if (colors != null) {
+            product.setColor(colors.canonicalize(product.getColor()));
+        }
+        if (descriptions != null) {
+            product.setDescription(descriptions.canonicalize(product.getDescription()));
+        }
+        return product;
+    }
+
+    /**
+     * @return The number of distinct values stored per configured field.
+     */
+    public Map<String, Integer> getSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        dictionaries.forEach((field, dictionary) -> sizes.put(field, dictionary.size()));
+        return sizes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dictionaries.forEach((field, dictionary) -> Gauge.builder("products.dictionary.entries", dictionary, StringDictionary::size)
+                .description("Distinct values in the string dictionary of a Product field")
+                .tag("field", field)
+                .register(registry));
+    }
+}
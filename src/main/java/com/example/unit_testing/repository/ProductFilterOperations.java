@@ -0,0 +1,23 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.models.Product;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Dynamic multi-criteria queries for ProductRepository, implemented with MongoTemplate in ProductFilterOperationsImpl.
+ */
+public interface ProductFilterOperations {
+
+    /**
+     * Finds the products matching every criterion that is set in the filter, with one query.
+     *
+     * @param filter The criteria; unset fields do not restrict the result.
+     * @param sort   The sort order, applied by MongoDB.
+     * @param limit  The maximum number of products to read.
+     * @return The matching products.
+     */
+    List<Product> findByFilter(ProductFilterDTO filter, Sort sort, int limit);
+}
@@ -0,0 +1,52 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.models.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+// Spring Data hittar implementationen via namnet (<fragment>Impl)
+public class ProductFilterOperationsImpl implements ProductFilterOperations {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductFilterOperationsImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Product> findByFilter(ProductFilterDTO filter, Sort sort, int limit) {
+        return mongoTemplate.find(toQuery(filter).with(sort).limit(limit), Product.class);
+    }
+
+    // ett villkor per fält, likhet först så att color_price-indexet används för färg + prisintervall
+    static Query toQuery(ProductFilterDTO filter) {
+        Query query = new Query();
+        if (filter.getName() != null) {
+            query.addCriteria(Criteria.where("name").is(filter.getName()));
+        }
+        if (filter.getColor() != null) {
+            query.addCriteria(Criteria.where("color").is(filter.getColor()));
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (filter.getMinPrice() != null) {
+                price.gte(filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                price.lte(filter.getMaxPrice());
+            }
+            query.addCriteria(price);
+        }
+        if (filter.getInStock() != null) {
+            query.addCriteria(filter.getInStock()
+                    ? Criteria.where("stockQuantity").gt(0)
+                    : Criteria.where("stockQuantity").lte(0));
+        }
+        return query;
+    }
+}
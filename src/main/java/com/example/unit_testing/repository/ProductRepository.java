@@ -1,16 +1,44 @@
 package com.example.unit_testing.repository;
 
 import com.example.unit_testing.models.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends MongoRepository<Product, String>, ProductStockOperations,
+        ProductFilterOperations {
+    int STREAM_BATCH_SIZE = 500;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
     List<Product> findByName(String name);
 
     List<Product> findByPriceBetween(double minPrice, double maxPrice);
 
     List<Product> findByColor(String color);
 
-}
+    // dynamiska projektioner, läser bara fälten i typen (t.ex. ProductSummaryDTO)
+    <T> List<T> findByName(String name, Class<T> type);
+
+    <T> List<T> findByPriceBetween(double minPrice, double maxPrice, Class<T> type);
+
+    <T> List<T> findByColor(String color, Class<T> type);
+
+    // keyset-paginering på _id, sorteringen kommer från pageable
+    List<Product> findAllBy(Pageable pageable);
 
+    List<Product> findByIdGreaterThan(String id, Pageable pageable);
+
+    // strömmar via en Mongo-cursor, måste stängas av anroparen; cursorn hämtar högst 500 dokument åt gången
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Stream<Product> streamAllByOrderByIdAsc();
+
+    // som ovan men fortsätter efter ett id, för export som återupptas
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Stream<Product> streamByIdGreaterThanOrderByIdAsc(String id);
+
+    // delta-synk, (since, until] där until är ProductSequence.safe(), se ProductSyncService
+    List<Product> findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(long since, long until, Pageable pageable);
+
+}
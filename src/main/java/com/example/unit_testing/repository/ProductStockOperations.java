@@ -0,0 +1,21 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.models.Product;
+
+import java.util.Optional;
+
+/**
+ * Atomic stock updates for ProductRepository, implemented with MongoTemplate in ProductStockOperationsImpl.
+ */
+public interface ProductStockOperations {
+
+    /**
+     * Adds delta to the stock quantity in one findAndModify. A negative delta only matches
+     * when the product has at least that much in stock, so the quantity never goes below zero.
+     *
+     * @param id    The ID of the product.
+     * @param delta The amount to add, negative to withdraw.
+     * @return The updated product, or empty if the product does not exist or has too little stock.
+     */
+    Optional<Product> adjustStock(String id, int delta);
+}
@@ -0,0 +1,39 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.sync.ProductSequence;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+// Spring Data hittar implementationen via namnet (<fragment>Impl)
+public class ProductStockOperationsImpl implements ProductStockOperations {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductSequence productSequence;
+
+    public ProductStockOperationsImpl(MongoTemplate mongoTemplate, ProductSequence productSequence) {
+        this.mongoTemplate = mongoTemplate;
+        this.productSequence = productSequence;
+    }
+
+    @Override
+    public Optional<Product> adjustStock(String id, int delta) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (delta < 0) {
+            criteria = criteria.and("stockQuantity").gte(-delta);
+        }
+        try (ProductSequence.Reservation sequence = productSequence.next()) {
+            Product updated = mongoTemplate.findAndModify(
+                    new Query(criteria),
+                    new Update().inc("stockQuantity", delta).set("modSequence", sequence.first()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Product.class);
+            return Optional.ofNullable(updated);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.models.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface ProductTombstoneRepository extends MongoRepository<ProductTombstone, String> {
+    List<ProductTombstone> findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(long since, long until, Pageable pageable);
+}
@@ -0,0 +1,99 @@
+package com.example.unit_testing.repository.memory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Query by example for the in-memory repositories, matching stored entities the way MongoDB matches the
+ * query Spring Data builds from the probe: every property of the probe that is not null, primitives
+ * included, must be equal, strings according to the string matcher and ignore-case settings of the
+ * ExampleMatcher, and null properties are ignored unless the matcher includes nulls. Only the top-level
+ * properties are compared, nested objects are compared with equals.
+ */
+final class ExamplePredicate implements Predicate<Object> {
+
+    private record Criterion(Method getter, Object value, ExampleMatcher.StringMatcher stringMatcher,
+                             boolean ignoreCase, Pattern pattern) {
+    }
+
+    private final Class<?> probeType;
+    private final boolean all;
+    private final List<Criterion> criteria = new ArrayList<>();
+
+    ExamplePredicate(Example<?> example) {
+        Object probe = example.getProbe();
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+        this.probeType = example.getProbeType();
+        this.all = matcher.isAllMatching();
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(probeType)) {
+            String path = property.getName();
+            Method getter = property.getReadMethod();
+            if (getter == null || property.getWriteMethod() == null || accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(ReflectionUtils.invokeMethod(getter, probe)))
+                    .orElse(null);
+            if (value == null && accessor.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) {
+                continue;
+            }
+            ExampleMatcher.StringMatcher stringMatcher = accessor.getStringMatcherForPath(path);
+            boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+            Pattern pattern = value instanceof String regex && stringMatcher == ExampleMatcher.StringMatcher.REGEX
+                    ? Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0)
+                    : null;
+            criteria.add(new Criterion(getter, value, stringMatcher, ignoreCase, pattern));
+        }
+    }
+
+    @Override
+    public boolean test(Object entity) {
+        if (!probeType.isInstance(entity)) {
+            return false;
+        }
+        // som en tom fråga i MongoDB matchar ett exempel utan värden allt
+        if (criteria.isEmpty()) {
+            return true;
+        }
+        return all
+                ? criteria.stream().allMatch(criterion -> matches(criterion, entity))
+                : criteria.stream().anyMatch(criterion -> matches(criterion, entity));
+    }
+
+    private static boolean matches(Criterion criterion, Object entity) {
+        Object actual = ReflectionUtils.invokeMethod(criterion.getter(), entity);
+        if (criterion.value() == null || actual == null) {
+            return criterion.value() == actual;
+        }
+        if (!(criterion.value() instanceof String expected) || !(actual instanceof String value)) {
+            return Objects.equals(criterion.value(), actual);
+        }
+        if (criterion.pattern() != null) {
+            return criterion.pattern().matcher(value).find();
+        }
+        if (criterion.ignoreCase()) {
+            expected = expected.toLowerCase(Locale.ROOT);
+            value = value.toLowerCase(Locale.ROOT);
+        }
+        return switch (criterion.stringMatcher()) {
+            case STARTING -> value.startsWith(expected);
+            case ENDING -> value.endsWith(expected);
+            case CONTAINING -> value.contains(expected);
+            default -> value.equals(expected);
+        };
+    }
+}
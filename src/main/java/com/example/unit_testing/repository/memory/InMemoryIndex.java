@@ -0,0 +1,64 @@
+package com.example.unit_testing.repository.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Secondary index of an InMemoryRepository: entity ids grouped by the value of one property.
+ * Not thread safe on its own, the repository only touches it while holding its lock.
+ */
+final class InMemoryIndex<T, K> {
+
+    private final Function<T, K> key;
+    private final Map<K, NavigableSet<String>> entries;
+
+    private InMemoryIndex(Function<T, K> key, Map<K, NavigableSet<String>> entries) {
+        this.key = key;
+        this.entries = entries;
+    }
+
+    // likhetsuppslag, tillåter null som nyckel
+    static <T, K> InMemoryIndex<T, K> hash(Function<T, K> key) {
+        return new InMemoryIndex<>(key, new HashMap<>());
+    }
+
+    // intervallfrågor via range()
+    static <T, K extends Comparable<? super K>> InMemoryIndex<T, K> sorted(Function<T, K> key) {
+        return new InMemoryIndex<>(key, new TreeMap<>());
+    }
+
+    void add(String id, T entity) {
+        entries.computeIfAbsent(key.apply(entity), k -> new TreeSet<>()).add(id);
+    }
+
+    void remove(String id, T entity) {
+        K value = key.apply(entity);
+        NavigableSet<String> ids = entries.get(value);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            entries.remove(value);
+        }
+    }
+
+    /**
+     * @return The ids with exactly this value, in id order.
+     */
+    NavigableSet<String> get(K value) {
+        return entries.getOrDefault(value, Collections.emptyNavigableSet());
+    }
+
+    /**
+     * @return The ids grouped by value in value order; only valid for a sorted index.
+     */
+    NavigableMap<K, NavigableSet<String>> range() {
+        if (!(entries instanceof NavigableMap<K, NavigableSet<String>> sorted)) {
+            throw new IllegalStateException("Range queries need a sorted index.");
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.unit_testing.repository.memory;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Copies the products collection into the in-memory repository at startup, so an edge node
+ * serves reads from memory. Runs before the in-memory indexes (price, suggestions) are loaded.
+ */
+@Component
+@Profile("in-memory")
+@ConditionalOnProperty(name = "products.in-memory.preload", havingValue = "true")
+public class InMemoryProductPreloader {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryProductPreloader.class);
+
+    private final InMemoryProductRepository productRepository;
+    private final InMemoryProductSequence productSequence;
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    public InMemoryProductPreloader(InMemoryProductRepository productRepository,
+                                    InMemoryProductSequence productSequence,
+                                    MongoTemplate mongoTemplate,
+                                    @Value("${products.bulk.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productSequence = productSequence;
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void preload() {
+        long start = System.nanoTime();
+        long count = 0;
+        long maxSequence = 0;
+        List<Product> batch = new ArrayList<>(batchSize);
+        try (Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                batch.add(product);
+                maxSequence = Math.max(maxSequence, product.getModSequence());
+                if (batch.size() == batchSize) {
+                    count += productRepository.saveAll(batch).size();
+                    batch.clear();
+                }
+            }
+        }
+        count += productRepository.saveAll(batch).size();
+        // nya skrivningar ska få högre sekvens än allt som lästes in
+        productSequence.advanceTo(maxSequence);
+        log.info("Preloaded {} products into memory in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.unit_testing.repository.memory;
+
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.sync.ProductSequence;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ProductRepository for the in-memory profile, with hash indexes on name and color and sorted
+ * indexes on price and modSequence. Answers every finder like the MongoDB repository, including
+ * the exclusive bounds of findByPriceBetween and the conditional update of adjustStock.
+ */
+@Component
+@Primary
+@Profile("in-memory")
+public class InMemoryProductRepository extends InMemoryRepository<Product> implements ProductRepository {
+
+    private final ProductSequence productSequence;
+    private final InMemoryIndex<Product, String> nameIndex;
+    private final InMemoryIndex<Product, String> colorIndex;
+    private final InMemoryIndex<Product, Double> priceIndex;
+    private final InMemoryIndex<Product, Long> modSequenceIndex;
+
+    public InMemoryProductRepository(ProductSequence productSequence) {
+        super(Product.class, Product::getId, Product::setId);
+        this.productSequence = productSequence;
+        this.nameIndex = addIndex(InMemoryIndex.hash(Product::getName));
+        this.colorIndex = addIndex(InMemoryIndex.hash(Product::getColor));
+        this.priceIndex = addIndex(InMemoryIndex.sorted(Product::getPrice));
+        this.modSequenceIndex = addIndex(InMemoryIndex.sorted(Product::getModSequence));
+    }
+
+    @Override
+    public List<Product> findByName(String name) {
+        return read(() -> find(stored(nameIndex.get(name)), Sort.unsorted(), 0, Integer.MAX_VALUE));
+    }
+
+    // Between i Spring Data MongoDB blir $gt/$lt, gränserna ingår inte
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        if (!(minPrice < maxPrice)) {
+            return List.of();
+        }
+        return read(() -> find(stored(flatten(priceIndex.range().subMap(minPrice, false, maxPrice, false))),
+                Sort.unsorted(), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<Product> findByColor(String color) {
+        return read(() -> find(stored(colorIndex.get(color)), Sort.unsorted(), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public <T> List<T> findByName(String name, Class<T> type) {
+        return project(findByName(name), type);
+    }
+
+    @Override
+    public <T> List<T> findByPriceBetween(double minPrice, double maxPrice, Class<T> type) {
+        return project(findByPriceBetween(minPrice, maxPrice), type);
+    }
+
+    @Override
+    public <T> List<T> findByColor(String color, Class<T> type) {
+        return project(findByColor(color), type);
+    }
+
+    @Override
+    public List<Product> findAllBy(Pageable pageable) {
+        return read(() -> find(stored(ids()), pageable));
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThan(String id, Pageable pageable) {
+        return read(() -> find(stored(ids().tailSet(id, false)), pageable));
+    }
+
+    @Override
+    public Stream<Product> streamAllByOrderByIdAsc() {
+        return streamAfter(null);
+    }
+
+    @Override
+    public Stream<Product> streamByIdGreaterThanOrderByIdAsc(String id) {
+        return streamAfter(id);
+    }
+
+    // en batch per låsning, som en cursor: låset hålls inte medan anroparen läser och bara en batch ligger i minnet
+    private Stream<Product> streamAfter(String id) {
+        return Stream.iterate(nextBatch(id), batch -> !batch.isEmpty(),
+                        batch -> batch.size() < STREAM_BATCH_SIZE ? List.of() : nextBatch(batch.get(batch.size() - 1).getId()))
+                .flatMap(List::stream);
+    }
+
+    private List<Product> nextBatch(String after) {
+        return read(() -> find(stored(after == null ? ids() : ids().tailSet(after, false)),
+                Sort.unsorted(), 0, STREAM_BATCH_SIZE));
+    }
+
+    @Override
+    public List<Product> findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(long since, long until, Pageable pageable) {
+        return read(() -> find(stored(flatten(modSequenceIndex.range().subMap(since, false, until, true))), pageable));
+    }
+
+    @Override
+    public Optional<Product> adjustStock(String id, int delta) {
+        return write(() -> {
+            Product stored = stored(id);
+            if (stored == null || (delta < 0 && stored.getStockQuantity() < -delta)) {
+                return Optional.empty();
+            }
+            Product updated = copy(stored);
+            updated.setStockQuantity(stored.getStockQuantity() + delta);
+            try (ProductSequence.Reservation sequence = productSequence.next()) {
+                updated.setModSequence(sequence.first());
+                store(updated);
+            }
+            return Optional.of(updated);
+        });
+    }
+
+    @Override
+    public List<Product> findByFilter(ProductFilterDTO filter, Sort sort, int limit) {
+        return read(() -> find(candidates(filter).filter(product -> matches(product, filter)), sort, 0, limit));
+    }
+
+    // det mest selektiva indexet först, resten av villkoren i matches
+    private Stream<Product> candidates(ProductFilterDTO filter) {
+        if (filter.getName() != null) {
+            return stored(nameIndex.get(filter.getName()));
+        }
+        if (filter.getColor() != null) {
+            return stored(colorIndex.get(filter.getColor()));
+        }
+        NavigableMap<Double, NavigableSet<String>> prices = priceIndex.range();
+        if (filter.getMinPrice() != null) {
+            prices = prices.tailMap(filter.getMinPrice(), true);
+        }
+        if (filter.getMaxPrice() != null) {
+            prices = prices.headMap(filter.getMaxPrice(), true);
+        }
+        return filter.getMinPrice() != null || filter.getMaxPrice() != null
+                ? stored(flatten(prices))
+                : stored(ids());
+    }
+
+    // samma villkor som ProductFilterOperationsImpl.toQuery
+    private static boolean matches(Product product, ProductFilterDTO filter) {
+        return (filter.getName() == null || filter.getName().equals(product.getName()))
+                && (filter.getColor() == null || filter.getColor().equals(product.getColor()))
+                && (filter.getMinPrice() == null || product.getPrice() >= filter.getMinPrice())
+                && (filter.getMaxPrice() == null || product.getPrice() <= filter.getMaxPrice())
+                && (filter.getInStock() == null || filter.getInStock() == (product.getStockQuantity() > 0));
+    }
+
+    private static Collection<String> flatten(NavigableMap<?, NavigableSet<String>> range) {
+        return range.values().stream().flatMap(Set::stream).toList();
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.unit_testing.repository.memory;
+
+import com.example.unit_testing.models.ProductTombstone;
+import com.example.unit_testing.repository.ProductTombstoneRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ProductTombstoneRepository for the in-memory profile, so deletes keep working without MongoDB.
+ */
+@Component
+@Primary
+@Profile("in-memory")
+public class InMemoryProductTombstoneRepository extends InMemoryRepository<ProductTombstone>
+        implements ProductTombstoneRepository {
+
+    private final InMemoryIndex<ProductTombstone, Long> modSequenceIndex;
+
+    public InMemoryProductTombstoneRepository() {
+        super(ProductTombstone.class, ProductTombstone::getId, ProductTombstone::setId);
+        this.modSequenceIndex = addIndex(InMemoryIndex.sorted(ProductTombstone::getModSequence));
+    }
+
+    @Override
+    public List<ProductTombstone> findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(long since, long until, Pageable pageable) {
+        return read(() -> find(stored(modSequenceIndex.range().subMap(since, false, until, true).values().stream()
+                .flatMap(Set::stream).toList()), pageable));
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.unit_testing.repository.memory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * MongoRepository kept in process memory, for tests and edge nodes without a database.
+ * <p>
+ * Entities are copied on the way in and out, like documents read from MongoDB, so callers never
+ * share state with the store. Reads run concurrently and writes exclusively under one lock, so the
+ * secondary indexes registered by subclasses always agree with the primary map. New entities get an
+ * ObjectId as id and the id order is used wherever MongoDB would use the _id index.
+ * Query by example scans every entity, see ExamplePredicate.
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Class<T> type;
+    private final Function<T, String> idGetter;
+    private final BiConsumer<T, String> idSetter;
+
+    // hashindex på id, plus id-ordningen för sortering och keyset-paginering
+    private final Map<String, T> byId = new HashMap<>();
+    private final NavigableSet<String> ids = new TreeSet<>();
+    private final List<InMemoryIndex<T, ?>> indexes = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    protected InMemoryRepository(Class<T> type, Function<T, String> idGetter, BiConsumer<T, String> idSetter) {
+        this.type = type;
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+    }
+
+    /**
+     * Registers a secondary index, must be called from the subclass constructor before the first write.
+     */
+    protected <K> InMemoryIndex<T, K> addIndex(InMemoryIndex<T, K> index) {
+        indexes.add(index);
+        return index;
+    }
+
+    protected <R> R read(Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected <R> R write(Supplier<R> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // metoderna nedan förutsätter att anroparen håller låset
+
+    protected T stored(String id) {
+        return byId.get(id);
+    }
+
+    protected Stream<T> stored(Collection<String> entityIds) {
+        return entityIds.stream().map(byId::get);
+    }
+
+    protected NavigableSet<String> ids() {
+        return ids;
+    }
+
+    /**
+     * Stores a copy of the entity and updates every index.
+     */
+    protected void store(T entity) {
+        String id = idGetter.apply(entity);
+        T previous = byId.get(id);
+        if (previous != null) {
+            indexes.forEach(index -> index.remove(id, previous));
+        }
+        T copy = copy(entity);
+        byId.put(id, copy);
+        ids.add(id);
+        indexes.forEach(index -> index.add(id, copy));
+    }
+
+    private boolean remove(String id) {
+        T previous = byId.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        ids.remove(id);
+        indexes.forEach(index -> index.remove(id, previous));
+        return true;
+    }
+
+    /**
+     * Maps entities to a result type like a repository projection: an interface becomes a projection proxy
+     * and any other class that the entities are not instances of gets the properties it shares with them.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <R> List<R> project(List<?> entities, Class<R> type) {
+        return entities.stream().map(entity -> {
+            if (type.isInstance(entity)) {
+                return (R) entity;
+            }
+            if (type.isInterface()) {
+                return PROJECTIONS.createProjection(type, entity);
+            }
+            R projection = BeanUtils.instantiateClass(type);
+            BeanUtils.copyProperties(entity, projection);
+            return projection;
+        }).toList();
+    }
+
+    protected T copy(T entity) {
+        T copy = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(entity, copy);
+        return copy;
+    }
+
+    /**
+     * Sorts the stored entities when the sort asks for it, applies offset and limit and copies the result.
+     *
+     * @param entities Stored entities in id order, or in index order for index lookups.
+     */
+    protected List<T> find(Stream<T> entities, Sort sort, long offset, int limit) {
+        if (sort.isSorted() && !isIdOrder(sort)) {
+            entities = entities.sorted(comparator(sort));
+        }
+        return entities.skip(offset).limit(limit).map(this::copy).toList();
+    }
+
+    protected List<T> find(Stream<T> entities, Pageable pageable) {
+        return pageable.isPaged()
+                ? find(entities, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : find(entities, pageable.getSort(), 0, Integer.MAX_VALUE);
+    }
+
+    private static boolean isIdOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && orders.get(0).getProperty().equals("id") && orders.get(0).isAscending();
+    }
+
+    // som MongoDB: null före alla värden, okända fält räknas som null
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, order.getProperty());
+            Method getter = property == null ? null : property.getReadMethod();
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Comparator<T> byProperty = Comparator.comparing(
+                    entity -> getter == null ? null : (Comparable) ReflectionUtils.invokeMethod(getter, entity),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        Assert.notNull(entity, "Entity must not be null");
+        return write(() -> {
+            if (idGetter.apply(entity) == null) {
+                idSetter.accept(entity, new ObjectId().toHexString());
+            }
+            store(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(saved::add);
+        return write(() -> {
+            for (S entity : saved) {
+                if (idGetter.apply(entity) == null) {
+                    idSetter.accept(entity, new ObjectId().toHexString());
+                }
+                store(entity);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        return insert(List.of(entity)).get(0);
+    }
+
+    // ordnad som insertMany: dokumenten före en dubblett finns kvar
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(inserted::add);
+        return write(() -> {
+            for (S entity : inserted) {
+                String id = idGetter.apply(entity);
+                if (id == null) {
+                    idSetter.accept(entity, new ObjectId().toHexString());
+                } else if (byId.containsKey(id)) {
+                    throw new DuplicateKeyException("Duplicate key, an entity with id " + id + " already exists.");
+                }
+                store(entity);
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        return read(() -> Optional.ofNullable(byId.get(id)).map(this::copy));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        return read(() -> byId.containsKey(id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        return read(() -> find(stored(ids), Sort.unsorted(), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> entityIds) {
+        NavigableSet<String> requested = new TreeSet<>();
+        entityIds.forEach(requested::add);
+        return read(() -> find(stored(requested).filter(Objects::nonNull), Sort.unsorted(), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public long count() {
+        return read(() -> (long) byId.size());
+    }
+
+    @Override
+    public void deleteById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        write(() -> remove(id));
+    }
+
+    @Override
+    public void delete(T entity) {
+        Assert.notNull(entity, "Entity must not be null");
+        deleteById(idGetter.apply(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> entityIds) {
+        write(() -> {
+            entityIds.forEach(this::remove);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        write(() -> {
+            entities.forEach(entity -> remove(idGetter.apply(entity)));
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        write(() -> {
+            new ArrayList<>(ids).forEach(this::remove);
+            return null;
+        });
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return read(() -> find(stored(ids), sort, 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return read(() -> new PageImpl<>(find(stored(ids), pageable), pageable, byId.size()));
+    }
+
+    // som SimpleMongoRepository: den första träffen, utan kontroll av att den är ensam
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return findAll(example, Sort.unsorted(), 0, 1).stream().findFirst();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return findAll(example, Sort.unsorted());
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return findAll(example, sort, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        ExamplePredicate matches = new ExamplePredicate(example);
+        return read(() -> new PageImpl<>(cast(find(stored(ids).filter(matches), pageable)), pageable,
+                stored(ids).filter(matches).count()));
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        ExamplePredicate matches = new ExamplePredicate(example);
+        return read(() -> stored(ids).filter(matches).count());
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        ExamplePredicate matches = new ExamplePredicate(example);
+        return read(() -> stored(ids).anyMatch(matches));
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, example.getProbeType(), Sort.unsorted(), Integer.MAX_VALUE, null));
+    }
+
+    private <S extends T> List<S> findAll(Example<S> example, Sort sort, long offset, int limit) {
+        ExamplePredicate matches = new ExamplePredicate(example);
+        return read(() -> cast(find(stored(ids).filter(matches), sort, offset, limit)));
+    }
+
+    // exemplets typ är entitetstypen eller en subtyp, och ExamplePredicate släpper bara igenom den typen
+    @SuppressWarnings("unchecked")
+    private static <S> List<S> cast(List<?> entities) {
+        return (List<S>) entities;
+    }
+
+    /**
+     * The fluent query of findBy. {@code as} maps the matches to the result type like the MongoDB repository:
+     * an interface becomes a projection proxy and a class gets the properties it shares with the entity.
+     * {@code project} keeps only the given properties and the id, the others are left at their defaults.
+     */
+    private final class ExampleQuery<R> implements FluentQuery.FetchableFluentQuery<R> {
+
+        private final Example<? extends T> example;
+        private final Class<R> resultType;
+        private final Sort sort;
+        private final int limit;
+        // null när alla egenskaper ska läsas
+        private final Set<String> properties;
+
+        private ExampleQuery(Example<? extends T> example, Class<R> resultType, Sort sort, int limit,
+                             Set<String> properties) {
+            this.example = example;
+            this.resultType = resultType;
+            this.sort = sort;
+            this.limit = limit;
+            this.properties = properties;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, resultType, this.sort.and(sort), limit, properties);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> limit(int limit) {
+            Assert.isTrue(limit >= 0, "Limit must not be negative");
+            return new ExampleQuery<>(example, resultType, sort, limit, properties);
+        }
+
+        @Override
+        public <N> FluentQuery.FetchableFluentQuery<N> as(Class<N> resultType) {
+            Assert.notNull(resultType, "Projection target type must not be null");
+            return new ExampleQuery<>(example, resultType, sort, limit, properties);
+        }
+
+        /**
+         * @throws IllegalArgumentException if a property is not a readable and writable property of the entity.
+         */
+        @Override
+        public FluentQuery.FetchableFluentQuery<R> project(Collection<String> properties) {
+            for (String property : properties) {
+                PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+                if (descriptor == null || descriptor.getReadMethod() == null || descriptor.getWriteMethod() == null) {
+                    throw new IllegalArgumentException("No property '" + property + "' on " + type.getSimpleName() + ".");
+                }
+            }
+            return new ExampleQuery<>(example, resultType, sort, limit, Set.copyOf(properties));
+        }
+
+        @Override
+        public R oneValue() {
+            List<R> results = fetch(0, 2);
+            if (results.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1);
+            }
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        @Override
+        public R firstValue() {
+            List<R> results = fetch(0, 1);
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        @Override
+        public List<R> all() {
+            return fetch(0, limit);
+        }
+
+        @Override
+        public Page<R> page(Pageable pageable) {
+            ExampleQuery<R> sorted = new ExampleQuery<>(example, resultType, sort.and(pageable.getSort()), limit, properties);
+            List<R> content = pageable.isPaged()
+                    ? sorted.fetch(pageable.getOffset(), pageable.getPageSize())
+                    : sorted.all();
+            return new PageImpl<>(content, pageable, count());
+        }
+
+        @Override
+        public Stream<R> stream() {
+            return all().stream();
+        }
+
+        @Override
+        public long count() {
+            return InMemoryRepository.this.count(example);
+        }
+
+        @Override
+        public boolean exists() {
+            return InMemoryRepository.this.exists(example);
+        }
+
+        private List<R> fetch(long offset, int limit) {
+            List<? extends T> matches = findAll(example, sort, offset, Math.min(limit, this.limit));
+            return InMemoryRepository.project(properties == null ? matches : matches.stream().map(this::select).toList(),
+                    resultType);
+        }
+
+        // som en projektion i MongoDB följer id alltid med
+        private T select(T entity) {
+            T selected = BeanUtils.instantiateClass(type);
+            idSetter.accept(selected, idGetter.apply(entity));
+            for (String property : properties) {
+                PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+                ReflectionUtils.invokeMethod(descriptor.getWriteMethod(), selected,
+                        ReflectionUtils.invokeMethod(descriptor.getReadMethod(), entity));
+            }
+            return selected;
+        }
+    }
+}
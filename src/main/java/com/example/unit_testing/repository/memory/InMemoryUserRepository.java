@@ -0,0 +1,20 @@
+package com.example.unit_testing.repository.memory;
+
+import com.example.unit_testing.models.User;
+import com.example.unit_testing.repository.UserRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * UserRepository for the in-memory profile.
+ */
+@Component
+@Primary
+@Profile("in-memory")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    public InMemoryUserRepository() {
+        super(User.class, User::getId, User::setId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.exceptions.NotFoundException;
+
+import java.util.Objects;
+
+/**
+ * Result of a lookup that can legitimately find nothing. Not found is an ordinary value carrying
+ * the detail for the error response, so callers that answer with a 404 create no exception at all.
+ *
+ * @param <T> The type of the found value.
+ */
+public final class LookupResult<T> {
+
+    private final T value;
+    private final String notFoundDetail;
+
+    private LookupResult(T value, String notFoundDetail) {
+        this.value = value;
+        this.notFoundDetail = notFoundDetail;
+    }
+
+    public static <T> LookupResult<T> found(T value) {
+        return new LookupResult<>(Objects.requireNonNull(value, "value"), null);
+    }
+
+    public static <T> LookupResult<T> notFound(String detail) {
+        return new LookupResult<>(null, Objects.requireNonNull(detail, "detail"));
+    }
+
+    public boolean isFound() {
+        return value != null;
+    }
+
+    /**
+     * @return The detail describing what was not found, or null if the value was found.
+     */
+    public String getNotFoundDetail() {
+        return notFoundDetail;
+    }
+
+    /**
+     * @return The found value.
+     * @throws NotFoundException without a stack trace if nothing was found.
+     */
+    public T orElseThrow() {
+        if (value == null) {
+            throw new NotFoundException(notFoundDetail);
+        }
+        return value;
+    }
+}
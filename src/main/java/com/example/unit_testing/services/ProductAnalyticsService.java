@@ -0,0 +1,97 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.index.ProductColumnStore;
+import com.example.unit_testing.models.Product;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Timed(value = "products.analytics", histogram = true)
+public class ProductAnalyticsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductColumnStore productColumnStore;
+
+    public ProductAnalyticsService(MongoTemplate mongoTemplate, ProductColumnStore productColumnStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.productColumnStore = productColumnStore;
+    }
+
+    /**
+     * Counts the products matching all given criteria and aggregates their stock and prices. The scan runs
+     * over the column store when it is loaded, otherwise as a $match and $group aggregation in MongoDB.
+     *
+     * @param colors   The colors to match, any of them; null or empty for all colors.
+     * @param minPrice The lowest price to match (inclusive), or null.
+     * @param maxPrice The highest price to match (inclusive), or null.
+     * @param inStock  true for products with stock, false for products without, or null for both.
+     * @return The count, total stock, stock value and price statistics of the matching products.
+     * @throws IllegalArgumentException if a price is negative or minPrice > maxPrice.
+     */
+    public ProductAnalyticsDTO analyze(List<String> colors, Double minPrice, Double maxPrice, Boolean inStock) {
+        ProductValidator.validatePriceRange(minPrice != null ? minPrice : 0,
+                maxPrice != null ? maxPrice : Double.MAX_VALUE);
+
+        if (productColumnStore.isReady()) {
+            return productColumnStore.analyze(colors, minPrice, maxPrice, inStock);
+        }
+        Document result = mongoTemplate.aggregate(analyticsAggregation(colors, minPrice, maxPrice, inStock),
+                mongoTemplate.getCollectionName(Product.class), Document.class).getUniqueMappedResult();
+        return toAnalytics(result);
+    }
+
+    static Aggregation analyticsAggregation(List<String> colors, Double minPrice, Double maxPrice, Boolean inStock) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (colors != null && !colors.isEmpty()) {
+            criteria.add(Criteria.where("color").in(colors));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            criteria.add(price);
+        }
+        if (inStock != null) {
+            criteria.add(inStock
+                    ? Criteria.where("stockQuantity").gt(0)
+                    : Criteria.where("stockQuantity").lte(0));
+        }
+        Criteria match = criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria);
+        return Aggregation.newAggregation(
+                Aggregation.match(match),
+                Aggregation.group()
+                        .count().as("count")
+                        .sum("stockQuantity").as("totalStock")
+                        .sum(ArithmeticOperators.Multiply.valueOf("price").multiplyBy("stockQuantity")).as("stockValue")
+                        .min("price").as("minPrice")
+                        .max("price").as("maxPrice")
+                        .avg("price").as("averagePrice"));
+    }
+
+    // $group ger ingen rad alls när inget matchar
+    static ProductAnalyticsDTO toAnalytics(Document result) {
+        if (result == null) {
+            return new ProductAnalyticsDTO(0, 0, 0, null, null, null);
+        }
+        return new ProductAnalyticsDTO(
+                ((Number) result.get("count")).longValue(),
+                ((Number) result.get("totalStock")).longValue(),
+                ((Number) result.get("stockValue")).doubleValue(),
+                ((Number) result.get("minPrice")).doubleValue(),
+                ((Number) result.get("maxPrice")).doubleValue(),
+                ((Number) result.get("averagePrice")).doubleValue());
+    }
+}
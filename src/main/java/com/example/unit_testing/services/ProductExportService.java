@@ -0,0 +1,188 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the catalog from a database cursor straight into a CSV or NDJSON writer.
+ * <p>
+ * Memory use does not depend on the catalog size: the cursor holds one batch of documents and
+ * the writer one fixed buffer. A slow client blocks the write, which in turn stops the cursor from
+ * fetching the next batch. Products are written in id order, so an interrupted export can be resumed
+ * with the id of the last complete line as {@code after}.
+ */
+@Service
+public class ProductExportService {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final String CSV_HEADER = "id,name,description,color,price,stockQuantity,modSequence";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the format is unknown.
+         */
+        public static Format parse(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            List<String> allowed = Arrays.stream(values()).map(Format::getExtension).toList();
+            throw new IllegalArgumentException("Unknown export format '" + format + "', allowed formats are " + allowed + ".");
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectWriter productWriter;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        // flusha inte efter varje produkt, bufferten bestämmer chunkstorleken
+        this.productWriter = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every product with an id greater than {@code after} to the output, in id order.
+     * The output is flushed but not closed.
+     *
+     * @param format The output format.
+     * @param after  The id to resume after, or null to export from the start.
+     * @param gzip   Whether to gzip the output.
+     * @param out    The stream to write to, typically the response body.
+     * @return The number of products written.
+     * @throws IOException if writing fails, e.g. because the client went away.
+     * @throws IllegalArgumentException if after is not a product id; nothing is written then.
+     */
+    public long export(Format format, String after, boolean gzip, OutputStream out) throws IOException {
+        boolean fromStart = after == null || after.isBlank();
+        if (!fromStart) {
+            ProductValidator.validateCursor(after);
+        }
+        // close() avslutar gzip-strömmen och frigör Deflaterns minne även när exporten avbryts, men stänger inte svaret
+        OutputStream body = new NonClosingOutputStream(out);
+        try (OutputStream target = gzip
+                     ? new GZIPOutputStream(body, BUFFER_SIZE)
+                     : new BufferedOutputStream(body, BUFFER_SIZE);
+             Stream<Product> products = fromStart
+                     ? productRepository.streamAllByOrderByIdAsc()
+                     : productRepository.streamByIdGreaterThanOrderByIdAsc(after)) {
+            return format == Format.CSV ? writeCsv(products, target) : writeNdjson(products, target);
+        }
+    }
+
+    private long writeNdjson(Stream<Product> products, OutputStream out) throws IOException {
+        long count = 0;
+        // generatorn får inte stänga svarsströmmen, och raderna skiljs åt av '\n' i stället för mellanslag
+        JsonGenerator generator = productWriter.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        for (Product product : (Iterable<Product>) products::iterator) {
+            productWriter.writeValue(generator, product);
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.close();
+        return count;
+    }
+
+    private long writeCsv(Stream<Product> products, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        StringBuilder line = new StringBuilder(256);
+        for (Product product : (Iterable<Product>) products::iterator) {
+            line.setLength(0);
+            appendCsv(line, product.getId()).append(',');
+            appendCsv(line, product.getName()).append(',');
+            appendCsv(line, product.getDescription()).append(',');
+            appendCsv(line, product.getColor()).append(',');
+            line.append(product.getPrice()).append(',')
+                    .append(product.getStockQuantity()).append(',')
+                    .append(product.getModSequence()).append("\r\n");
+            writer.append(line);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: citattecken runt fält med komma, citattecken eller radbrytning, inre citattecken dubbleras
+    static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    // flushar i stället för att stänga, svarsströmmen ägs av servern
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.cache.ProductFacetCache;
+import com.example.unit_testing.dto.PriceBucketDTO;
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.index.ProductColumnStore;
+import com.example.unit_testing.models.Product;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Timed(value = "products.facets", histogram = true)
+public class ProductFacetService {
+
+    public static final List<Double> DEFAULT_PRICE_BOUNDARIES = List.of(0.0, 10.0, 25.0, 50.0, 100.0, 250.0, 500.0, 1000.0);
+    public static final int MAX_PRICE_BOUNDARIES = 50;
+
+    private static final String OTHER_BUCKET = "other";
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductFacetCache productFacetCache;
+    private final ProductColumnStore productColumnStore;
+
+    public ProductFacetService(MongoTemplate mongoTemplate, ProductFacetCache productFacetCache,
+                               ProductColumnStore productColumnStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.productFacetCache = productFacetCache;
+        this.productColumnStore = productColumnStore;
+    }
+
+    /**
+     * Counts products per color, per price bucket and in stock with one aggregation ($facet)
+     * over the products collection, or from the column store when it is loaded. Results are cached
+     * briefly and cleared on every product change.
+     *
+     * @param priceBoundaries Increasing bucket boundaries, or null for DEFAULT_PRICE_BOUNDARIES.
+     * @return The facet counts. Every bucket is listed, also when it is empty.
+     * @throws IllegalArgumentException if the boundaries are not increasing, negative or too many.
+     */
+    public ProductFacetsDTO getFacets(List<Double> priceBoundaries) {
+        List<Double> boundaries = priceBoundaries == null || priceBoundaries.isEmpty()
+                ? DEFAULT_PRICE_BOUNDARIES
+                : priceBoundaries;
+        validateBoundaries(boundaries);
+
+        return productFacetCache.get(boundaries, key -> {
+            if (productColumnStore.isReady()) {
+                return productColumnStore.getFacets(key);
+            }
+            Document result = mongoTemplate.aggregate(facetAggregation(key),
+                    mongoTemplate.getCollectionName(Product.class), Document.class).getUniqueMappedResult();
+            return toFacets(result, key);
+        });
+    }
+
+    private static void validateBoundaries(List<Double> boundaries) {
+        if (boundaries.size() < 2 || boundaries.size() > MAX_PRICE_BOUNDARIES) {
+            throw new IllegalArgumentException("Between 2 and " + MAX_PRICE_BOUNDARIES + " price boundaries are required.");
+        }
+        // NaN klarar alla jämförelser nedan och avvisas först av $bucket
+        for (Double boundary : boundaries) {
+            if (boundary != null && !Double.isFinite(boundary)) {
+                throw new IllegalArgumentException("Price boundaries must be finite numbers.");
+            }
+        }
+        if (boundaries.get(0) == null || boundaries.get(0) < 0) {
+            throw new IllegalArgumentException("Price values cannot be negative.");
+        }
+        for (int i = 1; i < boundaries.size(); i++) {
+            if (boundaries.get(i) == null || boundaries.get(i) <= boundaries.get(i - 1)) {
+                throw new IllegalArgumentException("Price boundaries must be strictly increasing.");
+            }
+        }
+    }
+
+    static Aggregation facetAggregation(List<Double> boundaries) {
+        return Aggregation.newAggregation(
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.match(Criteria.where("stockQuantity").gt(0)),
+                                Aggregation.count().as("count")).as("inStock")
+                        .and(Aggregation.match(Criteria.where("color").ne(null)),
+                                Aggregation.group("color").count().as("count"),
+                                Aggregation.sort(Sort.by(Sort.Direction.DESC, "count").and(Sort.by("_id")))).as("colors")
+                        .and(Aggregation.bucket("price")
+                                .withBoundaries(boundaries.toArray())
+                                .withDefaultBucket(OTHER_BUCKET)
+                                .andOutputCount().as("count")).as("prices"));
+    }
+
+    static ProductFacetsDTO toFacets(Document result, List<Double> boundaries) {
+        Map<String, Long> colors = new LinkedHashMap<>();
+        for (Document color : result.getList("colors", Document.class)) {
+            colors.put(String.valueOf(color.get("_id")), count(color));
+        }
+
+        // $bucket hoppar över tomma intervall, fyll på så att histogrammet alltid är komplett
+        Map<Double, Long> countsByLowerBound = new HashMap<>();
+        long outside = 0;
+        for (Document bucket : result.getList("prices", Document.class)) {
+            if (bucket.get("_id") instanceof Number lowerBound) {
+                countsByLowerBound.put(lowerBound.doubleValue(), count(bucket));
+            } else {
+                outside = count(bucket);
+            }
+        }
+        List<PriceBucketDTO> prices = new ArrayList<>(boundaries.size());
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            prices.add(new PriceBucketDTO(boundaries.get(i), boundaries.get(i + 1),
+                    countsByLowerBound.getOrDefault(boundaries.get(i), 0L)));
+        }
+        if (outside > 0) {
+            prices.add(new PriceBucketDTO(null, null, outside));
+        }
+
+        return new ProductFacetsDTO(firstCount(result, "total"), firstCount(result, "inStock"), colors, prices);
+    }
+
+    // $count ger ingen rad alls när inget matchar
+    private static long firstCount(Document result, String facet) {
+        List<Document> rows = result.getList(facet, Document.class);
+        return rows.isEmpty() ? 0 : count(rows.get(0));
+    }
+
+    private static long count(Document row) {
+        return ((Number) row.get("count")).longValue();
+    }
+}
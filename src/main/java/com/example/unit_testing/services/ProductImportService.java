@@ -0,0 +1,168 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.BulkImportFailureDTO;
+import com.example.unit_testing.dto.BulkImportResultDTO;
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.sync.ProductSequence;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class ProductImportService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductSequence productSequence;
+
+    @Value("${products.bulk.batch-size:1000}")
+    private int defaultBatchSize;
+
+    /**
+     * Imports products using the configured batch size.
+     *
+     * @see #importProducts(InputStream, int)
+     */
+    public BulkImportResultDTO importProducts(InputStream input) throws IOException {
+        return importProducts(input, defaultBatchSize);
+    }
+
+    /**
+     * Imports products from a JSON array or NDJSON stream of ProductDTOs.
+     * Each item is validated with the same rules as createProduct, and valid items are
+     * written in unordered bulk inserts of batchSize documents. Invalid or rejected items
+     * are reported by their zero-based position in the input and do not stop the import.
+     *
+     * @param input     The request body, read incrementally.
+     * @param batchSize The number of products per bulk insert.
+     * @return Counts, per-item failures and throughput for the import.
+     * @throws IllegalArgumentException if the batch size is outside 1..MAX_BATCH_SIZE.
+     * @throws IOException if the input stream cannot be read.
+     */
+    public BulkImportResultDTO importProducts(InputStream input, int batchSize) throws IOException {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE + ".");
+        }
+
+        long start = System.nanoTime();
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        List<Product> batch = new ArrayList<>(batchSize);
+        long[] batchIndexes = new long[batchSize];
+        long index = 0;
+
+        // MappingIterator läser både en JSON-array och radseparerad NDJSON
+        try (MappingIterator<ProductDTO> items = objectMapper.readerFor(ProductDTO.class).readValues(input)) {
+            while (true) {
+                ProductDTO productDTO;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    productDTO = items.nextValue();
+                } catch (DatabindException e) {
+                    // fel typ på ett fält, parsern kan fortsätta med nästa objekt
+                    addFailure(result, index++, e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // trasig JSON, resten av strömmen går inte att läsa
+                    addFailure(result, index++, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                // en rad eller ett element som bara är null
+                if (productDTO == null) {
+                    addFailure(result, index++, "Item must be a product object, not null.");
+                    continue;
+                }
+
+                try {
+                    ProductValidator.validate(productDTO);
+                } catch (IllegalArgumentException e) {
+                    addFailure(result, index++, e.getMessage());
+                    continue;
+                }
+
+                // id sätts här så att händelsen efter insert bär samma id som dokumentet
+                Product product = ProductValidator.toProduct(productDTO);
+                product.setId(new ObjectId().toHexString());
+                batchIndexes[batch.size()] = index++;
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, batchIndexes, result);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, batchIndexes, result);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setReceived(index);
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setProductsPerSecond(elapsedNanos == 0 ? 0 : result.getInserted() * 1_000_000_000.0 / elapsedNanos);
+        return result;
+    }
+
+    private void insertBatch(List<Product> batch, long[] batchIndexes, BulkImportResultDTO result) {
+        List<Product> inserted = new ArrayList<>(batch);
+        // ett block sekvensnummer per batch i stället för ett anrop per produkt, släpps även om bulkOps kastar
+        try (ProductSequence.Reservation reservation = productSequence.reserve(batch.size())) {
+            long sequence = reservation.first();
+            for (Product product : batch) {
+                product.setModSequence(sequence++);
+            }
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            operations.insert(batch);
+            BulkWriteResult writeResult = operations.execute();
+            result.setInserted(result.getInserted() + writeResult.getInsertedCount());
+        } catch (BulkOperationException e) {
+            // unordered: övriga dokument i batchen skrivs även om några avvisas
+            result.setInserted(result.getInserted() + e.getResult().getInsertedCount());
+            for (BulkWriteError error : e.getErrors()) {
+                addFailure(result, batchIndexes[error.getIndex()], error.getMessage());
+                inserted.set(error.getIndex(), null);
+            }
+            inserted.removeIf(Objects::isNull);
+        }
+        batch.clear();
+        eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.CREATED, inserted));
+    }
+
+    private void addFailure(BulkImportResultDTO result, long index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getFailures().size() < MAX_REPORTED_FAILURES) {
+            result.getFailures().add(new BulkImportFailureDTO(index, message));
+        } else {
+            result.setFailuresTruncated(true);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ExplainResultDTO;
+import com.example.unit_testing.dto.IndexReportDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.models.ProductTombstone;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductIndexService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Creates every index declared on the Product and ProductTombstone documents that does not exist yet.
+     * Creating an index that already exists with the same keys and options is a no-op in MongoDB.
+     *
+     * @return The number of index definitions that were ensured.
+     */
+    public int ensureIndexes() {
+        int count = 0;
+        for (Class<?> type : List.of(Product.class, ProductTombstone.class)) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(type);
+            for (IndexDefinition definition : resolveIndexes(type)) {
+                indexOperations.ensureIndex(definition);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compares the indexes declared on the Product document with the indexes that exist
+     * in the products collection.
+     *
+     * @return The declared, existing and missing indexes described by their key patterns.
+     */
+    public IndexReportDTO getIndexReport() {
+        List<String> expected = new ArrayList<>();
+        for (IndexDefinition definition : resolveIndexes(Product.class)) {
+            expected.add(describe(definition.getIndexKeys()));
+        }
+
+        List<String> existing = mongoTemplate.indexOps(Product.class).getIndexInfo().stream()
+                .map(ProductIndexService::describe)
+                .collect(Collectors.toList());
+
+        List<String> missing = expected.stream()
+                .filter(keys -> !existing.contains(keys))
+                .collect(Collectors.toList());
+
+        return new IndexReportDTO(expected, existing, missing);
+    }
+
+    /**
+     * Runs explain on the queries generated by the ProductRepository finders and reports
+     * the winning plan of each one.
+     *
+     * @param name     The name to probe findByName with.
+     * @param color    The color to probe findByColor with.
+     * @param minPrice The lower bound to probe findByPriceBetween with.
+     * @param maxPrice The upper bound to probe findByPriceBetween with.
+     * @return One result per finder, telling whether it is served by an index.
+     */
+    public List<ExplainResultDTO> explainFinders(String name, String color, double minPrice, double maxPrice) {
+        // samma filter som de härledda frågorna i ProductRepository genererar
+        Map<String, Document> finders = new LinkedHashMap<>();
+        finders.put("findByName", Criteria.where("name").is(name).getCriteriaObject());
+        finders.put("findByColor", Criteria.where("color").is(color).getCriteriaObject());
+        finders.put("findByPriceBetween", Criteria.where("price").gt(minPrice).lt(maxPrice).getCriteriaObject());
+
+        List<ExplainResultDTO> results = new ArrayList<>();
+        finders.forEach((finder, filter) -> {
+            Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                    .find(filter)
+                    .explain();
+            results.add(toExplainResult(finder, filter, explain));
+        });
+        return results;
+    }
+
+    private Iterable<? extends IndexDefinition> resolveIndexes(Class<?> type) {
+        return IndexResolver.create(mongoTemplate.getConverter().getMappingContext()).resolveIndexFor(type);
+    }
+
+    static ExplainResultDTO toExplainResult(String finder, Document filter, Document explain) {
+        ExplainResultDTO result = new ExplainResultDTO();
+        result.setFinder(finder);
+        result.setFilter(filter.toJson());
+
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        Document plan = queryPlanner == null ? null : queryPlanner.get("winningPlan", Document.class);
+        // slot based execution (MongoDB 7+) lägger den klassiska planen under queryPlan
+        if (plan != null && plan.containsKey("queryPlan")) {
+            plan = plan.get("queryPlan", Document.class);
+        }
+        if (plan == null) {
+            return result;
+        }
+
+        result.setWinningStage(plan.getString("stage"));
+        Document indexStage = findIndexStage(plan);
+        if (indexStage != null) {
+            result.setUsesIndex(true);
+            result.setIndexName(indexStage.getString("indexName"));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document findIndexStage(Document stage) {
+        String name = stage.getString("stage");
+        if (name != null && (name.contains("IXSCAN") || name.equals("IDHACK"))) {
+            return stage;
+        }
+        Document inputStage = stage.get("inputStage", Document.class);
+        if (inputStage != null) {
+            Document found = findIndexStage(inputStage);
+            if (found != null) {
+                return found;
+            }
+        }
+        List<Document> inputStages = stage.get("inputStages", List.class);
+        if (inputStages != null) {
+            for (Document input : inputStages) {
+                Document found = findIndexStage(input);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    // nyckelmönster som "color_1_price_1", textindex beskrivs med sorterade fält
+    static String describe(Document indexKeys) {
+        List<String> keys = new ArrayList<>();
+        indexKeys.forEach((field, direction) -> keys.add(field + "_" + direction));
+        if (indexKeys.containsValue("text")) {
+            keys.sort(String::compareTo);
+        }
+        return String.join("_", keys);
+    }
+
+    private static String describe(IndexInfo indexInfo) {
+        Document keys = new Document();
+        for (IndexField field : indexInfo.getIndexFields()) {
+            if (field.isText()) {
+                keys.put(field.getKey(), "text");
+            } else {
+                keys.put(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+            }
+        }
+        return describe(keys);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.index.ProductSuggestionIndex;
+import com.example.unit_testing.models.Product;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+@Service
+@Timed(value = "products.search", histogram = true)
+public class ProductSearchService {
+
+    public static final int MAX_RESULTS = 100;
+    // utan förslagsindex läses högst så många matchande produkter per förslag
+    static final int MAX_FALLBACK_CANDIDATES = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductSuggestionIndex productSuggestionIndex;
+
+    public ProductSearchService(MongoTemplate mongoTemplate, ProductSuggestionIndex productSuggestionIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.productSuggestionIndex = productSuggestionIndex;
+    }
+
+    /**
+     * Searches product names and descriptions with the text index on Product.
+     * A product matches if it contains any of the words; name matches weigh more than description matches.
+     *
+     * @param text  The words to search for.
+     * @param limit The maximum number of results.
+     * @return The matching products, most relevant first. Empty if nothing matches.
+     * @throws IllegalArgumentException if the text is empty or the limit is outside 1..MAX_RESULTS.
+     */
+    public List<Product> search(String text, int limit) {
+        validate(text, limit);
+
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    /**
+     * Suggests product names for a typeahead box. The full name or one of its words must start
+     * with the prefix, ignoring case.
+     * <p>
+     * Without a loaded ProductSuggestionIndex the names are read from MongoDB, which stops after the first
+     * MAX_FALLBACK_CANDIDATES matching products, so a short prefix on a large catalog ranks the best names
+     * among those rather than among all matches.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return Distinct product names, best match first.
+     * @throws IllegalArgumentException if the prefix is empty or the limit is outside 1..MAX_RESULTS.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        validate(prefix, limit);
+
+        if (productSuggestionIndex.isReady()) {
+            return productSuggestionIndex.suggest(prefix, limit);
+        }
+        // utan index: skiftlägesokänslig regex på ordbörjan, kan inte använda namnindexet fullt ut.
+        // $limit före $group avbryter avsökningen i stället för att samla alla namn som distinct gör
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("name")
+                        .regex("(^|[^\\p{L}\\p{N}])" + Pattern.quote(prefix.trim()), "i")),
+                Aggregation.limit(MAX_FALLBACK_CANDIDATES),
+                Aggregation.group("name"));
+        return mongoTemplate.aggregate(aggregation, Product.class, Document.class).getMappedResults().stream()
+                .map(result -> result.getString("_id"))
+                .filter(Objects::nonNull)
+                .sorted(ProductSuggestionIndex.ranking(prefix))
+                .limit(limit)
+                .toList();
+    }
+
+    private static void validate(String text, int limit) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search text cannot be null or empty.");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS + ".");
+        }
+    }
+}
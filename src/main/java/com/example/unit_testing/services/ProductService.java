@@ -1,19 +1,74 @@
 package com.example.unit_testing.services;
 
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.dto.BatchDeleteResultDTO;
+import com.example.unit_testing.dto.BatchGetResultDTO;
 import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.dto.ProductPageDTO;
+import com.example.unit_testing.dto.ProductSnapshotDTO;
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.dto.StockReservationDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.exceptions.InsufficientStockException;
+import com.example.unit_testing.exceptions.NotFoundException;
+import com.example.unit_testing.index.ProductPriceIndex;
 import com.example.unit_testing.models.Product;
 import com.example.unit_testing.repository.ProductRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.unit_testing.snapshot.ProductSnapshotIndex;
+import com.example.unit_testing.snapshot.ProductSnapshotWriter;
+import com.example.unit_testing.sync.ProductSequence;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "products.service", histogram = true)
 public class ProductService {
 
-    @Autowired
-    private ProductRepository productRepository;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_IDS = 1000;
+    // fält som får sorteras på i filter, "-" före fältet ger fallande ordning
+    public static final List<String> FILTER_SORT_FIELDS = List.of("name", "color", "price", "stockQuantity");
+
+    private final ProductRepository productRepository;
+    private final ProductQueryCache productQueryCache;
+    private final ProductPriceIndex productPriceIndex;
+    private final ProductSnapshotIndex productSnapshotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSequence productSequence;
+    private final ProductSyncService productSyncService;
+
+    // Konstruktorinjektion, så att ett beroende som saknas syns när klassen skapas och inte som NullPointerException
+    public ProductService(ProductRepository productRepository,
+                          ProductQueryCache productQueryCache,
+                          ProductPriceIndex productPriceIndex,
+                          ProductSnapshotIndex productSnapshotIndex,
+                          ApplicationEventPublisher eventPublisher,
+                          ProductSequence productSequence,
+                          ProductSyncService productSyncService) {
+        this.productRepository = productRepository;
+        this.productQueryCache = productQueryCache;
+        this.productPriceIndex = productPriceIndex;
+        this.productSnapshotIndex = productSnapshotIndex;
+        this.eventPublisher = eventPublisher;
+        this.productSequence = productSequence;
+        this.productSyncService = productSyncService;
+    }
 
     /**
      * Creates a new product based on the provided ProductDTO.
@@ -24,25 +79,16 @@ public class ProductService {
      */
     // ignorera varningen, den kommer pga ingen controller
     public Product createProduct(ProductDTO productDTO) {
+        ProductValidator.validate(productDTO);
 
-        if (productDTO.getName() == null || productDTO.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Product name cannot be null or empty.");
+        Product product = ProductValidator.toProduct(productDTO);
+        Product savedProduct;
+        try (ProductSequence.Reservation sequence = productSequence.next()) {
+            product.setModSequence(sequence.first());
+            savedProduct = productRepository.save(product);
         }
-        if (productDTO.getPrice() < 0) {
-            throw new IllegalArgumentException("Product price cannot be negative.");
-        }
-        if (productDTO.getStockQuantity() < 0) {
-            throw new IllegalArgumentException("Stock quantity cannot be negative.");
-        }
-
-        Product product = new Product();
-        product.setName(productDTO.getName());
-        product.setDescription(productDTO.getDescription());
-        product.setColor(productDTO.getColor());
-        product.setPrice(productDTO.getPrice());
-        product.setStockQuantity(productDTO.getStockQuantity());
-
-        return productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangeEvent.created(savedProduct));
+        return savedProduct;
     }
 
     // version 1
@@ -75,6 +121,98 @@ public class ProductService {
         return productRepository.findAll();
     }*/
 
+    /**
+     * Retrieves one page of products ordered by ID, using the last seen ID as cursor.
+     * Only {@code size} documents are read per call, no matter how large the collection is.
+     *
+     * @param after The ID of the last product on the previous page, or null for the first page.
+     * @param size  The maximum number of products on the page.
+     * @return The page together with the cursor for the next page (null on the last page).
+     * @throws IllegalArgumentException if the size is outside 1..MAX_PAGE_SIZE or the cursor is not a product id.
+     */
+    public ProductPageDTO getProductPage(String after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        boolean firstPage = after == null || after.isBlank();
+        if (!firstPage) {
+            ProductValidator.validateCursor(after);
+        }
+
+        // hämta en extra rad för att veta om det finns en nästa sida
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by(Sort.Direction.ASC, "id"));
+        List<Product> products = firstPage
+                ? productRepository.findAllBy(pageable)
+                : productRepository.findByIdGreaterThan(after, pageable);
+
+        if (products.size() <= size) {
+            return new ProductPageDTO(products, null);
+        }
+        List<Product> page = products.subList(0, size);
+        return new ProductPageDTO(page, page.get(size - 1).getId());
+    }
+
+    /**
+     * Retrieves the products matching any combination of name, color, price range and stock
+     * availability with one query. Sorting and the limit are applied by MongoDB.
+     *
+     * @param filter The criteria; unset fields do not restrict the result. Prices are inclusive.
+     * @param sort   A field in FILTER_SORT_FIELDS, prefixed with "-" for descending order, or null for ID order.
+     * @param limit  The maximum number of products, 1..MAX_PAGE_SIZE.
+     * @return The matching products, possibly empty.
+     * @throws IllegalArgumentException if a criterion, the sort field or the limit is invalid.
+     */
+    public List<Product> filterProducts(ProductFilterDTO filter, String sort, int limit) {
+        ProductValidator.validateFilter(filter);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        return productRepository.findByFilter(filter, toFilterSort(sort), limit);
+    }
+
+    // id sist så att lika värden alltid kommer i samma ordning
+    private static Sort toFilterSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        boolean descending = sort.startsWith("-");
+        String field = descending ? sort.substring(1) : sort;
+        if (!FILTER_SORT_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Cannot sort by '" + field + "', allowed fields are " + FILTER_SORT_FIELDS + ".");
+        }
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field).and(Sort.by("id"));
+    }
+
+    /**
+     * Streams all products ordered by ID from a database cursor.
+     * The caller must close the returned stream to release the cursor.
+     *
+     * @return A lazily populated stream of all products.
+     */
+    public Stream<Product> streamAllProducts() {
+        return productRepository.streamAllByOrderByIdAsc();
+    }
+
+    /**
+     * Writes a memory-mappable snapshot of all products for the cold start of read replicas, see ProductSnapshot.
+     * The safe sequence is read before the products are streamed, so changes made while the snapshot is
+     * written, or still in flight when it starts, are picked up again by the replica's delta sync.
+     *
+     * @param path The snapshot file to create or replace.
+     * @return The path, number of products, sequence and size of the written snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public ProductSnapshotDTO writeSnapshot(Path path) throws IOException {
+        long sequence = productSequence.safe();
+        long productCount;
+        try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+            productCount = ProductSnapshotWriter.write(products, sequence, path);
+        }
+        return new ProductSnapshotDTO(path.toString(), productCount, sequence, Files.size(path));
+    }
+
     /**
      * Deletes a product by its ID.
      *
@@ -84,9 +222,182 @@ public class ProductService {
      */
     public void deleteProduct(String productId) {
         Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new NoSuchElementException("Product not found with id: " + productId));
+                .orElseThrow(() -> new NotFoundException("Product not found with id: " + productId));
+
+        productSyncService.deleteWithTombstones(List.of(productId), () -> productRepository.deleteById(productId));
+        eventPublisher.publishEvent(ProductChangeEvent.deleted(product));
+    }
+
+    /**
+     * Retrieves many products by ID with a single $in query.
+     *
+     * @param ids The IDs to retrieve, at most MAX_BATCH_IDS. Duplicates are ignored.
+     * @return The found products in request order, and the IDs that do not exist.
+     * @throws IllegalArgumentException if the list is empty, too long or contains a blank ID.
+     */
+    public BatchGetResultDTO getProductsByIds(List<String> ids) {
+        List<String> distinctIds = ProductValidator.validateIds(ids, MAX_BATCH_IDS);
 
-        productRepository.deleteById(productId);
+        Map<String, Product> found = findAllById(distinctIds);
+        List<Product> products = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : distinctIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchGetResultDTO(products, missingIds);
+    }
+
+    /**
+     * Deletes many products by ID with one $in query and one bulk delete.
+     *
+     * @param ids The IDs to delete, at most MAX_BATCH_IDS. Duplicates are ignored.
+     * @return The number of deleted products, and the IDs that do not exist.
+     * @throws IllegalArgumentException if the list is empty, too long or contains a blank ID.
+     */
+    public BatchDeleteResultDTO deleteProducts(List<String> ids) {
+        List<String> distinctIds = ProductValidator.validateIds(ids, MAX_BATCH_IDS);
+
+        // produkterna behövs för att invalidera cacher och index
+        Map<String, Product> found = findAllById(distinctIds);
+        List<String> missingIds = distinctIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!found.isEmpty()) {
+            productSyncService.deleteWithTombstones(found.keySet(), () -> productRepository.deleteAllById(found.keySet()));
+            eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, List.copyOf(found.values())));
+        }
+        return new BatchDeleteResultDTO(found.size(), missingIds);
+    }
+
+    private Map<String, Product> findAllById(List<String> ids) {
+        Map<String, Product> found = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> found.put(product.getId(), product));
+        return found;
+    }
+
+    /**
+     * Changes the stock quantity of a product atomically with $inc, without reading the document first.
+     * Concurrent adjustments never overwrite each other and the stock never goes below zero.
+     *
+     * @param productId The ID of the product.
+     * @param delta     The amount to add, negative to withdraw.
+     * @return The product with the new stock quantity.
+     * @throws IllegalArgumentException if the ID is empty or delta is zero.
+     * @throws NoSuchElementException if the product does not exist.
+     * @throws InsufficientStockException if a withdrawal is larger than the stock.
+     */
+    public Product adjustStock(String productId, int delta) {
+        validateStockAdjustment(productId, delta);
+
+        Product product = productRepository.adjustStock(productId, delta)
+                .orElseThrow(() -> stockAdjustmentFailure(productId, delta));
+        eventPublisher.publishEvent(ProductChangeEvent.updated(product));
+        return product;
+    }
+
+    /**
+     * Reserves stock for several products, all or nothing. Every product is decremented with its own
+     * atomic update; if one of them has too little stock, the already reserved items are given back.
+     * Another request can briefly see the reserved quantities before they are given back. An item that
+     * cannot be given back does not stop the others; its failure is added as suppressed to the original one.
+     *
+     * @param reservations The products and quantities to reserve, at most MAX_BATCH_IDS items.
+     * @return The products with their new stock quantities.
+     * @throws IllegalArgumentException if the list is empty, an item is invalid or the quantities of a product
+     * add up to more than Integer.MAX_VALUE.
+     * @throws NoSuchElementException if a product does not exist.
+     * @throws InsufficientStockException if a product has too little stock.
+     */
+    public List<Product> reserveStock(List<StockReservationDTO> reservations) {
+        if (reservations == null || reservations.isEmpty()) {
+            throw new IllegalArgumentException("Reservations cannot be null or empty.");
+        }
+        if (reservations.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " reservations are allowed per request.");
+        }
+
+        // slå ihop dubbletter och reservera i id-ordning
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (StockReservationDTO reservation : reservations) {
+            if (reservation.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Reserved quantity must be positive.");
+            }
+            validateStockAdjustment(reservation.getProductId(), -reservation.getQuantity());
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), ProductService::addQuantities);
+        }
+
+        List<Product> reserved = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                String productId = entry.getKey();
+                int delta = -entry.getValue();
+                reserved.add(productRepository.adjustStock(productId, delta)
+                        .orElseThrow(() -> stockAdjustmentFailure(productId, delta)));
+            }
+        } catch (RuntimeException ex) {
+            // varje reservation släpps för sig, ett fel läggs till på det ursprungliga undantaget
+            List<Product> released = new ArrayList<>(reserved.size());
+            for (Product product : reserved) {
+                try {
+                    productRepository.adjustStock(product.getId(), quantities.get(product.getId()))
+                            .ifPresent(released::add);
+                } catch (RuntimeException releaseFailure) {
+                    ex.addSuppressed(releaseFailure);
+                }
+            }
+            if (!released.isEmpty()) {
+                eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, released));
+            }
+            throw ex;
+        }
+
+        eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, List.copyOf(reserved)));
+        return reserved;
+    }
+
+    private static int addQuantities(int first, int second) {
+        if (first > Integer.MAX_VALUE - second) {
+            throw new IllegalArgumentException("Reserved quantity per product cannot exceed " + Integer.MAX_VALUE + ".");
+        }
+        return first + second;
+    }
+
+    private static void validateStockAdjustment(String productId, int delta) {
+        if (productId == null || productId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product id cannot be null or empty.");
+        }
+        if (delta == 0) {
+            throw new IllegalArgumentException("Stock adjustment cannot be zero.");
+        }
+    }
+
+    // uppdateringen matchade inget dokument, ta reda på varför (bara på felvägen)
+    private RuntimeException stockAdjustmentFailure(String productId, int delta) {
+        if (delta < 0 && productRepository.existsById(productId)) {
+            return new InsufficientStockException("Insufficient stock for product with id: " + productId);
+        }
+        return new NotFoundException("Product not found with id: " + productId);
+    }
+
+    /**
+     * Retrieves products by their name.
+     *
+     * @param name The name of the products to retrieve.
+     * @return A list of products matching the given name, or not found if there are none.
+     * @throws IllegalArgumentException if the name is null or empty.
+     */
+    public LookupResult<List<Product>> findProductsByName(String name) {
+        ProductValidator.validateName(name);
+
+        List<Product> products = productQueryCache.getByName(name, key -> productSnapshotIndex.isReady()
+                ? productSnapshotIndex.findByName(key)
+                : productRepository.findByName(key));
+        return products.isEmpty()
+                ? LookupResult.notFound("No products found with name: " + name)
+                : LookupResult.found(products);
     }
 
     /**
@@ -98,16 +409,7 @@ public class ProductService {
      * @throws NoSuchElementException if no products match the given name.
      */
     public List<Product> getProductsByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Product name cannot be null or empty.");
-        }
-
-        List<Product> products = productRepository.findByName(name);
-        if (products.isEmpty()) {
-            throw new NoSuchElementException("No products found with name: " + name);
-        }
-
-        return products;
+        return findProductsByName(name).orElseThrow();
     }
 
     // version 1
@@ -121,23 +423,34 @@ public class ProductService {
      *
      * @param minPrice The minimum price.
      * @param maxPrice The maximum price.
-     * @return A list of products within the price range.
+     * @return A list of products within the price range, sorted by price when the price index is loaded,
+     * or not found if there are none.
      * @throws IllegalArgumentException if minPrice > maxPrice or any price is negative.
      */
-    public List<Product> getProductsByPriceRange(double minPrice, double maxPrice) {
-        if (minPrice < 0 || maxPrice < 0) {
-            throw new IllegalArgumentException("Price values cannot be negative.");
-        }
-        if (minPrice > maxPrice) {
-            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice.");
-        }
+    public LookupResult<List<Product>> findProductsByPriceRange(double minPrice, double maxPrice) {
+        ProductValidator.validatePriceRange(minPrice, maxPrice);
 
-        List<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice);
-        if (products.isEmpty()) {
-            throw new NoSuchElementException("No products found within price range: " + minPrice + " - " + maxPrice);
-        }
+        List<Product> products = productPriceIndex.isReady()
+                ? productPriceIndex.findByPriceBetween(minPrice, maxPrice)
+                : productQueryCache.getByPriceRange(minPrice, maxPrice, range -> productSnapshotIndex.isReady()
+                        ? productSnapshotIndex.findByPriceBetween(range.minPrice(), range.maxPrice())
+                        : productRepository.findByPriceBetween(range.minPrice(), range.maxPrice()));
+        return products.isEmpty()
+                ? LookupResult.notFound("No products found within price range: " + minPrice + " - " + maxPrice)
+                : LookupResult.found(products);
+    }
 
-        return products;
+    /**
+     * Retrieves products within a specified price range.
+     *
+     * @param minPrice The minimum price.
+     * @param maxPrice The maximum price.
+     * @return A list of products within the price range, sorted by price when the price index is loaded.
+     * @throws IllegalArgumentException if minPrice > maxPrice or any price is negative.
+     * @throws NoSuchElementException if no products are within the range.
+     */
+    public List<Product> getProductsByPriceRange(double minPrice, double maxPrice) {
+        return findProductsByPriceRange(minPrice, maxPrice).orElseThrow();
     }
 
     // version 1
@@ -150,6 +463,24 @@ public class ProductService {
         return productRepository.findByColor(color);
     }*/
 
+    /**
+     * Retrieves products by their color.
+     *
+     * @param color The color of the products to retrieve.
+     * @return A list of products matching the given color, or not found if there are none.
+     * @throws IllegalArgumentException if the color is null or empty.
+     */
+    public LookupResult<List<Product>> findProductsByColor(String color) {
+        ProductValidator.validateColor(color);
+
+        List<Product> products = productQueryCache.getByColor(color, key -> productSnapshotIndex.isReady()
+                ? productSnapshotIndex.findByColor(key)
+                : productRepository.findByColor(key));
+        return products.isEmpty()
+                ? LookupResult.notFound("No products found with color: " + color)
+                : LookupResult.found(products);
+    }
+
     /**
      * Retrieves products by their color.
      *
@@ -159,15 +490,103 @@ public class ProductService {
      * @throws NoSuchElementException if no products match the given color.
      */
     public List<Product> getProductsByColor(String color) {
-        if (color == null || color.trim().isEmpty()) {
-            throw new IllegalArgumentException("Product color cannot be null or empty.");
-        }
+        return findProductsByColor(color).orElseThrow();
+    }
 
-        List<Product> products = productRepository.findByColor(color);
-        if (products.isEmpty()) {
-            throw new NoSuchElementException("No products found with color: " + color);
-        }
+    /**
+     * Retrieves product summaries by name. Only the summary fields are read from the database.
+     *
+     * @param name The name of the products to retrieve.
+     * @return A list of summaries matching the given name, or not found if there are none.
+     * @throws IllegalArgumentException if the name is null or empty.
+     */
+    public LookupResult<List<ProductSummaryDTO>> findProductSummariesByName(String name) {
+        ProductValidator.validateName(name);
 
-        return products;
+        List<ProductSummaryDTO> summaries = productQueryCache.getSummariesByName(name,
+                key -> productSnapshotIndex.isReady()
+                        ? productSnapshotIndex.findSummariesByName(key)
+                        : productRepository.findByName(key, ProductSummaryDTO.class));
+        return summaries.isEmpty()
+                ? LookupResult.notFound("No products found with name: " + name)
+                : LookupResult.found(summaries);
+    }
+
+    /**
+     * Retrieves product summaries by name. Only the summary fields are read from the database.
+     *
+     * @param name The name of the products to retrieve.
+     * @return A list of summaries matching the given name.
+     * @throws IllegalArgumentException if the name is null or empty.
+     * @throws NoSuchElementException if no products match the given name.
+     */
+    public List<ProductSummaryDTO> getProductSummariesByName(String name) {
+        return findProductSummariesByName(name).orElseThrow();
+    }
+
+    /**
+     * Retrieves product summaries within a specified price range.
+     *
+     * @param minPrice The minimum price.
+     * @param maxPrice The maximum price.
+     * @return A list of summaries within the price range, or not found if there are none.
+     * @throws IllegalArgumentException if minPrice > maxPrice or any price is negative.
+     */
+    public LookupResult<List<ProductSummaryDTO>> findProductSummariesByPriceRange(double minPrice, double maxPrice) {
+        ProductValidator.validatePriceRange(minPrice, maxPrice);
+
+        // prisindexet har redan hela dokumenten i minnet, då behövs ingen projektion
+        List<ProductSummaryDTO> summaries = productPriceIndex.isReady()
+                ? productPriceIndex.findByPriceBetween(minPrice, maxPrice).stream().map(ProductSummaryDTO::from).toList()
+                : productQueryCache.getSummariesByPriceRange(minPrice, maxPrice, range -> productSnapshotIndex.isReady()
+                        ? productSnapshotIndex.findSummariesByPriceBetween(range.minPrice(), range.maxPrice())
+                        : productRepository.findByPriceBetween(range.minPrice(), range.maxPrice(), ProductSummaryDTO.class));
+        return summaries.isEmpty()
+                ? LookupResult.notFound("No products found within price range: " + minPrice + " - " + maxPrice)
+                : LookupResult.found(summaries);
+    }
+
+    /**
+     * Retrieves product summaries within a specified price range.
+     *
+     * @param minPrice The minimum price.
+     * @param maxPrice The maximum price.
+     * @return A list of summaries within the price range.
+     * @throws IllegalArgumentException if minPrice > maxPrice or any price is negative.
+     * @throws NoSuchElementException if no products are within the range.
+     */
+    public List<ProductSummaryDTO> getProductSummariesByPriceRange(double minPrice, double maxPrice) {
+        return findProductSummariesByPriceRange(minPrice, maxPrice).orElseThrow();
+    }
+
+    /**
+     * Retrieves product summaries by color. Only the summary fields are read from the database.
+     *
+     * @param color The color of the products to retrieve.
+     * @return A list of summaries matching the given color, or not found if there are none.
+     * @throws IllegalArgumentException if the color is null or empty.
+     */
+    public LookupResult<List<ProductSummaryDTO>> findProductSummariesByColor(String color) {
+        ProductValidator.validateColor(color);
+
+        List<ProductSummaryDTO> summaries = productQueryCache.getSummariesByColor(color,
+                key -> productSnapshotIndex.isReady()
+                        ? productSnapshotIndex.findSummariesByColor(key)
+                        : productRepository.findByColor(key, ProductSummaryDTO.class));
+        return summaries.isEmpty()
+                ? LookupResult.notFound("No products found with color: " + color)
+                : LookupResult.found(summaries);
+    }
+
+    /**
+     * Retrieves product summaries by color. Only the summary fields are read from the database.
+     *
+     * @param color The color of the products to retrieve.
+     * @return A list of summaries matching the given color.
+     * @throws IllegalArgumentException if the color is null or empty.
+     * @throws NoSuchElementException if no products match the given color.
+     */
+    public List<ProductSummaryDTO> getProductSummariesByColor(String color) {
+        return findProductSummariesByColor(color).orElseThrow();
     }
 }
@@ -0,0 +1,147 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ProductChangesDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.models.ProductTombstone;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.repository.ProductTombstoneRepository;
+import com.example.unit_testing.sync.ProductSequence;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Incremental delta sync. Every product write is stamped with a number from ProductSequence and
+ * every delete leaves a ProductTombstone written together with it, so a client can ask for everything changed since the
+ * last sequence it has seen instead of downloading the whole catalog again.
+ * <p>
+ * Sequence numbers are taken before the write, so changes are only returned up to ProductSequence.safe():
+ * a change with a higher number waits for the slower writers below it instead of being skipped.
+ */
+@Service
+public class ProductSyncService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final ProductSequence productSequence;
+
+    public ProductSyncService(ProductRepository productRepository,
+                              ProductTombstoneRepository tombstoneRepository,
+                              ProductSequence productSequence) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.productSequence = productSequence;
+    }
+
+    /**
+     * Retrieves the products and deletions with a sequence greater than {@code since}, in sequence order.
+     *
+     * @param since The last sequence the client has seen, 0 for everything.
+     * @param limit The maximum number of changes to return.
+     * @return The changed products, the deleted ids and the sequence to pass as {@code since} next time.
+     * @throws IllegalArgumentException if since is negative or the limit is out of range.
+     */
+    public ProductChangesDTO getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Since must not be negative.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+
+        long until = productSequence.safe();
+        if (until <= since) {
+            return new ProductChangesDTO(List.of(), List.of(), since, false);
+        }
+        // limit + 1 från båda källorna räcker för att avgöra hasMore efter sammanslagningen
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Product> products = productRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(since, until, page);
+        List<ProductTombstone> tombstones = tombstoneRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(since, until, page);
+
+        List<Product> changed = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        long nextSince = since;
+        int p = 0;
+        int t = 0;
+        while (changed.size() + deletedIds.size() < limit && (p < products.size() || t < tombstones.size())) {
+            if (t == tombstones.size()
+                    || (p < products.size() && products.get(p).getModSequence() < tombstones.get(t).getModSequence())) {
+                Product product = products.get(p++);
+                changed.add(product);
+                nextSince = product.getModSequence();
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                deletedIds.add(tombstone.getId());
+                nextSince = tombstone.getModSequence();
+            }
+        }
+        boolean hasMore = p < products.size() || t < tombstones.size();
+        return new ProductChangesDTO(changed, deletedIds, nextSince, hasMore);
+    }
+
+    /**
+     * Deletes products and leaves a tombstone for each of them. Tombstones are kept, so a client that has
+     * been offline for any length of time still learns about the deletions.
+     * <p>
+     * The tombstones are written before the delete and removed again if it fails, and their reservation is
+     * held until then, so the delta sync neither misses a deletion nor reports one that did not happen.
+     *
+     * @param productIds The IDs of the products to delete.
+     * @param delete     Deletes the products.
+     */
+    public void deleteWithTombstones(Collection<String> productIds, Runnable delete) {
+        try (ProductSequence.Reservation reservation = writeTombstones(productIds)) {
+            try {
+                delete.run();
+            } catch (RuntimeException e) {
+                removeTombstones(productIds, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Writes a tombstone for every product ID, the first half of {@link #deleteWithTombstones} for callers
+     * that delete asynchronously. Close the returned reservation once the delete has completed, and call
+     * {@link #removeTombstones} before that if it failed.
+     *
+     * @param productIds The IDs of the products about to be deleted.
+     * @return The reservation of the tombstones' sequence numbers.
+     */
+    public ProductSequence.Reservation writeTombstones(Collection<String> productIds) {
+        ProductSequence.Reservation reservation = productSequence.reserve(productIds.size());
+        try {
+            long sequence = reservation.first();
+            Instant deletedAt = Instant.now();
+            List<ProductTombstone> tombstones = new ArrayList<>(productIds.size());
+            for (String productId : productIds) {
+                tombstones.add(new ProductTombstone(productId, sequence++, deletedAt));
+            }
+            tombstoneRepository.saveAll(tombstones);
+            return reservation;
+        } catch (RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the tombstones of a delete that failed.
+     *
+     * @param productIds The IDs passed to writeTombstones.
+     * @param failure    The failure of the delete, which a failure to remove the tombstones is added to.
+     */
+    public void removeTombstones(Collection<String> productIds, Throwable failure) {
+        try {
+            tombstoneRepository.deleteAllById(productIds);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.models.Product;
+import org.bson.types.ObjectId;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validation rules and DTO mapping shared by every code path that creates products.
+ */
+public final class ProductValidator {
+
+    private ProductValidator() {
+    }
+
+    /**
+     * Validates a product before it is created.
+     *
+     * @param productDTO The data transfer object containing product details.
+     * @throws IllegalArgumentException if required fields are missing or invalid.
+     */
+    public static void validate(ProductDTO productDTO) {
+        validateName(productDTO.getName());
+        if (productDTO.getPrice() < 0) {
+            throw new IllegalArgumentException("Product price cannot be negative.");
+        }
+        if (productDTO.getStockQuantity() < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative.");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is null or empty.
+     */
+    public static void validateName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product name cannot be null or empty.");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the color is null or empty.
+     */
+    public static void validateColor(String color) {
+        if (color == null || color.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product color cannot be null or empty.");
+        }
+    }
+
+    /**
+     * Validates a keyset cursor. Product ids are ObjectIds, so anything else can never match and
+     * would silently end the iteration with an empty page.
+     *
+     * @throws IllegalArgumentException if the cursor is not a valid ObjectId.
+     */
+    public static void validateCursor(String after) {
+        if (!ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Cursor '" + after + "' is not a valid product id.");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a price is not finite, minPrice > maxPrice or any price is negative.
+     */
+    public static void validatePriceRange(double minPrice, double maxPrice) {
+        // NaN klarar alla jämförelser nedan, som i ProductFacetService.validateBoundaries
+        if (!Double.isFinite(minPrice) || !Double.isFinite(maxPrice)) {
+            throw new IllegalArgumentException("Price values must be finite numbers.");
+        }
+        if (minPrice < 0 || maxPrice < 0) {
+            throw new IllegalArgumentException("Price values cannot be negative.");
+        }
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice.");
+        }
+    }
+
+    /**
+     * Validates the criteria that are set in a filter, with the same rules as the single finders.
+     *
+     * @throws IllegalArgumentException if a set criterion is empty, negative or not finite, or the price range is reversed.
+     */
+    public static void validateFilter(ProductFilterDTO filter) {
+        if (filter.getName() != null) {
+            validateName(filter.getName());
+        }
+        if (filter.getColor() != null) {
+            validateColor(filter.getColor());
+        }
+        double minPrice = filter.getMinPrice() != null ? filter.getMinPrice() : 0;
+        double maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.MAX_VALUE;
+        validatePriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Validates the IDs of a batch request and removes duplicates, keeping the request order.
+     *
+     * @param ids    The requested product IDs.
+     * @param maxIds The maximum number of IDs in one request.
+     * @return The distinct IDs.
+     * @throws IllegalArgumentException if the list is empty, too long or contains a blank ID.
+     */
+    public static List<String> validateIds(List<String> ids, int maxIds) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Product ids cannot be null or empty.");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " product ids are allowed per request.");
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id == null || id.trim().isEmpty()) {
+                throw new IllegalArgumentException("Product id cannot be null or empty.");
+            }
+            distinct.add(id);
+        }
+        return List.copyOf(distinct);
+    }
+
+    /**
+     * Maps a ProductDTO to a new Product without an ID.
+     *
+     * @param productDTO The data transfer object containing product details.
+     * @return The product to save.
+     */
+    public static Product toProduct(ProductDTO productDTO) {
+        Product product = new Product();
+        product.setName(productDTO.getName());
+        product.setDescription(productDTO.getDescription());
+        product.setColor(productDTO.getColor());
+        product.setPrice(productDTO.getPrice());
+        product.setStockQuantity(productDTO.getStockQuantity());
+        return product;
+    }
+}
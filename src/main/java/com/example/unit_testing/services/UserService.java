@@ -1,17 +1,24 @@
 package com.example.unit_testing.services;
 
+import com.example.unit_testing.cache.UserCache;
 import com.example.unit_testing.models.User;
 import com.example.unit_testing.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
+@Timed(value = "users.service", histogram = true)
 public class UserService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserCache userCache;
+
 
     /**
      * Creates a new user by saving it to the repository.
@@ -20,7 +27,22 @@ public class UserService {
      * @return The saved user with an assigned ID.
      */
     public User createUser(User user){
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCache.invalidate(savedUser.getId());
+        return savedUser;
+    }
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param id The ID of the user to retrieve.
+     * @return The found user, or not found if no user has the given ID.
+     */
+    public LookupResult<User> findUserById(String id) {
+        Optional<User> user = userCache.getById(id, userRepository::findById);
+        return user.isPresent()
+                ? LookupResult.found(user.get())
+                : LookupResult.notFound("User not found with id: " + id);
     }
 
     /**
@@ -28,14 +50,9 @@ public class UserService {
      *
      * @param id The ID of the user to retrieve.
      * @return The found user.
-     * @throws RuntimeException if no user is found with the given ID.
+     * @throws NoSuchElementException if no user is found with the given ID.
      */
     public User getUserById(String id) {
-        Optional<User> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            return user.get();
-        } else {
-            throw new RuntimeException("User not found with id: " + id);
-        }
+        return findUserById(id).orElseThrow();
     }
 }
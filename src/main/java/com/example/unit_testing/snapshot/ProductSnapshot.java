@@ -0,0 +1,379 @@
+package com.example.unit_testing.snapshot;
+
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.models.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a catalog snapshot file written by ProductSnapshotWriter.
+ * <p>
+ * The file is memory-mapped, so opening it costs no reads and the operating system pages the
+ * columns in on demand (and shares them between processes). Numeric columns are read straight from
+ * the mapping and string columns are compared as UTF-8 bytes in place; only returned values are decoded.
+ * Name, color and price lookups binary search a row order stored in the file, so they read
+ * O(log n + matches) rows instead of scanning the snapshot.
+ * <p>
+ * Layout, big-endian, rows ordered by id:
+ * <pre>
+ * header      int magic, int version, int rowCount, int reserved, long sequence
+ * price       double[rowCount]
+ * modSequence long[rowCount]
+ * stock       int[rowCount]
+ * id, name, color, description:
+ *             int[rowCount] end offsets (bitwise complement for null), then the UTF-8 bytes
+ * byName, byColor, byPrice:
+ *             int[rowCount] row numbers ordered by the value, then by row
+ * </pre>
+ * A mapping is limited to 2 GB, which is enough for several million products.
+ */
+public final class ProductSnapshot {
+
+    static final int MAGIC = 0x50534E50; // "PSNP"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 24;
+
+    static final int ID = 0;
+    static final int NAME = 1;
+    static final int COLOR = 2;
+    static final int DESCRIPTION = 3;
+    static final int STRING_COLUMNS = 4;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final long sequence;
+    private final int priceOffset;
+    private final int modSequenceOffset;
+    private final int stockOffset;
+    private final int[] endsOffset = new int[STRING_COLUMNS];
+    private final int[] dataOffset = new int[STRING_COLUMNS];
+    private final int nameOrderOffset;
+    private final int colorOrderOffset;
+    private final int priceOrderOffset;
+
+    ProductSnapshot(ByteBuffer buffer) throws IOException {
+        this(buffer, true);
+    }
+
+    // utan ordningarna läser ProductSnapshotWriter kolumnerna den sorterar raderna efter
+    ProductSnapshot(ByteBuffer buffer, boolean ordered) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a product snapshot file.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported product snapshot version " + buffer.getInt(4) + ".");
+        }
+        this.rowCount = buffer.getInt(8);
+        this.sequence = buffer.getLong(16);
+        if (rowCount < 0) {
+            throw new IOException("Product snapshot is corrupt, negative row count.");
+        }
+
+        long offset = HEADER_SIZE;
+        priceOffset = (int) offset;
+        offset += (long) Double.BYTES * rowCount;
+        modSequenceOffset = (int) offset;
+        offset += (long) Long.BYTES * rowCount;
+        stockOffset = (int) offset;
+        offset += (long) Integer.BYTES * rowCount;
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            endsOffset[column] = (int) offset;
+            offset += (long) Integer.BYTES * rowCount;
+            if (offset > buffer.limit()) {
+                break;
+            }
+            dataOffset[column] = (int) offset;
+            offset += rowCount == 0 ? 0 : end(buffer.getInt(endsOffset[column] + Integer.BYTES * (rowCount - 1)));
+        }
+        nameOrderOffset = (int) offset;
+        colorOrderOffset = (int) (offset + (long) Integer.BYTES * rowCount);
+        priceOrderOffset = (int) (offset + 2L * Integer.BYTES * rowCount);
+        if (ordered) {
+            offset += 3L * Integer.BYTES * rowCount;
+        }
+        if (offset != buffer.limit()) {
+            throw new IOException("Product snapshot is truncated or corrupt, expected " + offset
+                    + " bytes but found " + buffer.limit() + ".");
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory. The mapping stays valid after this method returns and is
+     * released when the snapshot is garbage collected.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static ProductSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Product snapshot " + file + " is larger than 2 GB.");
+            }
+            return new ProductSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return The number of products in the snapshot.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * @return The product sequence when the snapshot was started; later changes come from the delta sync.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String id(int row) {
+        return string(ID, row);
+    }
+
+    public String name(int row) {
+        return string(NAME, row);
+    }
+
+    public String color(int row) {
+        return string(COLOR, row);
+    }
+
+    public String description(int row) {
+        return string(DESCRIPTION, row);
+    }
+
+    public double price(int row) {
+        return buffer.getDouble(priceOffset + Double.BYTES * row);
+    }
+
+    public long modSequence(int row) {
+        return buffer.getLong(modSequenceOffset + Long.BYTES * row);
+    }
+
+    public int stockQuantity(int row) {
+        return buffer.getInt(stockOffset + Integer.BYTES * row);
+    }
+
+    public Product product(int row) {
+        Product product = new Product();
+        product.setId(id(row));
+        product.setName(name(row));
+        product.setDescription(description(row));
+        product.setColor(color(row));
+        product.setPrice(price(row));
+        product.setStockQuantity(stockQuantity(row));
+        product.setModSequence(modSequence(row));
+        return product;
+    }
+
+    // beskrivningen avkodas inte alls för sammanfattningar
+    public ProductSummaryDTO summary(int row) {
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId(id(row));
+        summary.setName(name(row));
+        summary.setColor(color(row));
+        summary.setPrice(price(row));
+        summary.setStockQuantity(stockQuantity(row));
+        return summary;
+    }
+
+    /**
+     * Finds a row by id with a binary search, the rows are ordered by the UTF-8 bytes of the id
+     * like MongoDB orders strings.
+     *
+     * @return The row, or -1 if the id is not in the snapshot.
+     */
+    public int indexOf(String id) {
+        byte[] value = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(ID, mid, value);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the rows whose name or color equals the value with a binary search over the stored row order.
+     *
+     * @param column NAME or COLOR.
+     * @return The matching rows in id order.
+     */
+    public int[] rowsEqual(int column, String value) {
+        int order = switch (column) {
+            case NAME -> nameOrderOffset;
+            case COLOR -> colorOrderOffset;
+            default -> throw new IllegalArgumentException("Column " + column + " has no stored row order.");
+        };
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // första positionen där värdet inte är mindre, sedan första där det är större
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(column, orderedRow(order, mid), bytes) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int from = low;
+        high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(column, orderedRow(order, mid), bytes) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // lika värden är ordnade efter rad, alltså efter id
+        int[] rows = new int[low - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = orderedRow(order, from + i);
+        }
+        return rows;
+    }
+
+    /**
+     * Finds the rows with a price strictly between minPrice and maxPrice with a binary search over the
+     * stored price order.
+     *
+     * @return The matching rows in id order.
+     */
+    public int[] rowsWithPriceBetween(double minPrice, double maxPrice) {
+        // priserna är ordnade med Double.compare, NaN sist, så "inte <= minPrice" är falskt och sedan sant
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (price(orderedRow(priceOrderOffset, mid)) <= minPrice) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int count = 0;
+        while (low + count < rowCount && price(orderedRow(priceOrderOffset, low + count)) < maxPrice) {
+            count++;
+        }
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = orderedRow(priceOrderOffset, low + i);
+        }
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    /**
+     * Compares a string column of two rows with the order used for the stored row orders: null first,
+     * then the UTF-8 bytes unsigned, then the row number.
+     */
+    int compareRows(int column, int row, int otherRow) {
+        int raw = rawEnd(column, row);
+        int otherRaw = rawEnd(column, otherRow);
+        if (raw < 0 || otherRaw < 0) {
+            return raw < 0 && otherRaw < 0 ? Integer.compare(row, otherRow) : raw < 0 ? -1 : 1;
+        }
+        int start = start(column, row);
+        int otherStart = start(column, otherRow);
+        int length = raw - start;
+        int otherLength = otherRaw - otherStart;
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(dataOffset[column] + start + i) & 0xFF,
+                    buffer.get(dataOffset[column] + otherStart + i) & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        int comparison = Integer.compare(length, otherLength);
+        return comparison != 0 ? comparison : Integer.compare(row, otherRow);
+    }
+
+    private int orderedRow(int orderOffset, int position) {
+        return buffer.getInt(orderOffset + Integer.BYTES * position);
+    }
+
+    /**
+     * Compares a string column with UTF-8 bytes in place, without decoding or copying the value.
+     * A null value only equals a null column value.
+     */
+    boolean equalsValue(int column, int row, byte[] value) {
+        int raw = rawEnd(column, row);
+        if (raw < 0 || value == null) {
+            return raw < 0 && value == null;
+        }
+        int start = start(column, row);
+        if (raw - start != value.length) {
+            return false;
+        }
+        int position = dataOffset[column] + start;
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(position + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // osignerad bytejämförelse, samma ordning som MongoDB använder för strängar; null före alla värden
+    private int compare(int column, int row, byte[] value) {
+        if (rawEnd(column, row) < 0) {
+            return -1;
+        }
+        int start = start(column, row);
+        int length = end(rawEnd(column, row)) - start;
+        int position = dataOffset[column] + start;
+        int common = Math.min(length, value.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(position + i) & 0xFF, value[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, value.length);
+    }
+
+    private String string(int column, int row) {
+        int raw = rawEnd(column, row);
+        if (raw < 0) {
+            return null;
+        }
+        int start = start(column, row);
+        byte[] bytes = new byte[raw - start];
+        buffer.get(dataOffset[column] + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int rawEnd(int column, int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the snapshot of " + rowCount + " products.");
+        }
+        return buffer.getInt(endsOffset[column] + Integer.BYTES * row);
+    }
+
+    private int start(int column, int row) {
+        return row == 0 ? 0 : end(rawEnd(column, row - 1));
+    }
+
+    // null lagras som komplementet av slutet, så längden blir noll
+    static int end(int rawEnd) {
+        return rawEnd < 0 ? ~rawEnd : rawEnd;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.unit_testing.snapshot;
+
+import com.example.unit_testing.cache.CatalogVersion;
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.dto.ProductChangesDTO;
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.ProductSyncService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Optional cold start for read replicas: the name, color and price finders are answered from a
+ * memory-mapped ProductSnapshot instead of MongoDB.
+ * <p>
+ * After mapping the file the index catches up through the delta sync (ProductSyncService) from the
+ * sequence stored in the snapshot, so only the changes since the snapshot are read from the database.
+ * Changed and deleted products are kept in an overlay that hides their snapshot rows. The overlay
+ * is kept up to date from ProductChangeEvents and, for writes made on other instances, by catching up
+ * again at a fixed interval.
+ * <p>
+ * The overlay holds every product changed or deleted since the snapshot was written and is only emptied
+ * by a restart, so a replica should be given a freshly written snapshot regularly (POST /api/products/snapshot
+ * and a rolling restart); a warning is logged once the overlay passes OVERLAY_WARNING_SIZE products.
+ */
+@Component
+public class ProductSnapshotIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotIndex.class);
+
+    static final int OVERLAY_WARNING_SIZE = 100_000;
+
+    private final ProductSyncService productSyncService;
+    private final ProductQueryCache productQueryCache;
+    private final CatalogVersion catalogVersion;
+    private final Path path;
+    private final boolean enabled;
+    private final Duration catchUpInterval;
+
+    private final Map<String, Product> changed = new ConcurrentHashMap<>();
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService catchUpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-catch-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ProductSnapshot snapshot;
+    private volatile boolean ready;
+    private long since;
+    private boolean overlayWarned;
+
+    public ProductSnapshotIndex(ProductSyncService productSyncService,
+                                ProductQueryCache productQueryCache,
+                                CatalogVersion catalogVersion,
+                                @Value("${products.snapshot.path:data/products.snapshot}") String path,
+                                @Value("${products.snapshot.load-on-startup:false}") boolean enabled,
+                                @Value("${products.snapshot.catch-up-interval:5s}") Duration catchUpInterval) {
+        this.productSyncService = productSyncService;
+        this.productQueryCache = productQueryCache;
+        this.catalogVersion = catalogVersion;
+        this.path = Paths.get(path);
+        this.enabled = enabled;
+        this.catchUpInterval = catchUpInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        if (!Files.exists(path)) {
+            log.info("No product snapshot at {}, finder queries will use MongoDB", path);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            open(ProductSnapshot.open(path));
+            int caughtUp = catchUp();
+            ready = true;
+            log.info("Mapped {} products from {} and caught up {} changes in {} ms", snapshot.size(), path, caughtUp,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | DataAccessException e) {
+            snapshot = null;
+            log.warn("Could not load the product snapshot, finder queries will use MongoDB: {}", e.getMessage());
+            return;
+        }
+        if (!catchUpInterval.isZero() && !catchUpInterval.isNegative()) {
+            long intervalMillis = catchUpInterval.toMillis();
+            catchUpExecutor.scheduleWithFixedDelay(this::catchUpQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void open(ProductSnapshot snapshot) {
+        changed.clear();
+        deleted.clear();
+        this.since = snapshot.getSequence();
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Reads the changes since the last catch-up into the overlay. For the changes the overlay did not
+     * already have, from this instance's own events, the query cache entries of the old and new versions
+     * are invalidated and the catalog version is bumped.
+     *
+     * @return The number of changed and deleted products read.
+     */
+    public synchronized int catchUp() {
+        int count = 0;
+        List<Product> stale = new ArrayList<>();
+        ProductChangesDTO changes;
+        do {
+            changes = productSyncService.getChanges(since, ProductSyncService.MAX_LIMIT);
+            changes.getProducts().forEach(product -> put(product, stale::add));
+            changes.getDeletedIds().forEach(productId -> delete(productId, stale::add));
+            count += changes.getProducts().size() + changes.getDeletedIds().size();
+            since = changes.getNextSince();
+        } while (changes.isHasMore());
+        // ändringar från andra instanser ger inga events, så cachen och ETag måste uppdateras här
+        if (!stale.isEmpty()) {
+            productQueryCache.invalidate(stale);
+            catalogVersion.bump();
+        }
+        if (!overlayWarned && getOverlaySize() > OVERLAY_WARNING_SIZE) {
+            overlayWarned = true;
+            log.warn("The snapshot overlay holds {} products, write a new snapshot for this replica to keep memory bounded",
+                    getOverlaySize());
+        }
+        return count;
+    }
+
+    private void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.warn("Could not catch up the product snapshot, retrying in {}: {}", catchUpInterval, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        catchUpExecutor.shutdownNow();
+    }
+
+    /**
+     * @return true when a snapshot is mapped and caught up, so it can answer queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return The number of products changed or deleted since the snapshot was written.
+     */
+    public int getOverlaySize() {
+        return changed.size() + deleted.size();
+    }
+
+    public List<Product> findByName(String name) {
+        return find(current -> current.rowsEqual(ProductSnapshot.NAME, name),
+                product -> Objects.equals(product.getName(), name), ProductSnapshot::product, Function.identity());
+    }
+
+    public List<Product> findByColor(String color) {
+        return find(current -> current.rowsEqual(ProductSnapshot.COLOR, color),
+                product -> Objects.equals(product.getColor(), color), ProductSnapshot::product, Function.identity());
+    }
+
+    /**
+     * Returns the products with a price strictly between minPrice and maxPrice, matching the
+     * bounds of ProductRepository.findByPriceBetween.
+     */
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return find(current -> current.rowsWithPriceBetween(minPrice, maxPrice),
+                product -> product.getPrice() > minPrice && product.getPrice() < maxPrice,
+                ProductSnapshot::product, Function.identity());
+    }
+
+    public List<ProductSummaryDTO> findSummariesByName(String name) {
+        return find(current -> current.rowsEqual(ProductSnapshot.NAME, name),
+                product -> Objects.equals(product.getName(), name), ProductSnapshot::summary, ProductSummaryDTO::from);
+    }
+
+    public List<ProductSummaryDTO> findSummariesByColor(String color) {
+        return find(current -> current.rowsEqual(ProductSnapshot.COLOR, color),
+                product -> Objects.equals(product.getColor(), color), ProductSnapshot::summary, ProductSummaryDTO::from);
+    }
+
+    public List<ProductSummaryDTO> findSummariesByPriceBetween(double minPrice, double maxPrice) {
+        return find(current -> current.rowsWithPriceBetween(minPrice, maxPrice),
+                product -> product.getPrice() > minPrice && product.getPrice() < maxPrice,
+                ProductSnapshot::summary, ProductSummaryDTO::from);
+    }
+
+    // rader i filen som ändrats eller tagits bort efter ögonblicksbilden döljs av overlayen
+    private <T> List<T> find(Function<ProductSnapshot, int[]> matchingRows, Predicate<Product> overlayMatches,
+                             BiFunction<ProductSnapshot, Integer, T> fromRow, Function<Product, T> fromProduct) {
+        ProductSnapshot current = snapshot;
+        boolean overlayEmpty = changed.isEmpty() && deleted.isEmpty();
+        List<T> results = new ArrayList<>();
+        for (int row : matchingRows.apply(current)) {
+            if (overlayEmpty || !hidden(current.id(row))) {
+                results.add(fromRow.apply(current, row));
+            }
+        }
+        for (Product product : changed.values()) {
+            if (overlayMatches.test(product)) {
+                results.add(fromProduct.apply(product));
+            }
+        }
+        return results;
+    }
+
+    private boolean hidden(String id) {
+        return changed.containsKey(id) || deleted.contains(id);
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+        // ProductQueryCache invaliderar själv för events
+        for (Product product : event.getProducts()) {
+            if (event.getType() == ProductChangeEvent.Type.DELETED) {
+                delete(product.getId(), stale -> { });
+            } else {
+                put(product, stale -> { });
+            }
+        }
+    }
+
+    // en äldre version från catch-up får inte skriva över en nyare från ett event, och en sida som lästes
+    // före en borttagning får inte väcka produkten igen; id:n återanvänds inte, så borttaget är slutgiltigt.
+    // Bara en version som overlayen inte redan hade ger den gamla och den nya versionen till stale
+    private void put(Product product, Consumer<Product> stale) {
+        if (product.getId() == null) {
+            return;
+        }
+        changed.compute(product.getId(), (id, current) -> {
+            if (deleted.contains(id)) {
+                return null;
+            }
+            if (current != null && product.getModSequence() <= current.getModSequence()) {
+                return current;
+            }
+            Product previous = current != null ? current : snapshotVersion(id);
+            if (previous != null) {
+                stale.accept(previous);
+            }
+            stale.accept(product);
+            return product;
+        });
+    }
+
+    // markeras som borttagen före remove, så att en samtidig put ser markeringen
+    private void delete(String productId, Consumer<Product> stale) {
+        if (!deleted.add(productId)) {
+            return;
+        }
+        Product current = changed.remove(productId);
+        Product previous = current != null ? current : snapshotVersion(productId);
+        if (previous != null) {
+            stale.accept(previous);
+        }
+    }
+
+    // versionen i filen, eller null för en produkt som skapats efter ögonblicksbilden
+    private Product snapshotVersion(String productId) {
+        int row = snapshot.indexOf(productId);
+        return row < 0 ? null : snapshot.product(row);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.unit_testing.snapshot;
+
+import com.example.unit_testing.models.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Writes products in the layout read by ProductSnapshot.
+ * <p>
+ * Every column is first written to its own temporary file while the products are streamed, so the
+ * products are never held in memory. The columns are then concatenated behind the header, the row orders
+ * for name, color and price are sorted from the mapped columns (two int arrays of the row count in memory)
+ * and appended, and the result is moved over the target, so a replica never maps a half-written snapshot.
+ */
+public final class ProductSnapshotWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ProductSnapshotWriter() {
+    }
+
+    /**
+     * Writes the products, which must be ordered by id, to the target file.
+     *
+     * @param products The products ordered by id, e.g. from a cursor.
+     * @param sequence The product sequence read before the products were streamed.
+     * @param target   The snapshot file to create or replace.
+     * @return The number of products written.
+     * @throws IOException if writing fails.
+     * @throws IllegalStateException if the snapshot would be larger than 2 GB.
+     */
+    public static long write(Stream<Product> products, long sequence, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path columnDirectory = Files.createTempDirectory(directory, "snapshot-");
+        List<Column> columns = new ArrayList<>();
+        Path temporary = null;
+        try {
+            Column prices = open(columns, columnDirectory, "price");
+            Column modSequences = open(columns, columnDirectory, "modSequence");
+            Column stock = open(columns, columnDirectory, "stock");
+            StringColumn[] strings = new StringColumn[ProductSnapshot.STRING_COLUMNS];
+            for (int column = 0; column < strings.length; column++) {
+                strings[column] = new StringColumn(open(columns, columnDirectory, "ends" + column),
+                        open(columns, columnDirectory, "data" + column));
+            }
+
+            int rowCount = 0;
+            for (Product product : (Iterable<Product>) products::iterator) {
+                prices.out.writeDouble(product.getPrice());
+                modSequences.out.writeLong(product.getModSequence());
+                stock.out.writeInt(product.getStockQuantity());
+                strings[ProductSnapshot.ID].write(product.getId());
+                strings[ProductSnapshot.NAME].write(product.getName());
+                strings[ProductSnapshot.COLOR].write(product.getColor());
+                strings[ProductSnapshot.DESCRIPTION].write(product.getDescription());
+                rowCount++;
+            }
+            for (Column column : columns) {
+                column.out.close();
+            }
+
+            long size = ProductSnapshot.HEADER_SIZE + 3L * Integer.BYTES * rowCount;
+            for (Column column : columns) {
+                size += Files.size(column.file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The snapshot would be " + size + " bytes, a snapshot is limited to 2 GB.");
+            }
+
+            temporary = Files.createTempFile(directory, "snapshot-", ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(ProductSnapshot.HEADER_SIZE)
+                        .putInt(ProductSnapshot.MAGIC)
+                        .putInt(ProductSnapshot.VERSION)
+                        .putInt(rowCount)
+                        .putInt(0)
+                        .putLong(sequence)
+                        .flip();
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (Column column : columns) {
+                    try (FileChannel in = FileChannel.open(column.file, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long length = in.size();
+                        while (position < length) {
+                            position += in.transferTo(position, length - position, out);
+                        }
+                    }
+                }
+                writeRowOrders(out, rowCount);
+                out.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rowCount;
+        } finally {
+            for (Column column : columns) {
+                column.out.close();
+                Files.deleteIfExists(column.file);
+            }
+            Files.deleteIfExists(columnDirectory);
+            // finns bara kvar om något gick fel före flytten
+            if (temporary != null) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    // sorterar raderna från de nyss skrivna kolumnerna och lägger ordningarna sist i filen
+    private static void writeRowOrders(FileChannel out, int rowCount) throws IOException {
+        ProductSnapshot columns = new ProductSnapshot(out.map(FileChannel.MapMode.READ_ONLY, 0, out.size()), false);
+        int[] scratch = new int[rowCount];
+        writeRows(out, sortRows(rowCount, scratch, (row, other) -> columns.compareRows(ProductSnapshot.NAME, row, other)));
+        writeRows(out, sortRows(rowCount, scratch, (row, other) -> columns.compareRows(ProductSnapshot.COLOR, row, other)));
+        writeRows(out, sortRows(rowCount, scratch, (row, other) -> {
+            int comparison = Double.compare(columns.price(row), columns.price(other));
+            return comparison != 0 ? comparison : Integer.compare(row, other);
+        }));
+    }
+
+    // merge sort på int utan boxning; jämförelsen bryter lika värden på radnumret
+    static int[] sortRows(int rowCount, int[] scratch, IntBinaryOperator comparator) {
+        int[] rows = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = row;
+        }
+        int[] source = rows;
+        int[] target = scratch;
+        for (int width = 1; width < rowCount; width *= 2) {
+            for (int from = 0; from < rowCount; from += 2 * width) {
+                int middle = Math.min(from + width, rowCount);
+                int to = Math.min(from + 2 * width, rowCount);
+                int left = from;
+                int right = middle;
+                for (int i = from; i < to; i++) {
+                    if (left < middle && (right >= to || comparator.applyAsInt(source[left], source[right]) <= 0)) {
+                        target[i] = source[left++];
+                    } else {
+                        target[i] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private static void writeRows(FileChannel out, int[] rows) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int row : rows) {
+            if (!buffer.hasRemaining()) {
+                flush(out, buffer);
+            }
+            buffer.putInt(row);
+        }
+        flush(out, buffer);
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer, out.size());
+        }
+        buffer.clear();
+    }
+
+    private static Column open(List<Column> columns, Path directory, String name) throws IOException {
+        Path file = directory.resolve(name);
+        Column column = new Column(file, new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)));
+        columns.add(column);
+        return column;
+    }
+
+    private record Column(Path file, DataOutputStream out) {
+    }
+
+    private static final class StringColumn {
+        private final Column ends;
+        private final Column data;
+        private long end;
+
+        StringColumn(Column ends, Column data) {
+            this.ends = ends;
+            this.data = data;
+        }
+
+        void write(String value) throws IOException {
+            if (value == null) {
+                ends.out.writeInt(~(int) end);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            end += bytes.length;
+            if (end > Integer.MAX_VALUE) {
+                throw new IllegalStateException("A string column of the snapshot is larger than 2 GB.");
+            }
+            data.out.write(bytes);
+            ends.out.writeInt((int) end);
+        }
+    }
+}
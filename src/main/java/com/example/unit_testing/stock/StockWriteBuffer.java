@@ -0,0 +1,420 @@
+package com.example.unit_testing.stock;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.exceptions.InsufficientStockException;
+import com.example.unit_testing.exceptions.NotFoundException;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.sync.ProductSequence;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind stage for stock changes on hot products. Adjustments are checked against an
+ * in-memory stock level, coalesced per product and written to MongoDB as one $inc per product,
+ * every flush interval or when the number of buffered adjustments reaches the threshold.
+ *
+ * <p>Durability: every accepted adjustment is appended to a journal file before it is acknowledged.
+ * The write reaches the operating system at once and is forced to disk when the journal segment is
+ * rotated at flush, so a crashed process loses nothing, while a power loss can lose the adjustments
+ * of the last flush interval. Segments are deleted after their deltas are written to MongoDB and are
+ * replayed at startup otherwise. Replay is at least once: a crash between the bulk write and the
+ * deletion of the segment applies those deltas twice.
+ *
+ * <p>Deltas that can never be written are not retried: deltas of deleted products and deltas that
+ * MongoDB rejects per document are appended to a dead-letter file in the journal directory and logged.
+ *
+ * <p>The in-memory stock level is refreshed from MongoDB after each flush. Changes made elsewhere
+ * (other instances, PATCH /{id}/stock) are not seen in between, so the buffer should own the stock
+ * writes of the products it is used for.
+ */
+@Component
+@ConditionalOnProperty(name = "products.stock-buffer.enabled", havingValue = "true")
+public class StockWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBuffer.class);
+
+    static final String SEGMENT_PREFIX = "stock-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String DEAD_LETTER_FILE = "dead-letter.journal";
+
+    // available = lagersaldo i databasen + pending, pending = ännu inte skrivet till databasen
+    private static final class Counter {
+        private final AtomicLong available;
+        private final AtomicLong pending = new AtomicLong();
+
+        private Counter(long available) {
+            this.available = new AtomicLong(available);
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ProductSequence productSequence;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path journalDir;
+    private final Duration flushInterval;
+    private final int flushThreshold;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    // läslåset tas per justering, skrivlåset bara när flush byter journalsegment
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger bufferedAdjustments = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel journal;
+    private Path journalSegment;
+    private long segmentSequence;
+
+    public StockWriteBuffer(ProductRepository productRepository,
+                            MongoTemplate mongoTemplate,
+                            ProductSequence productSequence,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${products.stock-buffer.journal-dir:data/stock-journal}") String journalDir,
+                            @Value("${products.stock-buffer.flush-interval:200ms}") Duration flushInterval,
+                            @Value("${products.stock-buffer.flush-threshold:10000}") int flushThreshold) {
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush threshold must be at least 1.");
+        }
+        this.productRepository = productRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.productSequence = productSequence;
+        this.eventPublisher = eventPublisher;
+        this.journalDir = Paths.get(journalDir);
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Replays journal segments left by a previous process, then starts a new segment and the flush schedule.
+     * Startup fails if the segments cannot be written to MongoDB, so no adjustment is lost or double counted.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(journalDir);
+        replayJournal();
+        segmentSequence = System.currentTimeMillis();
+        openSegment();
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushQuietly();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Adds delta to the buffered stock of a product. A withdrawal larger than the stock is rejected.
+     *
+     * @param productId The ID of the product.
+     * @param delta     The amount to add, negative to withdraw.
+     * @return The stock quantity after the adjustment, including buffered changes.
+     * @throws IllegalArgumentException if the ID is empty, delta is zero or the stock would exceed Integer.MAX_VALUE.
+     * @throws NoSuchElementException if the product does not exist.
+     * @throws InsufficientStockException if a withdrawal is larger than the stock.
+     */
+    public long adjustStock(String productId, int delta) {
+        if (productId == null || productId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product id cannot be null or empty.");
+        }
+        if (delta == 0) {
+            throw new IllegalArgumentException("Stock adjustment cannot be zero.");
+        }
+
+        long available;
+        lock.readLock().lock();
+        try {
+            Counter counter = counter(productId);
+            long current;
+            do {
+                current = counter.available.get();
+                available = current + delta;
+                if (available < 0) {
+                    throw new InsufficientStockException("Insufficient stock for product with id: " + productId);
+                }
+                // stockQuantity är en int, så även summan av de buffrade deltan ryms i en int
+                if (available > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Stock quantity cannot exceed " + Integer.MAX_VALUE + ".");
+                }
+            } while (!counter.available.compareAndSet(current, available));
+
+            try {
+                appendToJournal(productId, delta);
+            } catch (IOException e) {
+                counter.available.addAndGet(-delta);
+                throw new UncheckedIOException("Could not write the stock journal.", e);
+            }
+            counter.pending.addAndGet(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (bufferedAdjustments.incrementAndGet() >= flushThreshold && !flusher.isShutdown()
+                && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+        return available;
+    }
+
+    /**
+     * The number of adjustments accepted since the last flush.
+     */
+    public int getBufferedAdjustments() {
+        return bufferedAdjustments.get();
+    }
+
+    /**
+     * Writes all buffered deltas to MongoDB with one unordered bulk write, one $inc per product.
+     * Deltas stay buffered for the next flush when the bulk write fails as a whole; deltas that fail on
+     * their own, or belong to products that no longer exist, are dead-lettered.
+     */
+    public synchronized void flush() throws IOException {
+        Map<String, Long> deltas = new HashMap<>();
+        Path segment;
+        lock.writeLock().lock();
+        try {
+            counters.forEach((productId, counter) -> {
+                long delta = counter.pending.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(productId, delta);
+                }
+            });
+            bufferedAdjustments.set(0);
+            if (deltas.isEmpty()) {
+                return;
+            }
+            // segmentet innehåller exakt de deltan som töms här
+            segment = journalSegment;
+            journal.force(false);
+            journal.close();
+            segmentSequence++;
+            openSegment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Long> failed = writeDeltas(deltas);
+        if (!failed.isEmpty()) {
+            requeue(failed);
+        }
+        Files.delete(segment);
+
+        Map<String, Long> written = new HashMap<>(deltas);
+        written.keySet().removeAll(failed.keySet());
+        if (!written.isEmpty()) {
+            refresh(written);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Flushing buffered stock adjustments failed: {}", e.getMessage());
+        }
+    }
+
+    private Counter counter(String productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new NotFoundException("Product not found with id: " + productId));
+        Counter loaded = counters.putIfAbsent(productId, new Counter(product.getStockQuantity()));
+        return loaded != null ? loaded : counters.get(productId);
+    }
+
+    // returnerar de deltan som ska försökas igen, fel per dokument blir inte bättre av ett nytt försök
+    private Map<String, Long> writeDeltas(Map<String, Long> deltas) throws IOException {
+        List<String> productIds = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            // int som i Product, ett Long-delta skulle göra om fältet till int64
+            if (entry.getValue() < Integer.MIN_VALUE || entry.getValue() > Integer.MAX_VALUE) {
+                deadLetter(entry.getKey(), entry.getValue(), "the delta does not fit in an int");
+            } else {
+                productIds.add(entry.getKey());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        // reservationen släpps även om bulkOps eller mappningen kastar, annars fastnar safe() under den
+        try (ProductSequence.Reservation reservation = productSequence.reserve(productIds.size())) {
+            long sequence = reservation.first();
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (String productId : productIds) {
+                operations.updateOne(new Query(Criteria.where("id").is(productId)),
+                        new Update().inc("stockQuantity", deltas.get(productId).intValue())
+                                .set("modSequence", sequence++));
+            }
+            operations.execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                String productId = productIds.get(error.getIndex());
+                deadLetter(productId, deltas.get(productId), error.getMessage());
+            }
+            return Map.of();
+        } catch (DataAccessException e) {
+            log.warn("Writing {} buffered stock deltas failed, retrying at next flush: {}", deltas.size(), e.getMessage());
+            return deltas;
+        }
+    }
+
+    // lägg tillbaka deltan i bufferten och i det nya segmentet innan det gamla raderas
+    private void requeue(Map<String, Long> deltas) throws IOException {
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+                appendToJournal(entry.getKey(), entry.getValue());
+                counters.get(entry.getKey()).pending.addAndGet(entry.getValue());
+            }
+            journal.force(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // läs om saldot från databasen så att ändringar från andra vägar syns; borttagna produkter släpps
+    private void refresh(Map<String, Long> written) throws IOException {
+        List<Product> products = new ArrayList<>(written.size());
+        productRepository.findAllById(List.copyOf(written.keySet())).forEach(products::add);
+        Map<String, Long> removed = new HashMap<>();
+        Set<String> found = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                Counter counter = counters.get(product.getId());
+                counter.available.set(product.getStockQuantity() + counter.pending.get());
+                found.add(product.getId());
+            }
+            for (String productId : written.keySet()) {
+                if (!found.contains(productId)) {
+                    // $inc träffade inget dokument, och det som buffrats sedan dess kan aldrig skrivas
+                    Counter counter = counters.remove(productId);
+                    removed.put(productId, written.get(productId) + counter.pending.getAndSet(0));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Map.Entry<String, Long> entry : removed.entrySet()) {
+            deadLetter(entry.getKey(), entry.getValue(), "the product no longer exists");
+        }
+        if (!products.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, products));
+        }
+    }
+
+    private void deadLetter(String productId, long delta, String reason) throws IOException {
+        log.error("Dropping stock delta {} for product {}: {}", delta, productId, reason);
+        Files.writeString(journalDir.resolve(DEAD_LETTER_FILE), productId + '\t' + delta + '\n', StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void openSegment() throws IOException {
+        journalSegment = journalDir.resolve(SEGMENT_PREFIX + segmentSequence + SEGMENT_SUFFIX);
+        journal = FileChannel.open(journalSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // en rad per justering, ett enda write-anrop så att rader från olika trådar inte blandas
+    private void appendToJournal(String productId, long delta) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((productId + '\t' + delta + '\n').getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            journal.write(line);
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(journalDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> deltas = new HashMap<>();
+        for (Path segment : segments) {
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                try {
+                    deltas.merge(line.substring(0, tab), Long.parseLong(line.substring(tab + 1)), Long::sum);
+                } catch (RuntimeException e) {
+                    // sista raden kan vara halvskriven om processen dog mitt i ett write-anrop
+                    log.warn("Skipping malformed line in stock journal {}: '{}'", segment.getFileName(), line);
+                }
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        if (!deltas.isEmpty()) {
+            Map<String, Long> failed = writeDeltas(deltas);
+            if (!failed.isEmpty()) {
+                throw new IllegalStateException("Could not replay " + failed.size()
+                        + " stock deltas from the journal in " + journalDir + ".");
+            }
+        }
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+        log.info("Replayed {} stock deltas from {} journal segments.", deltas.size(), segments.size());
+    }
+}
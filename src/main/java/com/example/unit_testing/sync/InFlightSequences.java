@@ -0,0 +1,29 @@
+package com.example.unit_testing.sync;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The reservations of this process that have not been closed yet.
+ */
+final class InFlightSequences {
+
+    // första numret per reservation, blocken överlappar aldrig
+    private final NavigableSet<Long> firsts = new TreeSet<>();
+
+    synchronized ProductSequence.Reservation add(long first, int count) {
+        firsts.add(first);
+        return new ProductSequence.Reservation(first, count, () -> remove(first));
+    }
+
+    /**
+     * @return The lowest number in flight, or Long.MAX_VALUE if none is.
+     */
+    synchronized long lowest() {
+        return firsts.isEmpty() ? Long.MAX_VALUE : firsts.first();
+    }
+
+    private synchronized void remove(long first) {
+        firsts.remove(first);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.unit_testing.sync;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * ProductSequence for the in-memory profile, local to this process like the in-memory repositories.
+ */
+@Component
+@Primary
+@Profile("in-memory")
+public class InMemoryProductSequence implements ProductSequence {
+
+    private final InFlightSequences inFlight = new InFlightSequences();
+
+    // skyddas av monitorn, tillsammans med inFlight så att safe() aldrig ser ett nummer utan dess reservation
+    private long value;
+    private long advancedTo;
+
+    @Override
+    public synchronized Reservation reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be at least 1.");
+        }
+        long first = value + 1;
+        value += count;
+        return inFlight.add(first, count);
+    }
+
+    @Override
+    public synchronized long current() {
+        return value;
+    }
+
+    @Override
+    public synchronized long safe() {
+        return Math.min(value, inFlight.lowest() - 1);
+    }
+
+    // bara nummer som advanceTo hoppade över kan vara tagna någon annanstans
+    @Override
+    public synchronized boolean takenLocally(long after, long upTo) {
+        return upTo <= after || after >= advancedTo;
+    }
+
+    /**
+     * Moves the sequence past numbers handed out elsewhere, e.g. by MongoDB before a preload.
+     */
+    public synchronized void advanceTo(long sequence) {
+        value = Math.max(value, sequence);
+        advancedTo = Math.max(advancedTo, sequence);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.unit_testing.sync;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSequence stored in the counters collection, shared by every application instance.
+ * <p>
+ * An instance takes a block of block-size numbers per round trip to the counter and hands them out
+ * locally, so the counter document is not written once per product write. Because blocks are used in
+ * parallel, numbers no longer commit in order across instances: every instance holding a block or
+ * writes in flight keeps a lease in the sequence_leases collection with the highest number at or below
+ * which all of its writes have completed, and safe() is the lowest of those marks. The lease is renewed
+ * every tenth of the lease timeout; an idle instance drops its block at the next renewal and then its lease.
+ * <p>
+ * The lease timeout has to cover the clock skew between instances. A write that outlives the lease because
+ * its instance cannot renew it may be missed by a delta sync, like a write to an unreachable database.
+ */
+@Component
+public class MongoProductSequence implements ProductSequence {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoProductSequence.class);
+
+    static final String COLLECTION = "counters";
+    static final String NAME = "products";
+    static final String LEASES = "sequence_leases";
+    // fler block än så glöms, de räknas då som tagna av en annan instans
+    static final int MAX_LOCAL_BLOCKS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final Duration leaseTimeout;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final InFlightSequences inFlight = new InFlightSequences();
+    // första och sista numret per block som den här instansen har tagit
+    private final NavigableMap<Long, Long> localBlocks = new TreeMap<>();
+
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sequence-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // skyddas av monitorn; blocket är tomt när blockNext > blockLast
+    private long blockNext = 1;
+    private long blockLast;
+    private boolean leased;
+    private boolean leaseIndexCreated;
+    private long leaseRenewedAt;
+    private long lastReservedAt;
+
+    public MongoProductSequence(MongoTemplate mongoTemplate,
+                                @Value("${products.sequence.block-size:100}") int blockSize,
+                                @Value("${products.sequence.lease-timeout:10s}") Duration leaseTimeout) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1.");
+        }
+        if (leaseTimeout.toMillis() < 10) {
+            throw new IllegalArgumentException("Lease timeout must be at least 10ms.");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = blockSize;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = leaseTimeout.toMillis() / 10;
+        renewer.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        renewer.shutdown();
+        blockNext = blockLast + 1;
+        if (leased && inFlight.lowest() == Long.MAX_VALUE) {
+            try {
+                deleteLease();
+            } catch (DataAccessException e) {
+                log.warn("Could not release the sequence lease, it expires after {}: {}", leaseTimeout, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized Reservation reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be at least 1.");
+        }
+        long now = System.nanoTime();
+        // läsare kan ha passerat ett block vars lease nästan har gått ut, det får inte användas längre
+        if (hasBlock() && now - leaseRenewedAt > leaseTimeout.toNanos() / 2) {
+            blockNext = blockLast + 1;
+        }
+        if (blockLast - blockNext + 1 < count) {
+            // resten av blocket hoppas över, luckor i sekvensen är tillåtna.
+            // Markeringen publiceras innan blocket tas, så en läsare som ser blocket i räknaren ser också leasen
+            publish(Math.min(localMark(), current()));
+            long size = Math.max(count, blockSize);
+            blockLast = increment(size);
+            blockNext = blockLast - size + 1;
+            localBlocks.put(blockNext, blockLast);
+            if (localBlocks.size() > MAX_LOCAL_BLOCKS) {
+                localBlocks.pollFirstEntry();
+            }
+        }
+        long first = blockNext;
+        blockNext += count;
+        lastReservedAt = now;
+        return inFlight.add(first, count);
+    }
+
+    @Override
+    public long current() {
+        Document counter = mongoTemplate.findById(NAME, Document.class, COLLECTION);
+        return counter == null ? 0 : ((Number) counter.get("value")).longValue();
+    }
+
+    // räknaren först, sedan leasarna: en instans publicerar sin markering innan den tar ett block
+    @Override
+    public long safe() {
+        long safe = current();
+        Query live = new Query(Criteria.where("expiresAt").gt(new Date()))
+                .with(Sort.by(Sort.Direction.ASC, "mark"))
+                .limit(1);
+        Document lowest = mongoTemplate.findOne(live, Document.class, LEASES);
+        if (lowest != null) {
+            safe = Math.min(safe, ((Number) lowest.get("mark")).longValue());
+        }
+        return safe;
+    }
+
+    // numren i egna block är antingen skrivna härifrån eller aldrig använda, hoppade nummer inräknade
+    @Override
+    public synchronized boolean takenLocally(long after, long upTo) {
+        localBlocks.headMap(after, true).entrySet().removeIf(block -> block.getValue() <= after);
+        long next = after + 1;
+        for (Map.Entry<Long, Long> block : localBlocks.entrySet()) {
+            if (next > upTo || block.getKey() > next) {
+                break;
+            }
+            next = Math.max(next, block.getValue() + 1);
+        }
+        return next > upTo;
+    }
+
+    synchronized void renew() {
+        try {
+            if (hasBlock() && System.nanoTime() - lastReservedAt > leaseTimeout.toNanos() / 10) {
+                blockNext = blockLast + 1;
+            }
+            long mark = localMark();
+            if (mark != Long.MAX_VALUE) {
+                publish(mark);
+            } else if (leased) {
+                deleteLease();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not renew the sequence lease: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasBlock() {
+        return blockNext <= blockLast;
+    }
+
+    // högsta numret under allt som den här instansen har i luften eller kan dela ut från blocket
+    private long localMark() {
+        long lowest = inFlight.lowest();
+        if (hasBlock()) {
+            lowest = Math.min(lowest, blockNext);
+        }
+        return lowest == Long.MAX_VALUE ? Long.MAX_VALUE : lowest - 1;
+    }
+
+    private void publish(long mark) {
+        if (!leaseIndexCreated) {
+            // MongoDB städar leasar från instanser som har dött
+            mongoTemplate.indexOps(LEASES).ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+            leaseIndexCreated = true;
+        }
+        long renewedAt = System.nanoTime();
+        Date expiresAt = new Date(System.currentTimeMillis() + leaseTimeout.toMillis());
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(instanceId)),
+                new Update().set("mark", mark).set("expiresAt", expiresAt),
+                LEASES);
+        leased = true;
+        leaseRenewedAt = renewedAt;
+    }
+
+    private void deleteLease() {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(instanceId)), LEASES);
+        leased = false;
+    }
+
+    // ett findAndModify per block oavsett blockets storlek
+    private long increment(long count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(NAME)),
+                new Update().inc("value", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                COLLECTION);
+        return ((Number) counter.get("value")).longValue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.unit_testing.sync;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monotonically increasing modification sequence for products. Every write of a product or
+ * tombstone takes a new number; numbers of failed writes are simply skipped.
+ * <p>
+ * Numbers are taken before the write, so writes can commit out of order. A reservation keeps its
+ * numbers in flight until it is closed, and {@link #safe()} stays below every number in flight, so a
+ * delta sync that stops at safe() never hands out a sequence that a slower writer can still commit below.
+ */
+public interface ProductSequence {
+
+    default Reservation next() {
+        return reserve(1);
+    }
+
+    /**
+     * Reserves a block of consecutive numbers. Close the reservation when the write has completed or failed.
+     *
+     * @param count The number of sequence numbers to reserve.
+     * @return The reserved block.
+     */
+    Reservation reserve(int count);
+
+    /**
+     * @return The highest number handed out, or 0 if none has been.
+     */
+    long current();
+
+    /**
+     * @return The highest number at or below which every write has completed, or 0.
+     */
+    long safe();
+
+    /**
+     * Tells whether the numbers after {@code after} up to and including {@code upTo} were all taken by this
+     * instance, so that no other instance can have written with them. Meant to be asked with an increasing
+     * {@code after}; numbers at or below it may be forgotten.
+     *
+     * @return true if no other instance can have taken a number in the range.
+     */
+    boolean takenLocally(long after, long upTo);
+
+    /**
+     * A block of reserved sequence numbers, first() to last().
+     */
+    final class Reservation implements AutoCloseable {
+
+        private final long first;
+        private final int count;
+        private final Runnable release;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * @param release Called once when the reservation is closed.
+         */
+        public Reservation(long first, int count, Runnable release) {
+            this.first = first;
+            this.count = count;
+            this.release = release;
+        }
+
+        public long first() {
+            return first;
+        }
+
+        public long last() {
+            return first + count - 1;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+}
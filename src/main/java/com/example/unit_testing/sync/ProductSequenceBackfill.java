@@ -0,0 +1,90 @@
+package com.example.unit_testing.sync;
+
+import com.example.unit_testing.models.Product;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stamps products written before the delta sync existed with a sequence number, so that a sync
+ * from since=0 returns the whole catalog and not only the products changed since the upgrade.
+ * Runs at startup in batches until no product without modSequence is left; a product written
+ * concurrently keeps the number its writer gave it.
+ */
+@Component
+@Profile("!in-memory")
+public class ProductSequenceBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSequenceBackfill.class);
+
+    static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductSequence productSequence;
+    private final boolean enabled;
+
+    public ProductSequenceBackfill(MongoTemplate mongoTemplate,
+                                   ProductSequence productSequence,
+                                   @Value("${products.sequence.backfill-on-startup:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.productSequence = productSequence;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long count = backfill();
+            if (count > 0) {
+                log.info("Stamped {} products without modSequence with a sequence number", count);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not backfill modSequence, products without it are missing from the delta sync: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gives every product without a modSequence a new sequence number.
+     *
+     * @return The number of products stamped.
+     */
+    public long backfill() {
+        long count = 0;
+        List<Document> batch;
+        do {
+            Query missing = new Query(Criteria.where("modSequence").exists(false)).limit(BATCH_SIZE);
+            missing.fields().include("_id");
+            batch = mongoTemplate.find(missing, Document.class, mongoTemplate.getCollectionName(Product.class));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try (ProductSequence.Reservation reservation = productSequence.reserve(batch.size())) {
+                long sequence = reservation.first();
+                BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                for (Document product : batch) {
+                    // en samtidig skrivning har redan fått ett nummer och ska behålla det
+                    operations.updateOne(new Query(Criteria.where("_id").is(product.get("_id")).and("modSequence").exists(false)),
+                            new Update().set("modSequence", sequence++));
+                }
+                count += operations.execute().getModifiedCount();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return count;
+    }
+}
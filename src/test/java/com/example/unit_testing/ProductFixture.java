@@ -0,0 +1,75 @@
+package com.example.unit_testing;
+
+import com.example.unit_testing.models.Product;
+
+/**
+ * Builds products for tests. Only the fields a test sets are filled in, the rest keep the Product defaults:
+ * <pre>
+ * Product chair = product("1").name("Chair").price(9.5).build();
+ * </pre>
+ */
+public final class ProductFixture {
+
+    private final Product product = new Product();
+
+    private ProductFixture() {
+    }
+
+    /**
+     * A product without an id, as before the first save.
+     */
+    public static ProductFixture product() {
+        return new ProductFixture();
+    }
+
+    public static ProductFixture product(String id) {
+        ProductFixture fixture = new ProductFixture();
+        fixture.product.setId(id);
+        return fixture;
+    }
+
+    public ProductFixture name(String name) {
+        product.setName(name);
+        return this;
+    }
+
+    public ProductFixture description(String description) {
+        product.setDescription(description);
+        return this;
+    }
+
+    public ProductFixture color(String color) {
+        product.setColor(color);
+        return this;
+    }
+
+    public ProductFixture price(double price) {
+        product.setPrice(price);
+        return this;
+    }
+
+    public ProductFixture stockQuantity(int stockQuantity) {
+        product.setStockQuantity(stockQuantity);
+        return this;
+    }
+
+    public ProductFixture modSequence(long modSequence) {
+        product.setModSequence(modSequence);
+        return this;
+    }
+
+    /**
+     * @return A new product with the fields set so far; the fixture can be built again for a copy.
+     */
+    public Product build() {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setColor(product.getColor());
+        copy.setPrice(product.getPrice());
+        copy.setStockQuantity(product.getStockQuantity());
+        copy.setModSequence(product.getModSequence());
+        return copy;
+    }
+}
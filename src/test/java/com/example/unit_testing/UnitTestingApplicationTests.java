@@ -3,7 +3,13 @@ package com.example.unit_testing;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// ingen MongoDB i testmiljön, hoppa över allt som pratar med databasen vid uppstart
+@SpringBootTest(properties = {
+		"products.indexes.auto-create=false",
+		"products.indexes.verify-on-startup=false",
+		"products.search.suggest-index.enabled=false",
+		"products.sequence.backfill-on-startup=false"
+})
 class UnitTestingApplicationTests {
 
 	@Test
@@ -0,0 +1,178 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.sync.ProductSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CatalogVersionTest {
+
+    @Mock
+    private ProductSequence productSequence;
+
+    @Mock
+    private ProductQueryCache productQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private CatalogVersion catalogVersion() {
+        return new CatalogVersion(productSequence, productQueryCache, Duration.ZERO);
+    }
+
+    /**
+     * Test onProductChange to ensure every change event results in a new ETag.
+     */
+    @Test
+    public void testOnProductChange_ChangesEtag() {
+        // Arrange
+        CatalogVersion catalogVersion = catalogVersion();
+        String before = catalogVersion.etag();
+
+        // Act
+        catalogVersion.onProductChange(ProductChangeEvent.created(new Product()));
+
+        // Assert
+        assertNotEquals(before, catalogVersion.etag());
+        assertTrue(catalogVersion.etag().startsWith("\"") && catalogVersion.etag().endsWith("\""));
+    }
+
+    /**
+     * Test poll to ensure instances that have seen the same shared sequence produce the same tag, so a
+     * response cached from one instance is confirmed by another behind the same load balancer.
+     */
+    @Test
+    public void testPoll_SameTagOnEveryInstance() throws InterruptedException {
+        // Arrange
+        when(productSequence.safe()).thenReturn(42L);
+        CatalogVersion first = catalogVersion();
+        Thread.sleep(2);
+        CatalogVersion second = catalogVersion();
+        assertNotEquals(first.etag(), second.etag(), "Tags from before the first poll must not match");
+
+        // Act
+        first.poll();
+        second.poll();
+
+        // Assert
+        assertEquals("\"42\"", first.etag());
+        assertEquals(first.etag(), second.etag());
+    }
+
+    /**
+     * Test poll to ensure a change made on another instance, seen as a moved sequence, changes the tag and
+     * clears the query cache.
+     */
+    @Test
+    public void testPoll_SequenceMovedClearsCache() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(42L, 42L, 50L);
+        CatalogVersion catalogVersion = catalogVersion();
+        catalogVersion.poll();
+        clearInvocations(productQueryCache);
+
+        // Act & Assert
+        assertFalse(catalogVersion.poll());
+        verify(productQueryCache, never()).invalidateAll();
+
+        assertTrue(catalogVersion.poll());
+        assertEquals("\"50\"", catalogVersion.etag());
+        verify(productQueryCache, times(1)).invalidateAll();
+    }
+
+    /**
+     * Test poll to ensure a sequence that only moved past numbers taken by this instance keeps the query cache,
+     * since those changes already invalidated their keys through events.
+     */
+    @Test
+    public void testPoll_LocalWritesKeepCache() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(42L, 50L);
+        when(productSequence.takenLocally(42L, 50L)).thenReturn(true);
+        CatalogVersion catalogVersion = catalogVersion();
+        catalogVersion.poll();
+        clearInvocations(productQueryCache);
+
+        // Act
+        boolean moved = catalogVersion.poll();
+
+        // Assert
+        assertTrue(moved);
+        assertEquals("\"50\"", catalogVersion.etag());
+        verify(productQueryCache, never()).invalidateAll();
+    }
+
+    /**
+     * Negative Test: a poll that fails with an unexpected exception should not stop the polling.
+     */
+    @Test
+    public void testStart_KeepsPollingAfterFailure() throws InterruptedException {
+        // Arrange
+        when(productSequence.safe()).thenThrow(new IllegalStateException("boom")).thenReturn(42L);
+        CatalogVersion catalogVersion = new CatalogVersion(productSequence, productQueryCache, Duration.ofMillis(5));
+
+        // Act
+        catalogVersion.start();
+        try {
+            for (int i = 0; i < 200 && !catalogVersion.etag().equals("\"42\""); i++) {
+                Thread.sleep(5);
+            }
+        } finally {
+            catalogVersion.stop();
+        }
+
+        // Assert
+        assertEquals("\"42\"", catalogVersion.etag());
+    }
+
+    /**
+     * Test bump to ensure a local change is never tagged like another instance until the sequence has moved past it.
+     */
+    @Test
+    public void testBump_KeepsEpochUntilSequenceMoves() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(42L, 42L, 43L);
+        CatalogVersion catalogVersion = catalogVersion();
+        catalogVersion.poll();
+
+        // Act & Assert
+        catalogVersion.bump();
+        String local = catalogVersion.etag();
+        assertTrue(local.startsWith("\"42-"));
+
+        catalogVersion.poll();
+        assertEquals(local, catalogVersion.etag());
+
+        catalogVersion.poll();
+        assertEquals("\"43\"", catalogVersion.etag());
+    }
+
+    /**
+     * Negative Test: poll with a sequence that went backwards should keep the tag, since an older tag may
+     * already have been handed out for other content.
+     */
+    @Test
+    public void testPoll_SequenceBackwardsIgnored() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(42L, 40L);
+        CatalogVersion catalogVersion = catalogVersion();
+        catalogVersion.poll();
+
+        // Act
+        boolean moved = catalogVersion.poll();
+
+        // Assert
+        assertFalse(moved);
+        assertEquals("\"42\"", catalogVersion.etag());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.unit_testing.cache;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductQueryCacheTest {
+
+    private ProductQueryCache productQueryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        productQueryCache = new ProductQueryCache(100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    private List<Product> load(Object key) {
+        loads.incrementAndGet();
+        return List.of();
+    }
+
+    /**
+     * Test invalidate to ensure only the name, color and price ranges of the changed product are evicted.
+     */
+    @Test
+    public void testInvalidate_OnlyAffectedKeys() {
+        // Arrange: fyll cachen med träffande och icke-träffande nycklar
+        productQueryCache.getByName("Product A", this::load);
+        productQueryCache.getByName("Product B", this::load);
+        productQueryCache.getByColor("Red", this::load);
+        productQueryCache.getByColor("Blue", this::load);
+        productQueryCache.getByPriceRange(10, 20, this::load);
+        productQueryCache.getByPriceRange(30, 40, this::load);
+        loads.set(0);
+
+        // Act
+        productQueryCache.onProductChange(ProductChangeEvent.created(product().name("Product A").color("Red").price(15).build()));
+
+        productQueryCache.getByName("Product A", this::load);
+        productQueryCache.getByName("Product B", this::load);
+        productQueryCache.getByColor("Red", this::load);
+        productQueryCache.getByColor("Blue", this::load);
+        productQueryCache.getByPriceRange(10, 20, this::load);
+        productQueryCache.getByPriceRange(30, 40, this::load);
+
+        // Assert: namn, färg och prisintervallet som innehåller 15 laddas om
+        assertEquals(3, loads.get(), "Only the three affected entries should be reloaded");
+    }
+
+    /**
+     * Test invalidate with a batch to ensure only price ranges holding one of the batch's prices are evicted,
+     * not every range between the lowest and highest price.
+     */
+    @Test
+    public void testInvalidate_BatchPriceRanges() {
+        // Arrange
+        productQueryCache.getByPriceRange(0, 5, this::load);
+        productQueryCache.getByPriceRange(12, 18, this::load);
+        productQueryCache.getByPriceRange(25, 35, this::load);
+        productQueryCache.getByPriceRange(50, 60, this::load);
+        loads.set(0);
+
+        // Act
+        productQueryCache.invalidate(List.of(product("1").price(10).build(), product("2").price(30).build(),
+                product("3").price(40).build()));
+
+        productQueryCache.getByPriceRange(0, 5, this::load);
+        productQueryCache.getByPriceRange(12, 18, this::load);
+        productQueryCache.getByPriceRange(25, 35, this::load);
+        productQueryCache.getByPriceRange(50, 60, this::load);
+
+        // Assert
+        assertEquals(1, loads.get(), "Only the range holding 30 should be reloaded");
+    }
+
+    /**
+     * Test getByPriceRange to ensure a result loaded while a product change arrives is returned but not kept,
+     * since the load may have read the product before the change.
+     */
+    @Test
+    public void testGetByPriceRange_ChangeDuringLoadNotKept() {
+        // Act
+        List<Product> first = productQueryCache.getByPriceRange(10, 20, range -> {
+            loads.incrementAndGet();
+            // ändringen kommer medan laddningen pågår, innan intervallet finns i cachen
+            productQueryCache.onProductChange(ProductChangeEvent.updated(product("1").price(15).build()));
+            return List.of(product("1").price(12).build());
+        });
+        productQueryCache.getByPriceRange(10, 20, this::load);
+
+        // Assert
+        assertEquals(12, first.get(0).getPrice());
+        assertEquals(2, loads.get(), "The result of the interrupted load should not have been cached");
+    }
+
+    /**
+     * Test getStats to ensure hits and misses are counted per cache.
+     */
+    @Test
+    public void testGetStats_HitsAndMisses() {
+        // Act
+        productQueryCache.getByColor("Red", this::load);
+        productQueryCache.getByColor("Red", this::load);
+
+        // Assert
+        assertEquals(1, productQueryCache.getStats().get("products.byColor").getHits());
+        assertEquals(1, productQueryCache.getStats().get("products.byColor").getMisses());
+        assertEquals(1, loads.get(), "The second lookup should be a cache hit");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.unit_testing.exceptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        globalExceptionHandler = new GlobalExceptionHandler(meterRegistry);
+    }
+
+    private double count(String exception, String status) {
+        return meterRegistry.counter("api.exceptions", "exception", exception, "status", status).count();
+    }
+
+    /**
+     * Test that every handled exception is counted per exception type and status.
+     */
+    @Test
+    public void testHandlers_CountExceptions() {
+        // Act
+        ResponseEntity<String> notFound = globalExceptionHandler.handleNoSuchElement(new NoSuchElementException("missing"));
+        globalExceptionHandler.handleNoSuchElement(new NoSuchElementException("missing"));
+        ResponseEntity<String> badRequest = globalExceptionHandler.handleIllegalArgument(new IllegalArgumentException("bad"));
+        ResponseEntity<String> conflict = globalExceptionHandler.handleInsufficientStock(new InsufficientStockException("empty"));
+        globalExceptionHandler.handleGeneral(new IllegalStateException("boom"));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, badRequest.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        assertEquals(2, count("NoSuchElementException", "404"));
+        assertEquals(1, count("IllegalArgumentException", "400"));
+        assertEquals(1, count("InsufficientStockException", "409"));
+        assertEquals(1, count("IllegalStateException", "500"));
+    }
+
+    /**
+     * Test that error bodies are RFC 7807 problem details with the exception message as detail.
+     */
+    @Test
+    public void testHandlers_ProblemDetails() {
+        // Act
+        ResponseEntity<String> notFound = globalExceptionHandler.handleNoSuchElement(new NotFoundException("No products found with name: \"A\""));
+        ResponseEntity<String> error = globalExceptionHandler.handleGeneral(new IllegalStateException("boom"));
+
+        // Assert
+        assertTrue(MediaType.APPLICATION_PROBLEM_JSON.isCompatibleWith(notFound.getHeaders().getContentType()));
+        assertEquals("{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,"
+                + "\"detail\":\"No products found with name: \\\"A\\\"\"}", notFound.getBody());
+        assertEquals("{\"type\":\"about:blank\",\"title\":\"Internal Server Error\",\"status\":500,"
+                + "\"detail\":\"An unexpected error occurred.\"}", error.getBody());
+        assertEquals(1, count("NotFoundException", "404"));
+    }
+}
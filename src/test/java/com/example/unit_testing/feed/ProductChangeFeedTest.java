@@ -0,0 +1,194 @@
+package com.example.unit_testing.feed;
+
+import com.example.unit_testing.dto.ProductChangeFeedEventDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductChangeFeedTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private ChangeStreamIterable<Document> changes;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private ProductChangeFeed productChangeFeed;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.getCollection("products")).thenReturn(collection);
+        when(collection.watch()).thenReturn(changes);
+        when(changes.fullDocument(any())).thenReturn(changes);
+        when(changes.maxAwaitTime(anyLong(), any())).thenReturn(changes);
+        when(changes.resumeAfter(any())).thenReturn(changes);
+        when(changes.cursor()).thenReturn(cursor);
+        // som maxAwaitTime: väntar en stund och hittar inget
+        when(cursor.tryNext()).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return null;
+        });
+        productChangeFeed = new ProductChangeFeed(mongoTemplate, 2, Duration.ofMinutes(1), Duration.ofSeconds(15));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeFeed.shutdown();
+    }
+
+    /**
+     * Test toEvent to ensure an update is mapped to an UPDATED event with the full product.
+     */
+    @Test
+    public void testToEvent_Update() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        Document fullDocument = new Document("_id", id).append("name", "Product A").append("price", 10.0);
+
+        // Act
+        ProductChangeFeedEventDTO event = productChangeFeed.toEvent(OperationType.UPDATE,
+                new BsonDocument("_id", new BsonObjectId(id)), fullDocument);
+
+        // Assert
+        assertEquals(ProductChangeEvent.Type.UPDATED, event.getType());
+        assertEquals(id.toHexString(), event.getProductId());
+        assertEquals("Product A", event.getProduct().getName());
+    }
+
+    /**
+     * Test toEvent to ensure a delete has no product and an invalidate ends the feed.
+     */
+    @Test
+    public void testToEvent_DeleteAndInvalidate() {
+        // Arrange
+        BsonDocument documentKey = new BsonDocument("_id", new BsonObjectId(new ObjectId()));
+
+        // Act
+        ProductChangeFeedEventDTO deleted = productChangeFeed.toEvent(OperationType.DELETE, documentKey, null);
+        ProductChangeFeedEventDTO invalidated = productChangeFeed.toEvent(OperationType.INVALIDATE, documentKey, null);
+
+        // Assert
+        assertEquals(ProductChangeEvent.Type.DELETED, deleted.getType());
+        assertNull(deleted.getProduct());
+        assertNull(invalidated, "An invalidate event should end the feed");
+    }
+
+    /**
+     * Negative Test: subscribe with a Last-Event-ID that is not a resume token should throw IllegalArgumentException.
+     */
+    @Test
+    public void testSubscribe_InvalidLastEventId() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productChangeFeed.subscribe("not a token");
+        });
+
+        assertEquals("Last-Event-ID is not a valid resume token.", exception.getMessage());
+        verify(mongoTemplate, never()).getCollection(anyString());
+    }
+
+    /**
+     * Test subscribe to ensure all subscribers share one change stream cursor.
+     */
+    @Test
+    public void testSubscribe_SharesOneChangeStream() {
+        // Act
+        productChangeFeed.subscribe(null);
+        productChangeFeed.subscribe(null);
+
+        // Assert
+        assertEquals(2, productChangeFeed.getSubscriberCount());
+
+        // Verify
+        verify(collection, after(300).times(1)).watch();
+    }
+
+    /**
+     * Negative Test: subscribe beyond the maximum number of subscribers should throw 503.
+     */
+    @Test
+    public void testSubscribe_TooManySubscribers() {
+        // Arrange
+        productChangeFeed.subscribe(null);
+        productChangeFeed.subscribe(null);
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            productChangeFeed.subscribe(null);
+        });
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(2, productChangeFeed.getSubscriberCount());
+    }
+
+    /**
+     * Test subscribe with a Last-Event-ID to ensure the subscriber catches up on its own cursor from the resume token.
+     */
+    @Test
+    public void testSubscribe_ResumesFromLastEventId() {
+        // Arrange
+        String lastEventId = new BsonDocument("_data", new BsonString("8265F1A2B3")).toJson();
+
+        // Act
+        productChangeFeed.subscribe(lastEventId);
+
+        // Verify
+        verify(changes, timeout(1000)).resumeAfter(BsonDocument.parse(lastEventId));
+        verify(collection, timeout(1000).times(2)).watch();
+    }
+
+    /**
+     * Test isAfter to ensure resume tokens are ordered by their data and unknown formats are never skipped.
+     */
+    @Test
+    public void testIsAfter() {
+        // Arrange
+        BsonDocument earlier = new BsonDocument("_data", new BsonString("8265F1A2B3"));
+        BsonDocument later = new BsonDocument("_data", new BsonString("8265F1A2B4"));
+        BsonDocument unknown = new BsonDocument("_data", new BsonInt32(1));
+
+        // Act & Assert
+        assertTrue(ProductChangeFeed.isAfter(later, earlier));
+        assertFalse(ProductChangeFeed.isAfter(earlier, later));
+        assertFalse(ProductChangeFeed.isAfter(earlier, earlier));
+        assertTrue(ProductChangeFeed.isAfter(unknown, later));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductColumnStoreTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductColumnStore productColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product("1").color("Red").price(10.0).stockQuantity(5).build(),
+                product("2").color("Blue").price(20.0).stockQuantity(0).build(),
+                product("3").color("Red").price(30.0).stockQuantity(2).build(),
+                product("4").price(40.0).stockQuantity(1).build()));
+        productColumnStore = new ProductColumnStore(productRepository, true);
+        productColumnStore.load();
+    }
+
+    /**
+     * Test findIds to ensure color, price and stock predicates are combined.
+     */
+    @Test
+    public void testFindIds_CombinedPredicates() {
+        // Act & Assert
+        assertTrue(productColumnStore.isReady());
+        assertEquals(List.of("1", "3"), productColumnStore.findIdsByColor("Red"));
+        assertEquals(List.of("2", "3"), productColumnStore.findIdsByPriceBetween(10.0, 40.0), "Bounds should be exclusive");
+        assertEquals(List.of("1", "2", "3"), productColumnStore.findIds(List.of("Red", "Blue"), null, 30.0, null));
+        assertEquals(List.of("3"), productColumnStore.findIds(List.of("Red", "Green"), 20.0, null, true));
+        assertEquals(List.of("2"), productColumnStore.findIds(null, null, null, false));
+    }
+
+    /**
+     * Test analyze to ensure count, stock and price statistics are aggregated over the matching rows.
+     */
+    @Test
+    public void testAnalyze() {
+        // Act
+        ProductAnalyticsDTO analytics = productColumnStore.analyze(List.of("Red"), null, null, null);
+        ProductAnalyticsDTO none = productColumnStore.analyze(List.of("Green"), null, null, null);
+
+        // Assert
+        assertEquals(2, analytics.getCount());
+        assertEquals(7, analytics.getTotalStock());
+        assertEquals(10.0 * 5 + 30.0 * 2, analytics.getStockValue());
+        assertEquals(10.0, analytics.getMinPrice());
+        assertEquals(30.0, analytics.getMaxPrice());
+        assertEquals(20.0, analytics.getAveragePrice());
+        assertEquals(0, none.getCount());
+        assertNull(none.getAveragePrice());
+    }
+
+    /**
+     * Test onProductChange to ensure updated rows move between color bitmaps and deleted rows are reused.
+     */
+    @Test
+    public void testOnProductChange_UpdatesColumns() {
+        // Act
+        productColumnStore.onProductChange(ProductChangeEvent.updated(product("1").color("Blue").price(15.0).stockQuantity(5).build()));
+        productColumnStore.onProductChange(ProductChangeEvent.deleted(product("2").color("Blue").price(20.0).stockQuantity(0).build()));
+        productColumnStore.onProductChange(ProductChangeEvent.created(product("5").color("Red").price(50.0).stockQuantity(1).build()));
+
+        // Assert
+        assertEquals(4, productColumnStore.size());
+        assertEquals(List.of("1"), productColumnStore.findIdsByColor("Blue"));
+        assertEquals(List.of("5", "3"), productColumnStore.findIdsByColor("Red"), "The deleted row should be reused");
+    }
+
+    /**
+     * Test load to ensure products updated or deleted by events during the load are not overwritten by older cursor rows.
+     */
+    @Test
+    public void testLoad_EventsDuringLoadWin() {
+        // Arrange
+        ProductColumnStore store = new ProductColumnStore(productRepository, true);
+        // eventen kommer medan cursorn står på första raden
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product("1").color("Red").price(10.0).stockQuantity(5).build(),
+                product("2").color("Blue").price(20.0).stockQuantity(0).build(),
+                product("3").color("Red").price(30.0).stockQuantity(2).build()).peek(product -> {
+            if (product.getId().equals("1")) {
+                store.onProductChange(ProductChangeEvent.updated(product("3").color("Green").price(35.0).stockQuantity(2).build()));
+                store.onProductChange(ProductChangeEvent.deleted(product("2").color("Blue").price(20.0).stockQuantity(0).build()));
+            }
+        }));
+
+        // Act
+        store.load();
+
+        // Assert
+        assertEquals(2, store.size());
+        assertEquals(List.of("3"), store.findIdsByColor("Green"));
+        assertEquals(List.of("1"), store.findIdsByColor("Red"));
+        assertEquals(List.of(), store.findIdsByColor("Blue"));
+    }
+
+    /**
+     * Test getFacets to ensure colors are counted by bitmap and prices bucketed like $bucket.
+     */
+    @Test
+    public void testGetFacets() {
+        // Act
+        ProductFacetsDTO facets = productColumnStore.getFacets(List.of(0.0, 20.0, 40.0));
+
+        // Assert
+        assertEquals(4, facets.getTotal());
+        assertEquals(3, facets.getInStock());
+        assertEquals(List.of("Red", "Blue"), List.copyOf(facets.getColors().keySet()));
+        assertEquals(Map.of("Red", 2L, "Blue", 1L), facets.getColors());
+        assertEquals(3, facets.getPrices().size(), "Two buckets plus the bucket for other prices");
+        assertEquals(1, facets.getPrices().get(0).getCount());
+        assertEquals(2, facets.getPrices().get(1).getCount(), "The upper boundary should be exclusive");
+        assertEquals(1, facets.getPrices().get(2).getCount());
+    }
+
+    /**
+     * Negative Test: a disabled store should not load or answer.
+     */
+    @Test
+    public void testLoad_Disabled() {
+        // Arrange
+        productColumnStore = new ProductColumnStore(productRepository, false);
+
+        // Act
+        productColumnStore.load();
+
+        // Assert
+        assertFalse(productColumnStore.isReady());
+        // bara laddningen i setUp
+        verify(productRepository, times(1)).streamAllByOrderByIdAsc();
+    }
+}
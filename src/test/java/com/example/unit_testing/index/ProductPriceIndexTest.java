@@ -0,0 +1,91 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductPriceIndexTest {
+    // mocka
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductPriceIndex productPriceIndex;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productPriceIndex = new ProductPriceIndex(productRepository, true);
+    }
+
+    private List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Test findByPriceBetween to ensure results are sorted by price and bounds are exclusive like the repository finder.
+     */
+    @Test
+    public void testFindByPriceBetween_SortedAndExclusive() {
+        // Arrange
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product("1").price(30.0).build(), product("2").price(10.0).build(), product("3").price(20.0).build(),
+                product("4").price(20.0).build(), product("5").price(40.0).build()));
+
+        // Act
+        productPriceIndex.load();
+        List<Product> result = productPriceIndex.findByPriceBetween(10.0, 40.0);
+
+        // Assert
+        assertTrue(productPriceIndex.isReady(), "The index should be ready after loading");
+        assertEquals(List.of("3", "4", "1"), ids(result), "Products should be sorted by price, then id");
+    }
+
+    /**
+     * Test onProductChange to ensure created, updated and deleted products are reflected in the index.
+     */
+    @Test
+    public void testOnProductChange_KeepsIndexUpToDate() {
+        // Arrange
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(product("1").price(15.0).build()));
+        productPriceIndex.load();
+
+        // Act
+        productPriceIndex.onProductChange(ProductChangeEvent.created(product("2").price(12.0).build()));
+        productPriceIndex.onProductChange(ProductChangeEvent.updated(product("1").price(50.0).build()));
+        productPriceIndex.onProductChange(ProductChangeEvent.deleted(product("2").price(12.0).build()));
+
+        // Assert
+        assertTrue(productPriceIndex.findByPriceBetween(10.0, 20.0).isEmpty(), "No products should be left in 10-20");
+        assertEquals(List.of("1"), ids(productPriceIndex.findByPriceBetween(40.0, 60.0)));
+        assertEquals(1, productPriceIndex.size());
+    }
+
+    /**
+     * Test load to ensure a disabled index never reads from the repository.
+     */
+    @Test
+    public void testLoad_Disabled() {
+        // Arrange
+        ProductPriceIndex disabled = new ProductPriceIndex(productRepository, false);
+
+        // Act
+        disabled.load();
+
+        // Assert
+        assertFalse(disabled.isReady(), "A disabled index should never be ready");
+        verify(productRepository, never()).streamAllByOrderByIdAsc();
+    }
+}
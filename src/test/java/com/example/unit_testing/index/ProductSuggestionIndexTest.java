@@ -0,0 +1,101 @@
+package com.example.unit_testing.index;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSuggestionIndexTest {
+    // mocka
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productSuggestionIndex = new ProductSuggestionIndex(productRepository, true);
+    }
+
+    /**
+     * Test suggest to ensure names are matched on any word and ranked with full-name prefixes first.
+     */
+    @Test
+    public void testSuggest_RankedByPrefixThenLength() {
+        // Arrange
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product("1").name("Red Shirt").build(),
+                product("2").name("Shirt").build(),
+                product("3").name("Shirt Long Sleeve").build(),
+                product("4").name("Shirt").build(),
+                product("5").name("Blue Jeans").build()));
+        productSuggestionIndex.load();
+
+        // Act
+        List<String> result = productSuggestionIndex.suggest("SHI", 10);
+
+        // Assert
+        assertTrue(productSuggestionIndex.isReady());
+        assertEquals(List.of("Shirt", "Shirt Long Sleeve", "Red Shirt"), result);
+        assertEquals(List.of("Shirt"), productSuggestionIndex.suggest("shi", 1));
+        assertEquals(List.of(), productSuggestionIndex.suggest("x", 10));
+    }
+
+    /**
+     * Test suggest to ensure the best names are found among many matches, not only among the first ones collected.
+     */
+    @Test
+    public void testSuggest_RanksAllMatches() {
+        // Arrange
+        // termerna ligger i ordning, så "paaa..." kommer före det korta namnet "pz"
+        Stream<Product> longNames = IntStream.range(0, 1000)
+                .mapToObj(i -> product(String.valueOf(i)).name(String.format("pa%04d Product", i)).build());
+        when(productRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.concat(longNames, Stream.of(product("x").name("pz").build(), product("y").name("Red pb").build())));
+        productSuggestionIndex.load();
+
+        // Act
+        List<String> result = productSuggestionIndex.suggest("p", 3);
+
+        // Assert
+        assertEquals(List.of("pz", "pa0000 Product", "pa0001 Product"), result);
+        assertEquals(List.of("pz"), productSuggestionIndex.suggest("p", 1));
+        assertEquals(List.of(), productSuggestionIndex.suggest("p", 0));
+    }
+
+    /**
+     * Test onProductChange to ensure renamed and deleted products stop being suggested.
+     */
+    @Test
+    public void testOnProductChange_UpdatesTerms() {
+        // Arrange
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product("1").name("Red Shirt").build(),
+                product("2").name("Red Shirt").build()));
+        productSuggestionIndex.load();
+
+        // Act
+        productSuggestionIndex.onProductChange(ProductChangeEvent.updated(product("1").name("Green Hat").build()));
+        List<String> afterRename = productSuggestionIndex.suggest("red", 10);
+        productSuggestionIndex.onProductChange(ProductChangeEvent.deleted(product("2").name("Red Shirt").build()));
+
+        // Assert
+        assertEquals(List.of("Red Shirt"), afterRename, "The other product still has the name");
+        assertEquals(List.of(), productSuggestionIndex.suggest("red", 10));
+        assertEquals(List.of("Green Hat"), productSuggestionIndex.suggest("hat", 10));
+        assertEquals(1, productSuggestionIndex.size());
+    }
+}
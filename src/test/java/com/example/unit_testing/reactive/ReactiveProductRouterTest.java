@@ -0,0 +1,81 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.NoSuchElementException;
+
+import static org.mockito.Mockito.*;
+
+public class ReactiveProductRouterTest {
+    // mocka
+    @Mock
+    private ReactiveProductService productService;
+
+    private WebTestClient client;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReactiveProductHandler handler = new ReactiveProductHandler(productService);
+        client = WebTestClient.bindToRouterFunction(new ReactiveProductRouter().productRoutes(handler)).build();
+    }
+
+    /**
+     * Test GET /api/products/color/{color} to ensure matching products are returned.
+     */
+    @Test
+    public void testGetProductsByColor() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        product1.setColor("Red");
+        when(productService.getProductsByColor("Red")).thenReturn(Flux.just(product1));
+
+        // Act & Assert
+        client.get().uri("/api/products/color/Red")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("1");
+    }
+
+    /**
+     * Negative Test: GET /api/products/name/{name} without matches should return 404 with the message as problem details.
+     */
+    @Test
+    public void testGetProductsByName_NotFound() {
+        // Arrange
+        when(productService.getProductsByName("Unknown"))
+                .thenReturn(Flux.error(new NoSuchElementException("No products found with name: Unknown")));
+
+        // Act & Assert
+        client.get().uri("/api/products/name/Unknown")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.detail").isEqualTo("No products found with name: Unknown");
+    }
+
+    /**
+     * Negative Test: GET /api/products/price with a non-numeric bound should return 400.
+     */
+    @Test
+    public void testGetProductsByPriceRange_InvalidParameter() {
+        // Act & Assert
+        client.get().uri("/api/products/price?minPrice=abc&maxPrice=10")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(productService, never()).getProductsByPriceRange(anyDouble(), anyDouble());
+    }
+}
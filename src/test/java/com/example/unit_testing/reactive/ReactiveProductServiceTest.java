@@ -0,0 +1,185 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.ProductSyncService;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+import com.example.unit_testing.sync.ProductSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class ReactiveProductServiceTest {
+    // mocka
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ProductSequence productSequence = new InMemoryProductSequence();
+
+    @Mock
+    private ProductSyncService productSyncService;
+
+    // injecera mocksen
+    @InjectMocks
+    private ReactiveProductService productService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Test createProduct to ensure a valid product is saved and emitted.
+     */
+    @Test
+    public void testCreateProduct_Success() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product C");
+        productDTO.setPrice(30.99);
+        productDTO.setStockQuantity(300);
+
+        Product savedProduct = new Product();
+        savedProduct.setId("3");
+        savedProduct.setName("Product C");
+
+        when(productRepository.save(any(Product.class))).thenReturn(Mono.just(savedProduct));
+
+        // Act & Assert
+        StepVerifier.create(productService.createProduct(productDTO))
+                .expectNext(savedProduct)
+                .verifyComplete();
+
+        verify(productRepository, times(1)).save(any(Product.class));
+    }
+
+    /**
+     * Negative Test: createProduct with negative price should signal IllegalArgumentException.
+     */
+    @Test
+    public void testCreateProduct_NegativePrice() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Test Product");
+        productDTO.setPrice(-20.0);
+
+        // Act & Assert
+        StepVerifier.create(productService.createProduct(productDTO))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().equals("Product price cannot be negative."))
+                .verify();
+
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    /**
+     * Negative Test: getProductsByColor with no matches should signal NoSuchElementException.
+     */
+    @Test
+    public void testGetProductsByColor_NoMatches() {
+        // Arrange
+        String color = "InvisibleColor";
+        when(productRepository.findByColor(color)).thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(productService.getProductsByColor(color))
+                .expectErrorMatches(error -> error instanceof NoSuchElementException
+                        && error.getMessage().equals("No products found with color: " + color))
+                .verify();
+    }
+
+    /**
+     * Negative Test: getProductsByName with null name should signal IllegalArgumentException without querying.
+     */
+    @Test
+    public void testGetProductsByName_NullName() {
+        // Act & Assert
+        StepVerifier.create(productService.getProductsByName(null))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().equals("Product name cannot be null or empty."))
+                .verify();
+
+        verify(productRepository, never()).findByName(any());
+    }
+
+    /**
+     * Test getProductsByPriceRange to ensure products in range are emitted.
+     */
+    @Test
+    public void testGetProductsByPriceRange() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        product1.setPrice(15.99);
+        when(productRepository.findByPriceBetween(10.0, 30.0)).thenReturn(Flux.just(product1));
+
+        // Act & Assert
+        StepVerifier.create(productService.getProductsByPriceRange(10.0, 30.0))
+                .expectNext(product1)
+                .verifyComplete();
+    }
+
+    /**
+     * Negative Test: deleteProduct with non-existent ID should signal NoSuchElementException.
+     */
+    @Test
+    public void testDeleteProduct_NonExistentId() {
+        // Arrange
+        String nonExistentId = "nonexistent123";
+        when(productRepository.findById(nonExistentId)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(productService.deleteProduct(nonExistentId))
+                .expectErrorMatches(error -> error instanceof NoSuchElementException
+                        && error.getMessage().equals("Product not found with id: " + nonExistentId))
+                .verify();
+
+        verify(productRepository, never()).deleteById(anyString());
+    }
+
+    /**
+     * Negative Test: deleteProduct with a failing delete should remove the tombstone again and release its sequence.
+     */
+    @Test
+    public void testDeleteProduct_DeleteFailsRemovesTombstone() {
+        // Arrange
+        Product product = new Product();
+        product.setId("1");
+        AtomicBoolean released = new AtomicBoolean();
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+        when(productRepository.findById("1")).thenReturn(Mono.just(product));
+        when(productSyncService.writeTombstones(List.of("1")))
+                .thenReturn(new ProductSequence.Reservation(5, 1, () -> released.set(true)));
+        when(productRepository.deleteById("1")).thenReturn(Mono.error(failure));
+
+        // Act & Assert
+        StepVerifier.create(productService.deleteProduct("1"))
+                .expectErrorMatches(error -> error == failure)
+                .verify();
+        assertTrue(released.get());
+
+        // Verify
+        verify(productSyncService, times(1)).removeTombstones(List.of("1"), failure);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.unit_testing.reactive;
+
+import com.example.unit_testing.exceptions.NotFoundException;
+import com.example.unit_testing.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+public class ReactiveUserServiceTest {
+    // mocka
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    // injecera mocksen
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Test getUserById to ensure an existing user is emitted.
+     */
+    @Test
+    public void testGetUserById_Success() {
+        // Arrange
+        User user = new User();
+        user.setId("1");
+        when(userRepository.findById("1")).thenReturn(Mono.just(user));
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserById("1"))
+                .expectNext(user)
+                .verifyComplete();
+    }
+
+    /**
+     * Negative Test: getUserById with an unknown ID should signal NotFoundException, which the handler answers with 404.
+     */
+    @Test
+    public void testGetUserById_NotFound() {
+        // Arrange
+        when(userRepository.findById("unknown")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserById("unknown"))
+                .expectErrorMatches(error -> error instanceof NotFoundException
+                        && error.getMessage().equals("User not found with id: unknown"))
+                .verify();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.repository.memory.InMemoryProductRepository;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+
+public class InMemoryProductRepositoryTest extends ProductRepositoryContractTest {
+
+    private final InMemoryProductRepository productRepository = new InMemoryProductRepository(new InMemoryProductSequence());
+
+    @Override
+    protected ProductRepository repository() {
+        return productRepository;
+    }
+}
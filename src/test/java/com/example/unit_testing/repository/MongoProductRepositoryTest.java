@@ -0,0 +1,29 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.sync.MongoProductSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// MongoDB i en container, testerna hoppas över där Docker saknas
+@DataMongoTest
+@Import(MongoProductSequence.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class MongoProductRepositoryTest extends ProductRepositoryContractTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Override
+    protected ProductRepository repository() {
+        return productRepository;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.models.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFieldDictionaryTest {
+
+    // nya String-instanser, som när två dokument läses från MongoDB
+    private Product read(String name, String color) {
+        Product product = product().name(new String(name)).description(new String("Description")).build();
+        product.setColor(color == null ? null : new String(color));
+        return product;
+    }
+
+    /**
+     * Test onAfterConvert to ensure equal values of the configured fields share one instance.
+     */
+    @Test
+    public void testOnAfterConvert_SharesConfiguredFields() {
+        // Arrange
+        ProductFieldDictionary dictionary = new ProductFieldDictionary(List.of("color"), 100);
+        Product first = read("Chair", "Red");
+        Product second = read("Chair", "Red");
+
+        // Act
+        dictionary.onAfterConvert(first, new Document(), "products");
+        dictionary.onAfterConvert(second, new Document(), "products");
+
+        // Assert
+        assertSame(first.getColor(), second.getColor());
+        assertNotSame(first.getName(), second.getName(), "Fields that are not configured should be left alone");
+        assertEquals(Map.of("color", 1), dictionary.getSizes());
+    }
+
+    /**
+     * Test canonicalize to ensure a full dictionary returns new values unchanged and null stays null.
+     */
+    @Test
+    public void testCanonicalize_StopsGrowingAtMaxEntries() {
+        // Arrange
+        ProductFieldDictionary dictionary = new ProductFieldDictionary(List.of("name", "color"), 1);
+        dictionary.canonicalize(read("Chair", "Red"));
+        Product table = read("Table", null);
+
+        // Act
+        String name = table.getName();
+        dictionary.canonicalize(table);
+
+        // Assert
+        assertSame(name, table.getName());
+        assertNull(table.getColor());
+        assertEquals(Map.of("name", 1, "color", 1), dictionary.getSizes());
+    }
+
+    /**
+     * Negative Test: an unknown field should throw IllegalArgumentException.
+     */
+    @Test
+    public void testConstructor_UnknownField() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            new ProductFieldDictionary(List.of("price"), 100);
+        });
+
+        assertEquals("Unknown dictionary field 'price', supported fields are [name, color, description].",
+                exception.getMessage());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.dto.ProductFilterDTO;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFilterOperationsImplTest {
+
+    /**
+     * Test toQuery to ensure only the criteria that are set end up in the query.
+     */
+    @Test
+    public void testToQuery_OnlySetCriteria() {
+        // Arrange
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setColor("Red");
+        filter.setMinPrice(10.0);
+        filter.setInStock(true);
+
+        // Act
+        Document query = ProductFilterOperationsImpl.toQuery(filter).getQueryObject();
+
+        // Assert
+        assertEquals(Document.parse("""
+                {"color": "Red", "price": {"$gte": 10.0}, "stockQuantity": {"$gt": 0}}
+                """), query);
+    }
+
+    /**
+     * Test toQuery to ensure an empty filter matches every product.
+     */
+    @Test
+    public void testToQuery_EmptyFilter() {
+        // Act
+        Document query = ProductFilterOperationsImpl.toQuery(new ProductFilterDTO()).getQueryObject();
+
+        // Assert
+        assertTrue(query.isEmpty());
+    }
+}
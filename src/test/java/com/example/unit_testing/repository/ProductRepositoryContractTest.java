@@ -0,0 +1,479 @@
+package com.example.unit_testing.repository;
+
+import com.example.unit_testing.ProductFixture;
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every ProductRepository backend must share. Subclasses only supply the repository,
+ * so the MongoDB and in-memory implementations are checked against the same expectations.
+ */
+public abstract class ProductRepositoryContractTest {
+
+    protected abstract ProductRepository repository();
+
+    @BeforeEach
+    void clearRepository() {
+        repository().deleteAll();
+    }
+
+    private Product save(ProductFixture product) {
+        return repository().save(product.build());
+    }
+
+    private List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+
+    /**
+     * Test save to ensure an id is assigned and the stored product is a copy of the saved one.
+     */
+    @Test
+    public void testSave_AssignsIdAndStoresCopy() {
+        // Arrange
+        Product saved = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act
+        saved.setName("Changed after save");
+        Optional<Product> found = repository().findById(saved.getId());
+
+        // Assert
+        assertNotNull(saved.getId(), "Saved product should have an ID");
+        assertTrue(found.isPresent());
+        assertEquals("Product A", found.get().getName(), "Changing the saved object should not change the stored one");
+        assertEquals(1, repository().count());
+    }
+
+    /**
+     * Test save to ensure updating a product moves it between the name and color lookups.
+     */
+    @Test
+    public void testSave_UpdateReplacesIndexedValues() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act
+        product.setColor("Blue");
+        product.setName("Product B");
+        repository().save(product);
+
+        // Assert
+        assertTrue(repository().findByColor("Red").isEmpty());
+        assertTrue(repository().findByName("Product A").isEmpty());
+        assertEquals(List.of("Product B"), names(repository().findByColor("Blue")));
+        assertEquals(1, repository().count());
+    }
+
+    /**
+     * Test findByName and findByColor to ensure only exact matches are returned.
+     */
+    @Test
+    public void testFindByNameAndColor() {
+        // Arrange
+        save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        save(product().name("Product A").color("Blue").price(20.0).stockQuantity(5));
+        save(product().name("Product AB").color("Red").price(30.0).stockQuantity(5));
+
+        // Act
+        List<Product> byName = repository().findByName("Product A");
+        List<Product> byColor = repository().findByColor("Red");
+
+        // Assert
+        assertEquals(2, byName.size());
+        assertEquals(2, byColor.size());
+        assertTrue(repository().findByColor("red").isEmpty(), "Matching should be case sensitive");
+    }
+
+    /**
+     * Test findByPriceBetween to ensure both bounds are exclusive.
+     */
+    @Test
+    public void testFindByPriceBetween_ExclusiveBounds() {
+        // Arrange
+        save(product().name("Low").color("Red").price(10.0).stockQuantity(5));
+        save(product().name("Middle").color("Red").price(15.0).stockQuantity(5));
+        save(product().name("High").color("Red").price(20.0).stockQuantity(5));
+
+        // Act
+        List<Product> products = repository().findByPriceBetween(10.0, 20.0);
+
+        // Assert
+        assertEquals(List.of("Middle"), names(products));
+    }
+
+    /**
+     * Test the projection finders to ensure a summary holds the product fields.
+     */
+    @Test
+    public void testFindByColor_Projection() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act
+        List<ProductSummaryDTO> summaries = repository().findByColor("Red", ProductSummaryDTO.class);
+
+        // Assert
+        assertEquals(1, summaries.size());
+        assertEquals(product.getId(), summaries.get(0).getId());
+        assertEquals("Product A", summaries.get(0).getName());
+        assertEquals(10.0, summaries.get(0).getPrice());
+        assertEquals(5, summaries.get(0).getStockQuantity());
+    }
+
+    /**
+     * Test findAllBy and findByIdGreaterThan to ensure keyset pages follow the id order without overlap.
+     */
+    @Test
+    public void testKeysetPagination() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            save(product().name("Product " + i).color("Red").price(i).stockQuantity(1));
+        }
+        PageRequest page = PageRequest.of(0, 2, Sort.by("id"));
+
+        // Act
+        List<Product> first = repository().findAllBy(page);
+        List<Product> second = repository().findByIdGreaterThan(first.get(1).getId(), page);
+        List<Product> third = repository().findByIdGreaterThan(second.get(1).getId(), page);
+
+        // Assert
+        assertEquals(List.of("Product 0", "Product 1"), names(first));
+        assertEquals(List.of("Product 2", "Product 3"), names(second));
+        assertEquals(List.of("Product 4"), names(third));
+    }
+
+    /**
+     * Test findAll with a page request to ensure the sort, the page content and the total are applied.
+     */
+    @Test
+    public void testFindAll_SortedPage() {
+        // Arrange
+        save(product().name("B").color("Red").price(20.0).stockQuantity(1));
+        save(product().name("A").color("Red").price(30.0).stockQuantity(1));
+        save(product().name("C").color("Red").price(10.0).stockQuantity(1));
+
+        // Act
+        Page<Product> page = repository().findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+
+        // Assert
+        assertEquals(List.of("A", "B"), names(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    /**
+     * Test streamAllByOrderByIdAsc to ensure every product is streamed in id order.
+     */
+    @Test
+    public void testStreamAllByOrderByIdAsc() {
+        // Arrange
+        Product first = save(product().name("First").color("Red").price(1.0).stockQuantity(1));
+        Product second = save(product().name("Second").color("Red").price(2.0).stockQuantity(1));
+
+        // Act
+        List<String> ids;
+        try (Stream<Product> products = repository().streamAllByOrderByIdAsc()) {
+            ids = products.map(Product::getId).toList();
+        }
+
+        // Assert
+        assertEquals(List.of(first.getId(), second.getId()), ids);
+    }
+
+    /**
+     * Test streamByIdGreaterThanOrderByIdAsc to ensure the stream resumes after an id and spans several cursor batches.
+     */
+    @Test
+    public void testStreamByIdGreaterThanOrderByIdAsc() {
+        // Arrange
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ProductRepository.STREAM_BATCH_SIZE * 2 + 1; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            products.add(product);
+        }
+        List<String> saved = repository().saveAll(products).stream().map(Product::getId).sorted().toList();
+
+        // Act
+        List<String> ids;
+        try (Stream<Product> stream = repository().streamByIdGreaterThanOrderByIdAsc(saved.get(0))) {
+            ids = stream.map(Product::getId).toList();
+        }
+
+        // Assert
+        assertEquals(saved.subList(1, saved.size()), ids);
+    }
+
+    /**
+     * Test adjustStock to ensure the stock changes and a new modification sequence is assigned.
+     */
+    @Test
+    public void testAdjustStock_Success() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act
+        Optional<Product> updated = repository().adjustStock(product.getId(), -3);
+
+        // Assert
+        assertTrue(updated.isPresent());
+        assertEquals(2, updated.get().getStockQuantity());
+        assertTrue(updated.get().getModSequence() > product.getModSequence());
+        assertEquals(2, repository().findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    /**
+     * Negative Test: adjustStock below zero or for an unknown id should return empty and change nothing.
+     */
+    @Test
+    public void testAdjustStock_Rejected() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act & Assert
+        assertTrue(repository().adjustStock(product.getId(), -6).isEmpty());
+        assertTrue(repository().adjustStock("000000000000000000000000", 1).isEmpty());
+        assertEquals(5, repository().findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    /**
+     * Test findByFilter to ensure all criteria are combined with inclusive price bounds, then sorted and limited.
+     */
+    @Test
+    public void testFindByFilter() {
+        // Arrange
+        save(product().name("Red cheap").color("Red").price(10.0).stockQuantity(5));
+        save(product().name("Red middle").color("Red").price(20.0).stockQuantity(5));
+        save(product().name("Red expensive").color("Red").price(30.0).stockQuantity(5));
+        save(product().name("Red sold out").color("Red").price(25.0).stockQuantity(0));
+        save(product().name("Blue").color("Blue").price(20.0).stockQuantity(5));
+
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setColor("Red");
+        filter.setMinPrice(10.0);
+        filter.setMaxPrice(30.0);
+        filter.setInStock(true);
+
+        // Act
+        List<Product> products = repository().findByFilter(filter,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")), 2);
+
+        // Assert
+        assertEquals(List.of("Red expensive", "Red middle"), names(products));
+    }
+
+    /**
+     * Test findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc to ensure only the changes in the range are returned in order.
+     */
+    @Test
+    public void testFindByModSequenceRange() {
+        // Arrange: sekvensen sätts av tjänsterna, inte av save
+        Product third = save(product().name("Third").color("Red").price(1.0).stockQuantity(5));
+        third.setModSequence(3);
+        repository().save(third);
+        Product first = save(product().name("First").color("Red").price(2.0).stockQuantity(5));
+        first.setModSequence(1);
+        repository().save(first);
+        Product second = save(product().name("Second").color("Red").price(3.0).stockQuantity(5));
+        second.setModSequence(2);
+        repository().save(second);
+        Product fourth = save(product().name("Fourth").color("Red").price(4.0).stockQuantity(5));
+        fourth.setModSequence(4);
+        repository().save(fourth);
+
+        // Act
+        List<Product> changed = repository().findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(1, 3, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Second", "Third"), names(changed));
+    }
+
+    // primitiva fält har alltid ett värde i proben och ignoreras därför i exemplen
+    private Example<Product> example(Product probe, ExampleMatcher matcher) {
+        return Example.of(probe, matcher.withIgnorePaths("price", "stockQuantity", "modSequence"));
+    }
+
+    /**
+     * Test findAll by example to ensure only products matching every set property of the probe are returned.
+     */
+    @Test
+    public void testFindAllByExample_MatchesProbe() {
+        // Arrange
+        save(product().name("Product B").color("Red").price(20.0).stockQuantity(5));
+        save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        save(product().name("Product C").color("Blue").price(10.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setColor("red");
+
+        // Act
+        List<Product> products = repository().findAll(
+                example(probe, ExampleMatcher.matching().withIgnoreCase("color")), Sort.by("name"));
+
+        // Assert
+        assertEquals(List.of("Product A", "Product B"), names(products));
+    }
+
+    /**
+     * Test the paged and counting example queries with a string matcher.
+     */
+    @Test
+    public void testFindAllByExample_StringMatcherAndPaging() {
+        // Arrange
+        save(product().name("Product B").color("Red").price(20.0).stockQuantity(5));
+        save(product().name("Product A").color("Blue").price(10.0).stockQuantity(5));
+        save(product().name("Other").color("Red").price(10.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setName("prod");
+        Example<Product> example = example(probe, ExampleMatcher.matching()
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING).withIgnoreCase());
+
+        // Act
+        Page<Product> page = repository().findAll(example, PageRequest.of(0, 1, Sort.by("name")));
+
+        // Assert
+        assertEquals(List.of("Product A"), names(page.getContent()));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(2, repository().count(example));
+        assertTrue(repository().exists(example));
+    }
+
+    /**
+     * Test findBy to ensure the fluent query sorts, limits and returns the first match.
+     */
+    @Test
+    public void testFindBy_FluentQuery() {
+        // Arrange
+        save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        save(product().name("Product B").color("Red").price(30.0).stockQuantity(5));
+        save(product().name("Product C").color("Red").price(20.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setColor("Red");
+        Example<Product> example = example(probe, ExampleMatcher.matching());
+
+        // Act
+        Product mostExpensive = repository().findBy(example,
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).firstValue());
+        List<Product> cheapest = repository().findBy(example,
+                query -> query.sortBy(Sort.by("price")).limit(2).all());
+
+        // Assert
+        assertEquals("Product B", mostExpensive.getName());
+        assertEquals(List.of("Product A", "Product C"), names(cheapest));
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> repository().findBy(example,
+                FluentQuery.FetchableFluentQuery::oneValue));
+    }
+
+    /**
+     * Test findBy with as to ensure the matches are mapped to a DTO with the properties it shares with the product.
+     */
+    @Test
+    public void testFindBy_AsDto() {
+        // Arrange
+        Product saved = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setColor("Red");
+        Example<Product> example = example(probe, ExampleMatcher.matching());
+
+        // Act
+        List<ProductSummaryDTO> summaries = repository().findBy(example,
+                query -> query.as(ProductSummaryDTO.class).all());
+
+        // Assert
+        assertEquals(1, summaries.size());
+        assertEquals(saved.getId(), summaries.get(0).getId());
+        assertEquals("Product A", summaries.get(0).getName());
+        assertEquals(10.0, summaries.get(0).getPrice());
+        assertEquals(5, summaries.get(0).getStockQuantity());
+    }
+
+    /**
+     * Test findBy with project to ensure only the given properties and the id are read.
+     */
+    @Test
+    public void testFindBy_Project() {
+        // Arrange
+        Product saved = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setColor("Red");
+        Example<Product> example = example(probe, ExampleMatcher.matching());
+
+        // Act
+        Product projected = repository().findBy(example,
+                query -> query.project("name").firstValue());
+
+        // Assert
+        assertEquals(saved.getId(), projected.getId());
+        assertEquals("Product A", projected.getName());
+        assertNull(projected.getColor());
+        assertEquals(0.0, projected.getPrice());
+        assertEquals(0, projected.getStockQuantity());
+    }
+
+    /**
+     * Negative Test: an example without a match should give no product, a zero count and exists false.
+     */
+    @Test
+    public void testFindOneByExample_NoMatch() {
+        // Arrange
+        save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+        Product probe = new Product();
+        probe.setColor("Green");
+        Example<Product> example = example(probe, ExampleMatcher.matching());
+
+        // Act
+        Optional<Product> found = repository().findOne(example);
+
+        // Assert
+        assertTrue(found.isEmpty());
+        assertEquals(0, repository().count(example));
+        assertFalse(repository().exists(example));
+    }
+
+    /**
+     * Test deleteById to ensure the product disappears from every lookup.
+     */
+    @Test
+    public void testDeleteById() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act
+        repository().deleteById(product.getId());
+
+        // Assert
+        assertFalse(repository().existsById(product.getId()));
+        assertTrue(repository().findByName("Product A").isEmpty());
+        assertTrue(repository().findByPriceBetween(0.0, 100.0).isEmpty());
+        assertEquals(0, repository().count());
+    }
+
+    /**
+     * Negative Test: insert with an id that already exists should throw DuplicateKeyException.
+     */
+    @Test
+    public void testInsert_DuplicateId() {
+        // Arrange
+        Product product = save(product().name("Product A").color("Red").price(10.0).stockQuantity(5));
+
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class, () -> repository().insert(product));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ProductAnalyticsDTO;
+import com.example.unit_testing.index.ProductColumnStore;
+import com.example.unit_testing.models.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductAnalyticsServiceTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductColumnStore productColumnStore;
+
+    // injecera mocksen
+    @InjectMocks
+    private ProductAnalyticsService productAnalyticsService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+    }
+
+    /**
+     * Test analyze to ensure the $group result is mapped when the column store is not loaded.
+     */
+    @Test
+    public void testAnalyze_FromAggregation() {
+        // Arrange
+        Document result = Document.parse("""
+                {"_id": null, "count": 2, "totalStock": 7, "stockValue": 110.0,
+                 "minPrice": 10.0, "maxPrice": 30.0, "averagePrice": 20.0}
+                """);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("products"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+
+        // Act
+        ProductAnalyticsDTO analytics = productAnalyticsService.analyze(List.of("Red"), null, null, true);
+
+        // Assert
+        assertEquals(2, analytics.getCount());
+        assertEquals(7, analytics.getTotalStock());
+        assertEquals(110.0, analytics.getStockValue());
+        assertEquals(20.0, analytics.getAveragePrice());
+    }
+
+    /**
+     * Test analyze to ensure a loaded column store answers instead of MongoDB.
+     */
+    @Test
+    public void testAnalyze_FromColumnStore() {
+        // Arrange
+        ProductAnalyticsDTO fromColumns = new ProductAnalyticsDTO(1, 1, 1.0, 1.0, 1.0, 1.0);
+        when(productColumnStore.isReady()).thenReturn(true);
+        when(productColumnStore.analyze(null, 1.0, 2.0, null)).thenReturn(fromColumns);
+
+        // Act
+        ProductAnalyticsDTO analytics = productAnalyticsService.analyze(null, 1.0, 2.0, null);
+
+        // Assert
+        assertSame(fromColumns, analytics);
+
+        // Verify
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+    }
+
+    /**
+     * Test analyticsAggregation to ensure all criteria end up in one $match before the $group.
+     */
+    @Test
+    public void testAnalyticsAggregation_MatchThenGroup() {
+        // Act
+        List<Document> pipeline = ProductAnalyticsService.analyticsAggregation(List.of("Red", "Blue"), 10.0, null, false)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals(2, pipeline.size());
+        List<Document> and = pipeline.get(0).get("$match", Document.class).getList("$and", Document.class);
+        assertEquals(List.of("Red", "Blue"), and.get(0).get("color", Document.class).get("$in"));
+        assertEquals(10.0, and.get(1).get("price", Document.class).get("$gte"));
+        assertEquals(0, and.get(2).get("stockQuantity", Document.class).get("$lte"));
+        assertTrue(pipeline.get(1).containsKey("$group"));
+    }
+
+    /**
+     * Negative Test: analyze with a reversed price range should throw IllegalArgumentException.
+     */
+    @Test
+    public void testAnalyze_InvalidPriceRange() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productAnalyticsService.analyze(null, 50.0, 10.0, null);
+        });
+
+        assertEquals("minPrice cannot be greater than maxPrice.", exception.getMessage());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.ProductFixture;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductExportServiceTest {
+    // mocka
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductExportService productExportService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productExportService = new ProductExportService(productRepository, new ObjectMapper());
+    }
+
+    // samma färg, pris, lager och sekvens på varje exporterad rad
+    private ProductFixture exported(String id) {
+        return product(id).color("Red").price(9.5).stockQuantity(3).modSequence(7);
+    }
+
+    /**
+     * Test export to ensure CSV fields with commas, quotes and line breaks are quoted and the cursor is closed.
+     */
+    @Test
+    public void testExport_Csv() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                exported("1").name("Plain").description("Simple").build(),
+                exported("2").name("Chair, \"Deluxe\"").description("Two\nlines").build()).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = productExportService.export(ProductExportService.Format.CSV, null, false, out);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(ProductExportService.CSV_HEADER + "\r\n"
+                        + "1,Plain,Simple,Red,9.5,3,7\r\n"
+                        + "2,\"Chair, \"\"Deluxe\"\"\",\"Two\nlines\",Red,9.5,3,7\r\n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get(), "The cursor should be closed after the export");
+    }
+
+    /**
+     * Test export to ensure NDJSON is gzipped and resumes after the given id.
+     */
+    @Test
+    public void testExport_NdjsonGzipResume() throws Exception {
+        // Arrange
+        String after = "65f1a2b3c4d5e6f7a8b9c0d1";
+        when(productRepository.streamByIdGreaterThanOrderByIdAsc(after)).thenReturn(Stream.of(
+                exported("2").name("Chair").description("Wood").build(), exported("3").name("Table").description("Oak").build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = productExportService.export(ProductExportService.Format.NDJSON, after, true, out);
+
+        // Assert
+        assertEquals(2, count);
+        String[] lines;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{"), "Lines should not be separated by a space");
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("2", objectMapper.readValue(lines[0], Product.class).getId());
+        assertEquals("Table", objectMapper.readValue(lines[1], Product.class).getName());
+
+        // Verify
+        verify(productRepository, never()).streamAllByOrderByIdAsc();
+    }
+
+    /**
+     * Negative Test: export after a cursor that is not a product id should throw IllegalArgumentException
+     * before anything is read or written.
+     */
+    @Test
+    public void testExport_InvalidCursor() {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> productExportService.export(ProductExportService.Format.CSV, "abc", false, out));
+        assertEquals("Cursor 'abc' is not a valid product id.", exception.getMessage());
+        assertEquals(0, out.size());
+
+        // Verify
+        verify(productRepository, never()).streamByIdGreaterThanOrderByIdAsc(anyString());
+    }
+
+    /**
+     * Negative Test: parse with an unknown format should throw IllegalArgumentException.
+     */
+    @Test
+    public void testFormatParse_Unknown() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ProductExportService.Format.parse("xml"));
+        assertEquals("Unknown export format 'xml', allowed formats are [csv, ndjson].", exception.getMessage());
+        assertEquals(ProductExportService.Format.CSV, ProductExportService.Format.parse("CSV"));
+
+        // Verify
+        verify(productRepository, never()).streamByIdGreaterThanOrderByIdAsc(anyString());
+    }
+
+    /**
+     * Negative Test: export with a cursor that fails midway should propagate the error, close the cursor
+     * and leave the response stream open.
+     */
+    @Test
+    public void testExport_CursorFailsMidway() {
+        // Arrange
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        AtomicBoolean outClosed = new AtomicBoolean();
+        Stream<Product> failing = Stream.of("1", "2").map(id -> {
+            if (id.equals("2")) {
+                throw new IllegalStateException("cursor lost");
+            }
+            return exported(id).name("Chair").description("Wood").build();
+        });
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(failing.onClose(() -> cursorClosed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                outClosed.set(true);
+            }
+        };
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> productExportService.export(ProductExportService.Format.NDJSON, null, true, out));
+        assertEquals("cursor lost", exception.getMessage());
+        assertTrue(cursorClosed.get(), "The cursor should be closed after a failed export");
+        assertFalse(outClosed.get(), "The response stream belongs to the server and should not be closed");
+    }
+}
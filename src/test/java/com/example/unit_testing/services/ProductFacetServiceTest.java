@@ -0,0 +1,152 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.cache.ProductFacetCache;
+import com.example.unit_testing.dto.ProductFacetsDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.index.ProductColumnStore;
+import com.example.unit_testing.models.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductFacetServiceTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductColumnStore productColumnStore;
+
+    private ProductFacetCache productFacetCache;
+    private ProductFacetService productFacetService;
+
+    private static final Document RESULT = Document.parse("""
+            {"total": [{"count": 5}],
+             "inStock": [{"count": 3}],
+             "colors": [{"_id": "Red", "count": 3}, {"_id": "Blue", "count": 2}],
+             "prices": [{"_id": 0.0, "count": 2}, {"_id": 50.0, "count": 2}, {"_id": "other", "count": 1}]}
+            """);
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productFacetCache = new ProductFacetCache(Duration.ofMinutes(1));
+        productFacetService = new ProductFacetService(mongoTemplate, productFacetCache, productColumnStore);
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("products"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(RESULT), new Document()));
+    }
+
+    /**
+     * Test getFacets to ensure the facet result is mapped and empty price buckets are filled in.
+     */
+    @Test
+    public void testGetFacets() {
+        // Act
+        ProductFacetsDTO facets = productFacetService.getFacets(List.of(0.0, 10.0, 50.0, 100.0));
+
+        // Assert
+        assertEquals(5, facets.getTotal());
+        assertEquals(3, facets.getInStock());
+        assertEquals(Map.of("Red", 3L, "Blue", 2L), facets.getColors());
+        assertEquals(List.of("Red", "Blue"), List.copyOf(facets.getColors().keySet()), "Colors should keep the count order");
+        assertEquals(4, facets.getPrices().size(), "Three buckets plus the bucket for other prices");
+        assertEquals(0, facets.getPrices().get(1).getCount(), "The empty 10-50 bucket should be listed");
+        assertEquals(2, facets.getPrices().get(2).getCount());
+        assertNull(facets.getPrices().get(3).getMinPrice());
+    }
+
+    /**
+     * Test getFacets to ensure results are cached until a product changes.
+     */
+    @Test
+    public void testGetFacets_CachedUntilProductChange() {
+        // Act
+        productFacetService.getFacets(null);
+        productFacetService.getFacets(null);
+        productFacetCache.onProductChange(ProductChangeEvent.created(new Product()));
+        productFacetService.getFacets(null);
+
+        // Verify
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq("products"), eq(Document.class));
+    }
+
+    /**
+     * Test getFacets to ensure a loaded column store answers instead of the aggregation.
+     */
+    @Test
+    public void testGetFacets_FromColumnStore() {
+        // Arrange
+        ProductFacetsDTO fromColumns = new ProductFacetsDTO(1, 1, Map.of("Red", 1L), List.of());
+        when(productColumnStore.isReady()).thenReturn(true);
+        when(productColumnStore.getFacets(ProductFacetService.DEFAULT_PRICE_BOUNDARIES)).thenReturn(fromColumns);
+
+        // Act
+        ProductFacetsDTO facets = productFacetService.getFacets(null);
+
+        // Assert
+        assertSame(fromColumns, facets);
+
+        // Verify
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+    }
+
+    /**
+     * Test facetAggregation to ensure one $facet stage with a $bucket over price is sent.
+     */
+    @Test
+    public void testFacetAggregation_SingleFacetStage() {
+        // Act
+        List<Document> pipeline = ProductFacetService.facetAggregation(List.of(0.0, 100.0))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals(1, pipeline.size());
+        Document facet = pipeline.get(0).get("$facet", Document.class);
+        assertEquals(Map.of("groupBy", "$price", "boundaries", List.of(0.0, 100.0), "default", "other",
+                        "output", new Document("count", new Document("$sum", 1))),
+                facet.getList("prices", Document.class).get(0).get("$bucket", Document.class));
+    }
+
+    /**
+     * Negative Test: getFacets with boundaries that are not increasing should throw IllegalArgumentException.
+     */
+    @Test
+    public void testGetFacets_InvalidBoundaries() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productFacetService.getFacets(List.of(10.0, 10.0));
+        });
+
+        assertEquals("Price boundaries must be strictly increasing.", exception.getMessage());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+    }
+
+    /**
+     * Negative Test: getFacets with a NaN boundary should throw IllegalArgumentException instead of reaching $bucket.
+     */
+    @Test
+    public void testGetFacets_NaNBoundary() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productFacetService.getFacets(List.of(0.0, Double.NaN, 100.0));
+        });
+
+        assertEquals("Price boundaries must be finite numbers.", exception.getMessage());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.BulkImportResultDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.sync.InMemoryProductSequence;
+import com.example.unit_testing.sync.ProductSequence;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ProductImportServiceTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ProductSequence productSequence = new InMemoryProductSequence();
+
+    // injecera mocksen
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(batch.size(), 0, 0, 0,
+                    Collections.emptyList(), Collections.emptyList()));
+            return bulkOperations;
+        });
+    }
+
+    private InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test importProducts with a JSON array to ensure valid products are inserted in batches.
+     */
+    @Test
+    public void testImportProducts_JsonArray() throws Exception {
+        // Arrange
+        String body = """
+                [
+                  {"name": "Product A", "color": "Red", "price": 10.0, "stockQuantity": 1},
+                  {"name": "Product B", "color": "Blue", "price": 20.0, "stockQuantity": 2},
+                  {"name": "Product C", "color": "Green", "price": 30.0, "stockQuantity": 3}
+                ]
+                """;
+
+        // Act
+        BulkImportResultDTO result = productImportService.importProducts(json(body), 2);
+
+        // Assert
+        assertEquals(3, result.getReceived(), "All items should be received");
+        assertEquals(3, result.getInserted(), "All items should be inserted");
+        assertEquals(0, result.getFailed(), "No items should fail");
+
+        // Verify: två batchar, 2 + 1
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    /**
+     * Test importProducts with NDJSON to ensure invalid items are reported without stopping the import.
+     */
+    @Test
+    public void testImportProducts_NdjsonWithInvalidItems() throws Exception {
+        // Arrange
+        String body = """
+                {"name": "Product A", "price": 10.0, "stockQuantity": 1}
+                {"name": "", "price": 10.0, "stockQuantity": 1}
+                {"name": "Product C", "price": "not a number", "stockQuantity": 1}
+                {"name": "Product D", "price": -1.0, "stockQuantity": 1}
+                {"name": "Product E", "price": 5.0, "stockQuantity": 1}
+                """;
+
+        // Act
+        BulkImportResultDTO result = productImportService.importProducts(json(body), 100);
+
+        // Assert
+        assertEquals(5, result.getReceived(), "All items should be received");
+        assertEquals(2, result.getInserted(), "Only the valid items should be inserted");
+        assertEquals(3, result.getFailed(), "Three items should fail");
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals("Product name cannot be null or empty.", result.getFailures().get(0).getMessage());
+        assertEquals(2, result.getFailures().get(1).getIndex());
+        assertEquals(3, result.getFailures().get(2).getIndex());
+        assertEquals("Product price cannot be negative.", result.getFailures().get(2).getMessage());
+
+        // Verify
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    /**
+     * Test importProducts to ensure null items and a malformed line are reported as failures at their own positions.
+     */
+    @Test
+    public void testImportProducts_NullItemsAndMalformedLine() throws Exception {
+        // Arrange
+        String array = """
+                [null, {"name": "Product B", "price": 10.0, "stockQuantity": 1}, null]
+                """;
+        String ndjson = """
+                {"name": "Product A", "price": 10.0, "stockQuantity": 1}
+                null
+                {"name": "Product C", "price": 10.0,
+                """;
+
+        // Act
+        BulkImportResultDTO arrayResult = productImportService.importProducts(json(array), 100);
+        BulkImportResultDTO ndjsonResult = productImportService.importProducts(json(ndjson), 100);
+
+        // Assert
+        assertEquals(3, arrayResult.getReceived());
+        assertEquals(1, arrayResult.getInserted());
+        assertEquals(0, arrayResult.getFailures().get(0).getIndex());
+        assertEquals(2, arrayResult.getFailures().size());
+        assertEquals(2, arrayResult.getFailures().get(1).getIndex());
+
+        assertEquals(3, ndjsonResult.getReceived(), "The malformed line should be counted as received");
+        assertEquals(1, ndjsonResult.getInserted());
+        assertEquals(1, ndjsonResult.getFailures().get(0).getIndex());
+        assertEquals(2, ndjsonResult.getFailures().get(1).getIndex());
+        assertTrue(ndjsonResult.getFailures().get(1).getMessage().startsWith("Malformed JSON"));
+    }
+
+    /**
+     * Test importProducts to ensure write errors in an unordered batch are mapped back to input positions.
+     */
+    @Test
+    public void testImportProducts_BulkWriteErrors() throws Exception {
+        // Arrange
+        String body = """
+                [
+                  {"name": "Product A", "price": 10.0, "stockQuantity": 1},
+                  {"name": "Product B", "price": 20.0, "stockQuantity": 2}
+                ]
+                """;
+        BulkWriteResult partial = BulkWriteResult.acknowledged(1, 0, 0, 0,
+                Collections.emptyList(), Collections.emptyList());
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        MongoBulkWriteException source = new MongoBulkWriteException(partial, List.of(duplicate), null,
+                new ServerAddress(), Collections.emptySet());
+        doReturn(bulkOperations).when(bulkOperations).insert(anyList());
+        doThrow(new BulkOperationException("Bulk write failed", source)).when(bulkOperations).execute();
+
+        // Act
+        BulkImportResultDTO result = productImportService.importProducts(json(body), 10);
+
+        // Assert
+        assertEquals(1, result.getInserted(), "The accepted document should be counted");
+        assertEquals(1, result.getFailed(), "The rejected document should be reported");
+        assertEquals(1, result.getFailures().get(0).getIndex(), "The failure should point at the second item");
+    }
+
+    /**
+     * Negative Test: importProducts whose bulk write cannot be set up should release the batch's sequence numbers,
+     * so the safe sequence does not stay below them.
+     */
+    @Test
+    public void testImportProducts_BulkOpsFailureReleasesSequence() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> productImportService.importProducts(json("[{\"name\": \"Product A\", \"price\": 10.0}]"), 10));
+        assertEquals(1, productSequence.current());
+        assertEquals(1, productSequence.safe(), "The reservation should have been closed");
+    }
+
+    /**
+     * Negative Test: importProducts with an invalid batch size should throw IllegalArgumentException.
+     */
+    @Test
+    public void testImportProducts_InvalidBatchSize() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productImportService.importProducts(json("[]"), 0);
+        });
+
+        assertEquals("Batch size must be between 1 and " + ProductImportService.MAX_BATCH_SIZE + ".",
+                exception.getMessage());
+
+        // Verify
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+}
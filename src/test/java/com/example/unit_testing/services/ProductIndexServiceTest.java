@@ -0,0 +1,129 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ExplainResultDTO;
+import com.example.unit_testing.dto.IndexReportDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.models.ProductTombstone;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductIndexServiceTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    // injecera mocksen
+    @InjectMocks
+    private ProductIndexService productIndexService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // samma enkla typer som Spring Boot registrerar, annars mappas t.ex. Instant som ett inbäddat dokument
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(MongoCustomConversions.create(config -> { }).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.indexOps(Product.class)).thenReturn(indexOperations);
+        when(mongoTemplate.indexOps(ProductTombstone.class)).thenReturn(indexOperations);
+    }
+
+    private IndexInfo index(String name, IndexField... fields) {
+        return new IndexInfo(List.of(fields), name, false, false, null);
+    }
+
+    /**
+     * Test getIndexReport to ensure indexes declared on Product but absent in the collection are reported.
+     */
+    @Test
+    public void testGetIndexReport_MissingIndexes() {
+        // Arrange: bara _id och name finns i databasen
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(
+                index("_id_", IndexField.create("_id", Sort.Direction.ASC)),
+                index("name", IndexField.create("name", Sort.Direction.ASC))));
+
+        // Act
+        IndexReportDTO report = productIndexService.getIndexReport();
+
+        // Assert
+        assertTrue(report.getExpected().containsAll(List.of("name_1", "color_1", "price_1", "color_1_price_1")),
+                "All declared indexes should be expected");
+        assertFalse(report.getMissing().contains("name_1"), "The existing name index should not be missing");
+        assertTrue(report.getMissing().containsAll(List.of("color_1", "price_1", "color_1_price_1")),
+                "The color, price and compound indexes should be missing");
+    }
+
+    /**
+     * Test ensureIndexes to ensure every declared index is passed to the index operations.
+     */
+    @Test
+    public void testEnsureIndexes() {
+        // Act
+        int count = productIndexService.ensureIndexes();
+
+        // Assert
+        assertEquals(7, count, "name, color, price, modSequence, the compound, the text and the tombstone index should be ensured");
+        verify(indexOperations, times(7)).ensureIndex(any());
+    }
+
+    /**
+     * Test toExplainResult to ensure an index scan below a FETCH stage is detected.
+     */
+    @Test
+    public void testToExplainResult_IndexScan() {
+        // Arrange
+        Document explain = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"stage": "FETCH",
+                  "inputStage": {"stage": "IXSCAN", "indexName": "color"}}}}
+                """);
+
+        // Act
+        ExplainResultDTO result = ProductIndexService.toExplainResult("findByColor", new Document("color", "Red"), explain);
+
+        // Assert
+        assertTrue(result.isUsesIndex(), "The finder should use an index");
+        assertEquals("FETCH", result.getWinningStage());
+        assertEquals("color", result.getIndexName());
+    }
+
+    /**
+     * Test toExplainResult to ensure a collection scan is reported as not using an index.
+     */
+    @Test
+    public void testToExplainResult_CollectionScan() {
+        // Arrange: slot based execution lägger planen under queryPlan
+        Document explain = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"queryPlan": {"stage": "COLLSCAN"}, "slotBasedPlan": {}}}}
+                """);
+
+        // Act
+        ExplainResultDTO result = ProductIndexService.toExplainResult("findByName", new Document("name", "A"), explain);
+
+        // Assert
+        assertFalse(result.isUsesIndex(), "The finder should not use an index");
+        assertEquals("COLLSCAN", result.getWinningStage());
+        assertNull(result.getIndexName());
+    }
+}
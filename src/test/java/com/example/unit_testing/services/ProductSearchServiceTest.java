@@ -0,0 +1,120 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.index.ProductSuggestionIndex;
+import com.example.unit_testing.models.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSearchServiceTest {
+    // mocka
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    // injecera mocksen
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Test search to ensure a text query sorted by score is used.
+     */
+    @Test
+    public void testSearch_TextQuerySortedByScore() {
+        // Arrange
+        Product product = new Product();
+        product.setName("Red Shirt");
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product));
+
+        // Act
+        List<Product> result = productSearchService.search("red shirt", 5);
+
+        // Assert
+        assertEquals(1, result.size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        assertEquals("red shirt", query.getValue().getQueryObject().get("$text", Document.class).get("$search"));
+        assertTrue(query.getValue().getSortObject().containsKey("score"), "Results should be sorted by text score");
+        assertEquals(5, query.getValue().getLimit());
+    }
+
+    /**
+     * Test suggest to ensure a loaded suggestion index is used instead of MongoDB.
+     */
+    @Test
+    public void testSuggest_FromIndex() {
+        // Arrange
+        when(productSuggestionIndex.isReady()).thenReturn(true);
+        when(productSuggestionIndex.suggest("sh", 10)).thenReturn(List.of("Shirt"));
+
+        // Act
+        List<String> result = productSearchService.suggest("sh", 10);
+
+        // Assert
+        assertEquals(List.of("Shirt"), result);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * Test suggest without a loaded index to ensure MongoDB stops after a bounded number of matches and the
+     * distinct names are ranked and limited.
+     */
+    @Test
+    public void testSuggest_FallbackBoundedAggregation() {
+        // Arrange
+        when(productSuggestionIndex.isReady()).thenReturn(false);
+        AggregationResults<Document> results = new AggregationResults<>(List.of(
+                new Document("_id", "Red shirt"), new Document("_id", "Shirt"), new Document("_id", "Shoes")), new Document());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Document.class))).thenReturn(results);
+
+        // Act
+        List<String> result = productSearchService.suggest("sh", 2);
+
+        // Assert
+        assertEquals(List.of("Shirt", "Shoes"), result);
+
+        // Verify: $limit före $group, så att avsökningen avbryts
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Product.class), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(List.of("$match", "$limit", "$group"), pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        assertEquals(ProductSearchService.MAX_FALLBACK_CANDIDATES, ((Number) pipeline.get(1).get("$limit")).intValue());
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), anyString(), eq(Product.class), eq(String.class));
+    }
+
+    /**
+     * Negative Test: search with empty text should throw IllegalArgumentException.
+     */
+    @Test
+    public void testSearch_EmptyText() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productSearchService.search(" ", 10);
+        });
+
+        assertEquals("Search text cannot be null or empty.", exception.getMessage());
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -1,24 +1,63 @@
 package com.example.unit_testing.services;
 
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.dto.BatchDeleteResultDTO;
+import com.example.unit_testing.dto.BatchGetResultDTO;
 import com.example.unit_testing.dto.ProductDTO;
+import com.example.unit_testing.dto.ProductFilterDTO;
+import com.example.unit_testing.dto.ProductPageDTO;
+import com.example.unit_testing.dto.ProductSummaryDTO;
+import com.example.unit_testing.dto.StockReservationDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.exceptions.InsufficientStockException;
+import com.example.unit_testing.index.ProductPriceIndex;
 import com.example.unit_testing.models.Product;
 import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.snapshot.ProductSnapshotIndex;
+import com.example.unit_testing.sync.ProductSequence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class ProductServiceTest {
+    private static final String CURSOR = "66f1a2b3c4d5e6f708091a2b";
+
     // mocka
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ProductQueryCache productQueryCache = new ProductQueryCache(100, Duration.ofMinutes(1));
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ProductSequence productSequence;
+
+    @Mock
+    private ProductSnapshotIndex productSnapshotIndex;
+
+    @Mock
+    private ProductSyncService productSyncService;
+
     // injecera mocksen
     @InjectMocks
     private ProductService productService;
@@ -27,6 +66,11 @@ public class ProductServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // tombstones testas i ProductSyncServiceTest, här körs bara borttagningen
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(productSyncService).deleteWithTombstones(anyCollection(), any(Runnable.class));
     }
 
     /**
@@ -62,6 +106,7 @@ public class ProductServiceTest {
 
         // mock the behavior of productRepository.save to return the savedProduct
         when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
+        when(productSequence.next()).thenReturn(new ProductSequence.Reservation(42, 1, () -> { }));
 
         // Act:
         // call the createProduct method in ProductService
@@ -76,8 +121,8 @@ public class ProductServiceTest {
         assertEquals(30.99, result.getPrice(), "Product price should match");
         assertEquals(300, result.getStockQuantity(), "Product stock quantity should match");
 
-        // verify that productRepository.save was called once with a Product object
-        verify(productRepository, times(1)).save(any(Product.class));
+        // verify that productRepository.save was called once with a Product stamped with the next sequence
+        verify(productRepository, times(1)).save(argThat(product -> product.getModSequence() == 42L));
     }
 
     /**
@@ -215,6 +260,235 @@ public class ProductServiceTest {
         verify(productRepository, never()).deleteById(anyString());
     }
 
+    /**
+     * Test the getProductsByIds method to ensure one query is used and missing IDs are reported.
+     */
+    @Test
+    public void testGetProductsByIds() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        Product product2 = new Product();
+        product2.setId("2");
+
+        when(productRepository.findAllById(List.of("2", "3", "1"))).thenReturn(List.of(product1, product2));
+
+        // Act
+        BatchGetResultDTO result = productService.getProductsByIds(List.of("2", "3", "1", "2"));
+
+        // Assert
+        assertEquals(List.of(product2, product1), result.getProducts(), "Products should be in request order");
+        assertEquals(List.of("3"), result.getMissingIds());
+
+        // Verify
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(productRepository, never()).findById(anyString());
+    }
+
+    /**
+     * Negative Test: getProductsByIds with too many IDs should throw IllegalArgumentException.
+     */
+    @Test
+    public void testGetProductsByIds_TooManyIds() {
+        // Arrange
+        List<String> ids = Collections.nCopies(ProductService.MAX_BATCH_IDS + 1, "1");
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.getProductsByIds(ids);
+        });
+
+        assertEquals("At most " + ProductService.MAX_BATCH_IDS + " product ids are allowed per request.", exception.getMessage());
+
+        // Verify
+        verify(productRepository, never()).findAllById(anyIterable());
+    }
+
+    /**
+     * Test the deleteProducts method to ensure only existing products are deleted in one call.
+     */
+    @Test
+    public void testDeleteProducts() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+
+        when(productRepository.findAllById(List.of("1", "2"))).thenReturn(List.of(product1));
+
+        // Act
+        BatchDeleteResultDTO result = productService.deleteProducts(List.of("1", "2"));
+
+        // Assert
+        assertEquals(1, result.getDeleted());
+        assertEquals(List.of("2"), result.getMissingIds());
+
+        // Verify
+        verify(productRepository, times(1)).deleteAllById(Set.of("1"));
+        verify(productRepository, never()).deleteById(anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangeEvent.class));
+    }
+
+    /**
+     * Test the deleteProducts method to ensure nothing is deleted when no IDs exist.
+     */
+    @Test
+    public void testDeleteProducts_NoneFound() {
+        // Arrange
+        when(productRepository.findAllById(List.of("1"))).thenReturn(List.of());
+
+        // Act
+        BatchDeleteResultDTO result = productService.deleteProducts(List.of("1"));
+
+        // Assert
+        assertEquals(0, result.getDeleted());
+        assertEquals(List.of("1"), result.getMissingIds());
+
+        // Verify
+        verify(productRepository, never()).deleteAllById(anyIterable());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Test the adjustStock method to ensure the atomic update is used instead of read-modify-write.
+     */
+    @Test
+    public void testAdjustStock() {
+        // Arrange
+        Product updated = new Product();
+        updated.setId("1");
+        updated.setStockQuantity(7);
+
+        when(productRepository.adjustStock("1", -3)).thenReturn(Optional.of(updated));
+
+        // Act
+        Product result = productService.adjustStock("1", -3);
+
+        // Assert
+        assertEquals(7, result.getStockQuantity());
+
+        // Verify
+        verify(productRepository, never()).findById(anyString());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangeEvent.class));
+    }
+
+    /**
+     * Negative Test: adjustStock with a withdrawal larger than the stock should throw InsufficientStockException.
+     */
+    @Test
+    public void testAdjustStock_InsufficientStock() {
+        // Arrange
+        when(productRepository.adjustStock("1", -3)).thenReturn(Optional.empty());
+        when(productRepository.existsById("1")).thenReturn(true);
+
+        // Act & Assert
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class, () -> {
+            productService.adjustStock("1", -3);
+        });
+
+        assertEquals("Insufficient stock for product with id: 1", exception.getMessage());
+
+        // Verify
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Negative Test: adjustStock with a non-existent ID should throw NoSuchElementException.
+     */
+    @Test
+    public void testAdjustStock_NonExistentId() {
+        // Arrange
+        when(productRepository.adjustStock("nonexistent123", 5)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> {
+            productService.adjustStock("nonexistent123", 5);
+        });
+
+        assertEquals("Product not found with id: nonexistent123", exception.getMessage());
+    }
+
+    /**
+     * Test the reserveStock method to ensure already reserved items are given back when one item fails.
+     */
+    @Test
+    public void testReserveStock_ReleasesOnFailure() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+
+        when(productRepository.adjustStock("1", -2)).thenReturn(Optional.of(product1));
+        when(productRepository.adjustStock("1", 2)).thenReturn(Optional.of(product1));
+        when(productRepository.adjustStock("2", -5)).thenReturn(Optional.empty());
+        when(productRepository.existsById("2")).thenReturn(true);
+
+        List<StockReservationDTO> reservations = List.of(
+                new StockReservationDTO("2", 5),
+                new StockReservationDTO("1", 1),
+                new StockReservationDTO("1", 1));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(reservations));
+
+        // Verify
+        verify(productRepository, times(1)).adjustStock("1", -2);
+        verify(productRepository, times(1)).adjustStock("1", 2);
+    }
+
+    /**
+     * Test the reserveStock method to ensure a failure to give one item back does not keep the others reserved
+     * and is attached to the original failure.
+     */
+    @Test
+    public void testReserveStock_ReleaseFailureSuppressed() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        Product product2 = new Product();
+        product2.setId("2");
+
+        when(productRepository.adjustStock("1", -1)).thenReturn(Optional.of(product1));
+        when(productRepository.adjustStock("2", -1)).thenReturn(Optional.of(product2));
+        when(productRepository.adjustStock("3", -1)).thenReturn(Optional.empty());
+        when(productRepository.existsById("3")).thenReturn(true);
+        DataAccessResourceFailureException releaseFailure = new DataAccessResourceFailureException("down");
+        when(productRepository.adjustStock("1", 1)).thenThrow(releaseFailure);
+        when(productRepository.adjustStock("2", 1)).thenReturn(Optional.of(product2));
+
+        List<StockReservationDTO> reservations = List.of(
+                new StockReservationDTO("1", 1),
+                new StockReservationDTO("2", 1),
+                new StockReservationDTO("3", 1));
+
+        // Act
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> productService.reserveStock(reservations));
+
+        // Assert
+        assertArrayEquals(new Throwable[]{releaseFailure}, exception.getSuppressed());
+
+        // Verify
+        verify(productRepository, times(1)).adjustStock("2", 1);
+    }
+
+    /**
+     * Negative Test: reserveStock with quantities of one product that add up past Integer.MAX_VALUE should throw
+     * IllegalArgumentException before any stock is reserved.
+     */
+    @Test
+    public void testReserveStock_QuantityOverflow() {
+        // Arrange
+        List<StockReservationDTO> reservations = List.of(
+                new StockReservationDTO("1", Integer.MAX_VALUE),
+                new StockReservationDTO("1", 1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(reservations));
+
+        // Verify
+        verify(productRepository, never()).adjustStock(anyString(), anyInt());
+    }
+
     /**
      * Test the getProductsByName method to ensure it retrieves products by name.
      */
@@ -271,6 +545,46 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findByName(nonExistentName);
     }
 
+    /**
+     * Test getProductsByName to ensure a loaded snapshot answers the query instead of the repository.
+     */
+    @Test
+    public void testGetProductsByName_FromSnapshot() {
+        // Arrange
+        Product product = new Product();
+        product.setId("1");
+        product.setName("Product A");
+        when(productSnapshotIndex.isReady()).thenReturn(true);
+        when(productSnapshotIndex.findByName("Product A")).thenReturn(List.of(product));
+
+        // Act
+        List<Product> result = productService.getProductsByName("Product A");
+
+        // Assert
+        assertEquals(List.of(product), result);
+
+        // Verify
+        verify(productRepository, never()).findByName("Product A");
+    }
+
+    /**
+     * Test findProductsByName to ensure no matches are reported as a not found result instead of an exception.
+     */
+    @Test
+    public void testFindProductsByName_NotFound() {
+        // Arrange
+        when(productRepository.findByName("UnknownProduct")).thenReturn(Collections.emptyList());
+
+        // Act
+        LookupResult<List<Product>> result = productService.findProductsByName("UnknownProduct");
+
+        // Assert
+        assertFalse(result.isFound());
+        assertEquals("No products found with name: UnknownProduct", result.getNotFoundDetail());
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class, result::orElseThrow);
+        assertEquals(0, exception.getStackTrace().length, "The not found exception should not capture a stack trace");
+    }
+
     /**
      * Negative Test: getProductsByName with null name should throw IllegalArgumentException.
      */
@@ -335,6 +649,29 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findByPriceBetween(minPrice, maxPrice);
     }
 
+    /**
+     * Test the getProductsByPriceRange method to ensure a loaded price index is used instead of the repository.
+     */
+    @Test
+    public void testGetProductsByPriceRange_FromPriceIndex() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        product1.setPrice(15.99);
+
+        when(productPriceIndex.isReady()).thenReturn(true);
+        when(productPriceIndex.findByPriceBetween(10.0, 30.0)).thenReturn(List.of(product1));
+
+        // Act
+        List<Product> result = productService.getProductsByPriceRange(10.0, 30.0);
+
+        // Assert
+        assertEquals(1, result.size(), "There should be one product in the list");
+
+        // Verify
+        verify(productRepository, never()).findByPriceBetween(anyDouble(), anyDouble());
+    }
+
     /**
      * Negative Test: getProductsByPriceRange with minPrice > maxPrice should throw IllegalArgumentException.
      */
@@ -355,6 +692,26 @@ public class ProductServiceTest {
         verify(productRepository, never()).findByPriceBetween(anyDouble(), anyDouble());
     }
 
+    /**
+     * Negative Test: getProductsByPriceRange with an infinite maxPrice should throw IllegalArgumentException.
+     */
+    @Test
+    public void testGetProductsByPriceRange_InfiniteMaxPrice() {
+        // Arrange
+        double minPrice = 10.0;
+        double maxPrice = Double.POSITIVE_INFINITY;
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.getProductsByPriceRange(minPrice, maxPrice);
+        });
+
+        assertEquals("Price values must be finite numbers.", exception.getMessage());
+
+        // Verify
+        verify(productRepository, never()).findByPriceBetween(anyDouble(), anyDouble());
+    }
+
     /**
      * Negative Test: getProductsByPriceRange with negative minPrice should throw IllegalArgumentException.
      */
@@ -503,6 +860,310 @@ public class ProductServiceTest {
     }
 
 
+    /**
+     * Test the getProductsByName method to ensure repeated lookups are served from the cache.
+     */
+    @Test
+    public void testGetProductsByName_Cached() {
+        // Arrange
+        String productName = "Product A";
+        Product product1 = new Product();
+        product1.setId("1");
+        product1.setName(productName);
+
+        when(productRepository.findByName(productName)).thenReturn(List.of(product1));
+
+        // Act
+        productService.getProductsByName(productName);
+        List<Product> result = productService.getProductsByName(productName);
+
+        // Assert
+        assertEquals(1, result.size(), "There should be one product in the list");
+
+        // Verify: bara första anropet går till databasen
+        verify(productRepository, times(1)).findByName(productName);
+    }
+
+    /**
+     * Test the createProduct method to ensure a change event is published for the saved product.
+     */
+    @Test
+    public void testCreateProduct_PublishesEvent() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product C");
+        productDTO.setPrice(30.99);
+
+        Product savedProduct = new Product();
+        savedProduct.setId("3");
+        savedProduct.setName("Product C");
+
+        when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
+        when(productSequence.next()).thenReturn(new ProductSequence.Reservation(42, 1, () -> { }));
+
+        // Act
+        productService.createProduct(productDTO);
+
+        // Verify
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof ProductChangeEvent change
+                && change.getType() == ProductChangeEvent.Type.CREATED
+                && change.getProducts().equals(List.of(savedProduct))));
+    }
+
+    /**
+     * Negative Test: createProduct with a failing save should release its sequence number, so the
+     * delta sync is not held back by a write that will never commit.
+     */
+    @Test
+    public void testCreateProduct_SaveFailsReleasesSequence() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product C");
+        productDTO.setPrice(30.99);
+
+        AtomicBoolean released = new AtomicBoolean();
+        when(productSequence.next()).thenReturn(new ProductSequence.Reservation(42, 1, () -> released.set(true)));
+        when(productRepository.save(any(Product.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> productService.createProduct(productDTO));
+        assertTrue(released.get());
+
+        // Verify
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Test the getProductPage method to ensure it returns a full page and a cursor for the next one.
+     */
+    @Test
+    public void testGetProductPage_HasNextPage() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        Product product2 = new Product();
+        product2.setId("2");
+        Product product3 = new Product();
+        product3.setId("3");
+
+        // en rad extra betyder att det finns en sida till
+        when(productRepository.findByIdGreaterThan(eq(CURSOR), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(Arrays.asList(product1, product2, product3)));
+
+        // Act
+        ProductPageDTO result = productService.getProductPage(CURSOR, 2);
+
+        // Assert
+        assertEquals(2, result.getProducts().size(), "The page should contain two products");
+        assertEquals("2", result.getNextCursor(), "The cursor should be the id of the last product on the page");
+
+        // Verify
+        verify(productRepository, times(1)).findByIdGreaterThan(eq(CURSOR), any(Pageable.class));
+        verify(productRepository, never()).findAll();
+    }
+
+    /**
+     * Test the getProductPage method to ensure the last page has no cursor.
+     */
+    @Test
+    public void testGetProductPage_LastPage() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+
+        when(productRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(product1));
+
+        // Act
+        ProductPageDTO result = productService.getProductPage(null, 2);
+
+        // Assert
+        assertEquals(1, result.getProducts().size(), "The page should contain one product");
+        assertNull(result.getNextCursor(), "The last page should not have a cursor");
+
+        // Verify
+        verify(productRepository, times(1)).findAllBy(any(Pageable.class));
+    }
+
+    /**
+     * Negative Test: getProductPage with a cursor that is not an ObjectId should throw IllegalArgumentException
+     * instead of returning an empty page that looks like the end of the catalog.
+     */
+    @Test
+    public void testGetProductPage_InvalidCursor() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.getProductPage("not-an-id", 2);
+        });
+
+        assertEquals("Cursor 'not-an-id' is not a valid product id.", exception.getMessage());
+        verify(productRepository, never()).findByIdGreaterThan(anyString(), any(Pageable.class));
+    }
+
+    /**
+     * Negative Test: getProductPage with a too large page size should throw IllegalArgumentException.
+     */
+    @Test
+    public void testGetProductPage_InvalidSize() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.getProductPage(null, ProductService.MAX_PAGE_SIZE + 1);
+        });
+
+        assertEquals("Page size must be between 1 and " + ProductService.MAX_PAGE_SIZE + ".", exception.getMessage());
+
+        // Verify
+        verify(productRepository, never()).findAllBy(any(Pageable.class));
+    }
+
+    /**
+     * Test the filterProducts method to ensure the criteria, sort and limit are passed to one repository query.
+     */
+    @Test
+    public void testFilterProducts() {
+        // Arrange
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setColor("Red");
+        filter.setMinPrice(10.0);
+        filter.setMaxPrice(50.0);
+        Product product1 = new Product();
+        product1.setId("1");
+
+        Sort expectedSort = Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id"));
+        when(productRepository.findByFilter(filter, expectedSort, 20)).thenReturn(List.of(product1));
+
+        // Act
+        List<Product> result = productService.filterProducts(filter, "-price", 20);
+
+        // Assert
+        assertEquals(1, result.size(), "There should be one product in the list");
+
+        // Verify
+        verify(productRepository, times(1)).findByFilter(filter, expectedSort, 20);
+        verify(productRepository, never()).findByColor(anyString());
+        verify(productRepository, never()).findByPriceBetween(anyDouble(), anyDouble());
+    }
+
+    /**
+     * Negative Test: filterProducts with a field that is not allowed for sorting should throw IllegalArgumentException.
+     */
+    @Test
+    public void testFilterProducts_InvalidSort() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.filterProducts(new ProductFilterDTO(), "description", 20);
+        });
+
+        assertEquals("Cannot sort by 'description', allowed fields are " + ProductService.FILTER_SORT_FIELDS + ".",
+                exception.getMessage());
+
+        // Verify
+        verify(productRepository, never()).findByFilter(any(), any(), anyInt());
+    }
+
+    /**
+     * Negative Test: filterProducts with a NaN minPrice should throw IllegalArgumentException instead of matching nothing.
+     */
+    @Test
+    public void testFilterProducts_NaNMinPrice() {
+        // Arrange
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setMinPrice(Double.NaN);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.filterProducts(filter, null, 20);
+        });
+
+        assertEquals("Price values must be finite numbers.", exception.getMessage());
+
+        // Verify
+        verify(productRepository, never()).findByFilter(any(), any(), anyInt());
+    }
+
+    /**
+     * Negative Test: filterProducts with minPrice > maxPrice should throw IllegalArgumentException.
+     */
+    @Test
+    public void testFilterProducts_InvalidRange() {
+        // Arrange
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setMinPrice(50.0);
+        filter.setMaxPrice(10.0);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.filterProducts(filter, null, 20);
+        });
+
+        assertEquals("minPrice cannot be greater than maxPrice.", exception.getMessage());
+    }
+
+    /**
+     * Test the getProductSummariesByColor method to ensure the summary projection is queried and cached.
+     */
+    @Test
+    public void testGetProductSummariesByColor() {
+        // Arrange
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId("1");
+        summary.setColor("Red");
+
+        when(productRepository.findByColor("Red", ProductSummaryDTO.class)).thenReturn(List.of(summary));
+
+        // Act
+        List<ProductSummaryDTO> first = productService.getProductSummariesByColor("Red");
+        List<ProductSummaryDTO> second = productService.getProductSummariesByColor("Red");
+
+        // Assert
+        assertEquals(1, first.size(), "There should be one summary in the list");
+        assertEquals("1", second.get(0).getId());
+
+        // Verify
+        verify(productRepository, times(1)).findByColor("Red", ProductSummaryDTO.class);
+        verify(productRepository, never()).findByColor("Red");
+    }
+
+    /**
+     * Test the getProductSummariesByPriceRange method to ensure a loaded price index is mapped to summaries.
+     */
+    @Test
+    public void testGetProductSummariesByPriceRange_FromPriceIndex() {
+        // Arrange
+        Product product1 = new Product();
+        product1.setId("1");
+        product1.setDescription("Long description");
+        product1.setPrice(15.99);
+
+        when(productPriceIndex.isReady()).thenReturn(true);
+        when(productPriceIndex.findByPriceBetween(10.0, 30.0)).thenReturn(List.of(product1));
+
+        // Act
+        List<ProductSummaryDTO> result = productService.getProductSummariesByPriceRange(10.0, 30.0);
+
+        // Assert
+        assertEquals(1, result.size(), "There should be one summary in the list");
+        assertEquals(15.99, result.get(0).getPrice());
+
+        // Verify
+        verify(productRepository, never()).findByPriceBetween(anyDouble(), anyDouble(), eq(ProductSummaryDTO.class));
+    }
+
+    /**
+     * Negative Test: getProductSummariesByName with no matches should throw NoSuchElementException.
+     */
+    @Test
+    public void testGetProductSummariesByName_NoMatches() {
+        // Arrange
+        when(productRepository.findByName("Unknown", ProductSummaryDTO.class)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> {
+            productService.getProductSummariesByName("Unknown");
+        });
+
+        assertEquals("No products found with name: Unknown", exception.getMessage());
+    }
+
 
 
     // version 1 av tester ligger här under
@@ -0,0 +1,176 @@
+package com.example.unit_testing.services;
+
+import com.example.unit_testing.dto.ProductChangesDTO;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.models.ProductTombstone;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.repository.ProductTombstoneRepository;
+import com.example.unit_testing.sync.ProductSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSyncServiceTest {
+    // mocka
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private ProductSequence productSequence;
+
+    // injecera mocksen
+    @InjectMocks
+    private ProductSyncService productSyncService;
+
+    // initiera alla mocks
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private ProductTombstone tombstone(String id, long modSequence) {
+        return new ProductTombstone(id, modSequence, Instant.EPOCH);
+    }
+
+    /**
+     * Test getChanges to ensure products and tombstones are merged in sequence order up to the limit.
+     */
+    @Test
+    public void testGetChanges_MergesInSequenceOrder() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(20L);
+        when(productRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(10L, 20L, PageRequest.of(0, 4)))
+                .thenReturn(List.of(product("a").modSequence(11).build(), product("b").modSequence(14).build(),
+                        product("c").modSequence(15).build()));
+        when(tombstoneRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(10L, 20L, PageRequest.of(0, 4)))
+                .thenReturn(List.of(tombstone("x", 12), tombstone("y", 16)));
+
+        // Act
+        ProductChangesDTO changes = productSyncService.getChanges(10, 3);
+
+        // Assert
+        assertEquals(List.of("a", "b"), changes.getProducts().stream().map(Product::getId).toList());
+        assertEquals(List.of("x"), changes.getDeletedIds());
+        assertEquals(14, changes.getNextSince());
+        assertTrue(changes.isHasMore());
+    }
+
+    /**
+     * Test getChanges to ensure a client that is up to date keeps its sequence.
+     */
+    @Test
+    public void testGetChanges_NoChanges() {
+        // Arrange
+        when(productSequence.safe()).thenReturn(25L);
+        when(productRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(eq(20L), eq(25L), any())).thenReturn(List.of());
+        when(tombstoneRepository.findByModSequenceGreaterThanAndModSequenceLessThanEqualOrderByModSequenceAsc(eq(20L), eq(25L), any())).thenReturn(List.of());
+
+        // Act
+        ProductChangesDTO changes = productSyncService.getChanges(20, 100);
+
+        // Assert
+        assertTrue(changes.getProducts().isEmpty());
+        assertTrue(changes.getDeletedIds().isEmpty());
+        assertEquals(20, changes.getNextSince());
+        assertFalse(changes.isHasMore());
+    }
+
+    /**
+     * Test getChanges to ensure nothing above the safe sequence is returned while a lower write is still in flight.
+     */
+    @Test
+    public void testGetChanges_WaitsForWritesInFlight() {
+        // Arrange: 21 och uppåt är utdelade men 21 är inte skriven än
+        when(productSequence.safe()).thenReturn(20L);
+
+        // Act
+        ProductChangesDTO changes = productSyncService.getChanges(20, 100);
+
+        // Assert
+        assertTrue(changes.getProducts().isEmpty());
+        assertEquals(20, changes.getNextSince());
+        assertFalse(changes.isHasMore());
+
+        // Verify
+        verifyNoInteractions(productRepository, tombstoneRepository);
+    }
+
+    /**
+     * Negative Test: getChanges with a negative sequence or a limit out of range should throw IllegalArgumentException.
+     */
+    @Test
+    public void testGetChanges_InvalidArguments() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productSyncService.getChanges(-1, 100));
+        assertThrows(IllegalArgumentException.class, () -> productSyncService.getChanges(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> productSyncService.getChanges(0, 1001));
+
+        // Verify
+        verifyNoInteractions(productRepository, tombstoneRepository);
+    }
+
+    /**
+     * Test deleteWithTombstones to ensure every product gets a tombstone with its own sequence before it is deleted.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeleteWithTombstones_WritesTombstonesFirst() {
+        // Arrange
+        AtomicBoolean released = new AtomicBoolean();
+        when(productSequence.reserve(2)).thenReturn(new ProductSequence.Reservation(30, 2, () -> released.set(true)));
+        Runnable delete = mock(Runnable.class);
+
+        // Act
+        productSyncService.deleteWithTombstones(List.of("a", "b"), delete);
+
+        // Assert
+        ArgumentCaptor<List<ProductTombstone>> saved = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(tombstoneRepository, delete);
+        inOrder.verify(tombstoneRepository, times(1)).saveAll(saved.capture());
+        inOrder.verify(delete, times(1)).run();
+        assertEquals(List.of("a", "b"), saved.getValue().stream().map(ProductTombstone::getId).toList());
+        assertEquals(List.of(30L, 31L), saved.getValue().stream().map(ProductTombstone::getModSequence).toList());
+        assertTrue(released.get());
+
+        // Verify
+        verify(tombstoneRepository, never()).deleteAllById(anyIterable());
+    }
+
+    /**
+     * Negative Test: deleteWithTombstones with a failing delete should remove the tombstones again and rethrow.
+     */
+    @Test
+    public void testDeleteWithTombstones_DeleteFails() {
+        // Arrange
+        AtomicBoolean released = new AtomicBoolean();
+        when(productSequence.reserve(1)).thenReturn(new ProductSequence.Reservation(30, 1, () -> released.set(true)));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> productSyncService.deleteWithTombstones(List.of("a"),
+                () -> {
+                    throw new DataAccessResourceFailureException("down");
+                }));
+        assertTrue(released.get());
+
+        // Verify
+        verify(tombstoneRepository, times(1)).deleteAllById(List.of("a"));
+    }
+}
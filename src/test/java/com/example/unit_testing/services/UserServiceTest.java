@@ -1,5 +1,6 @@
 package com.example.unit_testing.services;
 
+import com.example.unit_testing.cache.UserCache;
 import com.example.unit_testing.models.User;
 import com.example.unit_testing.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,7 +8,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +21,9 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1));
+
     // injecera mocksen
     @InjectMocks
     private UserService userService;
@@ -89,6 +95,22 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findById(userId);
     }
 
+    /**
+     * Test findUserById to ensure a missing user is reported as a not found result instead of an exception.
+     */
+    @Test
+    public void testFindUserById_NotFound() {
+        // Arrange
+        when(userRepository.findById("nonexistent_id")).thenReturn(Optional.empty());
+
+        // Act
+        LookupResult<User> result = userService.findUserById("nonexistent_id");
+
+        // Assert
+        assertFalse(result.isFound());
+        assertEquals("User not found with id: nonexistent_id", result.getNotFoundDetail());
+    }
+
     @Test
     public void testGetUserById_UserDoesNotExists() {
         // Arrange
@@ -106,6 +128,26 @@ public class UserServiceTest {
 
         verify(userRepository, times(1)).findById(userId);
     }
+
+    @Test
+    public void testGetUserById_Cached() {
+        // Arrange
+        String userId = "1";
+        User user = new User();
+        user.setId(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.getUserById(userId);
+        User result = userService.getUserById(userId);
+
+        // Assert
+        assertEquals(userId, result.getId(), "User ID should match");
+
+        // andra anropet ska komma från cachen
+        verify(userRepository, times(1)).findById(userId);
+    }
 }
 
 
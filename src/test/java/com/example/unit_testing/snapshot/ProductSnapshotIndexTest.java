@@ -0,0 +1,188 @@
+package com.example.unit_testing.snapshot;
+
+import com.example.unit_testing.cache.CatalogVersion;
+import com.example.unit_testing.cache.ProductQueryCache;
+import com.example.unit_testing.dto.ProductChangesDTO;
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.services.ProductSyncService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSnapshotIndexTest {
+
+    @Mock
+    private ProductSyncService productSyncService;
+
+    @Mock
+    private ProductQueryCache productQueryCache;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @TempDir
+    Path directory;
+
+    private ProductSnapshotIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        Path file = directory.resolve("products.snapshot");
+        ProductSnapshotWriter.write(Stream.of(product("1").name("Chair").color("Red").price(10).modSequence(1).build(),
+                product("2").name("Table").color("Red").price(20).modSequence(2).build(),
+                product("3").name("Lamp").color("Blue").price(30).modSequence(3).build()), 3, file);
+        // intervallet 0s, testerna styr catch-up själva
+        index = new ProductSnapshotIndex(productSyncService, productQueryCache, catalogVersion, file.toString(), true,
+                Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    private List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    /**
+     * Test load to ensure the changes since the snapshot sequence hide and replace the snapshot rows.
+     */
+    @Test
+    public void testLoad_CatchesUpFromSnapshotSequence() {
+        // Arrange
+        when(productSyncService.getChanges(3, ProductSyncService.MAX_LIMIT)).thenReturn(
+                new ProductChangesDTO(List.of(product("2").name("Table").color("Blue").price(25).modSequence(4).build()),
+                        List.of("1"), 5, false));
+
+        // Act
+        index.load();
+
+        // Assert
+        assertTrue(index.isReady());
+        assertEquals(2, index.getOverlaySize());
+        assertEquals(List.of(), ids(index.findByColor("Red")));
+        assertEquals(List.of("3", "2"), ids(index.findByColor("Blue")));
+        assertEquals(List.of("3", "2"), ids(index.findByPriceBetween(20, 40)));
+        assertEquals("Lamp", index.findSummariesByName("Lamp").get(0).getName());
+
+        // Verify: den gamla och den nya versionen av 2, och den borttagna 1:an
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Product>> invalidated = ArgumentCaptor.forClass(Collection.class);
+        verify(productQueryCache, times(1)).invalidate(invalidated.capture());
+        assertEquals(List.of("Red", "Blue", "Red"), invalidated.getValue().stream().map(Product::getColor).toList());
+        verify(productQueryCache, never()).invalidateAll();
+        verify(catalogVersion, times(1)).bump();
+    }
+
+    /**
+     * Test catchUp to ensure changes the overlay already has from this instance's events leave the query cache
+     * and the catalog version alone.
+     */
+    @Test
+    public void testCatchUp_OwnChangesKeepCache() {
+        // Arrange
+        when(productSyncService.getChanges(anyLong(), anyInt())).thenReturn(new ProductChangesDTO(List.of(), List.of(), 3, false));
+        index.load();
+        Product updated = product("1").name("Chair").color("Green").price(10).modSequence(4).build();
+        index.onProductChange(ProductChangeEvent.updated(updated));
+        index.onProductChange(ProductChangeEvent.deleted(product("3").name("Lamp").color("Blue").price(30).modSequence(3).build()));
+        when(productSyncService.getChanges(3, ProductSyncService.MAX_LIMIT)).thenReturn(
+                new ProductChangesDTO(List.of(updated), List.of("3"), 5, false));
+
+        // Act
+        int count = index.catchUp();
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of("1"), ids(index.findByColor("Green")));
+
+        // Verify
+        verify(productQueryCache, never()).invalidate(anyCollection());
+        verify(productQueryCache, never()).invalidateAll();
+        verify(catalogVersion, never()).bump();
+    }
+
+    /**
+     * Test onProductChange to ensure local writes reach the overlay and a later catch-up does not overwrite them with older versions.
+     */
+    @Test
+    public void testOnProductChange_NewerVersionWins() {
+        // Arrange
+        when(productSyncService.getChanges(anyLong(), anyInt())).thenReturn(new ProductChangesDTO(List.of(), List.of(), 3, false));
+        index.load();
+        index.onProductChange(ProductChangeEvent.updated(product("1").name("Chair").color("Green").price(10).modSequence(9).build()));
+        when(productSyncService.getChanges(3, ProductSyncService.MAX_LIMIT)).thenReturn(
+                new ProductChangesDTO(List.of(product("1").name("Chair").color("Black").price(10).modSequence(8).build()),
+                        List.of(), 8, false));
+
+        // Act
+        index.catchUp();
+        index.onProductChange(ProductChangeEvent.deleted(product("3").name("Lamp").color("Blue").price(30).modSequence(3).build()));
+
+        // Assert
+        assertEquals(List.of("1"), ids(index.findByColor("Green")));
+        assertEquals(List.of(), ids(index.findByColor("Black")));
+        assertEquals(List.of(), ids(index.findByName("Lamp")));
+    }
+
+    /**
+     * Test catchUp to ensure a page read before a concurrent delete does not bring the deleted product back.
+     */
+    @Test
+    public void testCatchUp_DoesNotResurrectDeletedProduct() {
+        // Arrange
+        when(productSyncService.getChanges(anyLong(), anyInt())).thenReturn(new ProductChangesDTO(List.of(), List.of(), 3, false));
+        index.load();
+        // sidan lästes innan borttagningen nådde indexet
+        when(productSyncService.getChanges(3, ProductSyncService.MAX_LIMIT)).thenAnswer(invocation -> {
+            index.onProductChange(ProductChangeEvent.deleted(product("2").name("Table").color("Red").price(20).modSequence(4).build()));
+            return new ProductChangesDTO(List.of(product("2").name("Table").color("Red").price(20).modSequence(4).build()),
+                    List.of(), 4, false);
+        });
+
+        // Act
+        index.catchUp();
+
+        // Assert
+        assertEquals(List.of("1"), ids(index.findByColor("Red")));
+        assertEquals(List.of(), ids(index.findByName("Table")));
+    }
+
+    /**
+     * Negative Test: load without a snapshot file should leave the index unused.
+     */
+    @Test
+    public void testLoad_MissingFile() {
+        // Arrange
+        index.stop();
+        index = new ProductSnapshotIndex(productSyncService, productQueryCache, catalogVersion,
+                directory.resolve("missing").toString(), true, Duration.ZERO);
+
+        // Act
+        index.load();
+
+        // Assert
+        assertFalse(index.isReady());
+
+        // Verify
+        verify(productSyncService, never()).getChanges(anyLong(), anyInt());
+    }
+}
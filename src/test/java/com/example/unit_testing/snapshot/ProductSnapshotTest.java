@@ -0,0 +1,144 @@
+package com.example.unit_testing.snapshot;
+
+import com.example.unit_testing.models.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private ProductSnapshot writeAndOpen(Product... products) throws IOException {
+        Path file = directory.resolve("products.snapshot");
+        ProductSnapshotWriter.write(Stream.of(products), 42, file);
+        return ProductSnapshot.open(file);
+    }
+
+    /**
+     * Test write and open to ensure every column is read back, including null and non-ASCII strings.
+     */
+    @Test
+    public void testWriteAndOpen_RoundTrip() throws IOException {
+        // Arrange
+        Product first = product("a1").name("Stol").color("Röd").price(10.5).stockQuantity(2).modSequence(3109).build();
+        Product second = product("b2").name("Bord").description("").color("Blå").price(99.0).stockQuantity(7).build();
+
+        // Act
+        ProductSnapshot snapshot = writeAndOpen(first, second);
+
+        // Assert
+        assertEquals(2, snapshot.size());
+        assertEquals(42, snapshot.getSequence());
+        Product read = snapshot.product(0);
+        assertEquals("a1", read.getId());
+        assertEquals("Stol", read.getName());
+        assertNull(read.getDescription());
+        assertEquals("Röd", read.getColor());
+        assertEquals(10.5, read.getPrice());
+        assertEquals(first.getStockQuantity(), read.getStockQuantity());
+        assertEquals(first.getModSequence(), read.getModSequence());
+        assertEquals("", snapshot.description(1));
+        assertEquals("Blå", snapshot.summary(1).getColor());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "Only the snapshot should remain, not the column files");
+        }
+    }
+
+    /**
+     * Test indexOf and equalsValue to ensure ids and values are found by comparing the mapped bytes.
+     */
+    @Test
+    public void testIndexOfAndEqualsValue() throws IOException {
+        // Arrange
+        ProductSnapshot snapshot = writeAndOpen(product("1").name("A").color("Red").price(1).build(),
+                product("2").name("B").color("Red").price(2).build(),
+                product("3").name("C").color("Blue").price(3).build());
+
+        // Act & Assert
+        assertEquals(1, snapshot.indexOf("2"));
+        assertEquals(-1, snapshot.indexOf("25"));
+        assertTrue(snapshot.equalsValue(ProductSnapshot.COLOR, 2, "Blue".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(snapshot.equalsValue(ProductSnapshot.COLOR, 2, "Blu".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(snapshot.equalsValue(ProductSnapshot.DESCRIPTION, 0, null));
+    }
+
+    /**
+     * Negative Test: open with a truncated file should throw IOException.
+     */
+    @Test
+    public void testOpen_Truncated() throws IOException {
+        // Arrange
+        writeAndOpen(product("1").name("A").description("Description").color("Red").price(1).build());
+        Path file = directory.resolve("products.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> ProductSnapshot.open(file));
+        assertTrue(exception.getMessage().startsWith("Product snapshot is truncated"));
+    }
+
+    /**
+     * Test rowsEqual and rowsWithPriceBetween to ensure the stored row orders find the same rows as a scan.
+     */
+    @Test
+    public void testRowsEqualAndRowsWithPriceBetween() throws IOException {
+        // Arrange
+        String[] colors = {"Red", "Blue", null, "Röd", "Green"};
+        double[] prices = {-0.0, 0.0, 5, 5, 12.5, Double.NaN, 99};
+        Product[] products = new Product[500];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = product(String.format("%04d", i)).name("Product " + (i % 37))
+                    .color(colors[i % colors.length]).price(prices[(i * 7) % prices.length]).build();
+        }
+
+        // Act
+        ProductSnapshot snapshot = writeAndOpen(products);
+
+        // Assert
+        for (String color : new String[]{"Red", "Blue", "Röd", "Green", "Black", "Re"}) {
+            int[] expected = IntStream.range(0, products.length)
+                    .filter(row -> color.equals(products[row].getColor())).toArray();
+            assertArrayEquals(expected, snapshot.rowsEqual(ProductSnapshot.COLOR, color), color);
+        }
+        assertArrayEquals(IntStream.range(0, products.length).filter(row -> row % 37 == 3).toArray(),
+                snapshot.rowsEqual(ProductSnapshot.NAME, "Product 3"));
+        double[][] ranges = {{-1, 1}, {-0.0, 5}, {0.0, 100}, {5, 12.5}, {4.99, 5.01}, {100, 200}};
+        for (double[] range : ranges) {
+            int[] expected = IntStream.range(0, products.length)
+                    .filter(row -> products[row].getPrice() > range[0] && products[row].getPrice() < range[1]).toArray();
+            assertArrayEquals(expected, snapshot.rowsWithPriceBetween(range[0], range[1]), Arrays.toString(range));
+        }
+        assertThrows(IllegalArgumentException.class, () -> snapshot.rowsEqual(ProductSnapshot.DESCRIPTION, "x"));
+    }
+
+    /**
+     * Negative Test: write that fails after the temporary file was created should not leave it behind.
+     */
+    @Test
+    public void testWrite_FailureRemovesTemporaryFile() throws IOException {
+        // Arrange
+        Path target = directory.resolve("products.snapshot");
+        Files.createDirectories(target.resolve("occupied"));
+
+        // Act & Assert
+        assertThrows(IOException.class,
+                () -> ProductSnapshotWriter.write(Stream.of(product("1").name("A").color("Red").price(1).build()), 1, target));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(target), files.toList(), "Only the directory in the way should remain");
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.unit_testing.stock;
+
+import com.example.unit_testing.events.ProductChangeEvent;
+import com.example.unit_testing.exceptions.InsufficientStockException;
+import com.example.unit_testing.models.Product;
+import com.example.unit_testing.repository.ProductRepository;
+import com.example.unit_testing.sync.ProductSequence;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.unit_testing.ProductFixture.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class StockWriteBufferTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ProductSequence productSequence;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path journalDir;
+
+    private StockWriteBuffer stockWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+        when(productRepository.findById("1")).thenReturn(Optional.of(product("1").stockQuantity(10).build()));
+        when(productSequence.reserve(anyInt())).thenAnswer(invocation -> new ProductSequence.Reservation(100, invocation.getArgument(0), () -> { }));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stockWriteBuffer != null) {
+            stockWriteBuffer.stop();
+        }
+    }
+
+    // långt intervall och högt tröskelvärde, testerna styr flush själva
+    private StockWriteBuffer start() throws Exception {
+        stockWriteBuffer = new StockWriteBuffer(productRepository, mongoTemplate, productSequence, eventPublisher,
+                journalDir.toString(), Duration.ofHours(1), 1_000_000);
+        stockWriteBuffer.start();
+        return stockWriteBuffer;
+    }
+
+    /**
+     * Test flush to ensure many adjustments of one product are written as a single $inc.
+     */
+    @Test
+    public void testFlush_CoalescesAdjustments() throws Exception {
+        // Arrange
+        start();
+        when(productRepository.findAllById(List.of("1"))).thenReturn(List.of(product("1").stockQuantity(7).build()));
+
+        // Act
+        stockWriteBuffer.adjustStock("1", -1);
+        stockWriteBuffer.adjustStock("1", -1);
+        long available = stockWriteBuffer.adjustStock("1", -1);
+        stockWriteBuffer.flush();
+
+        // Assert
+        assertEquals(7, available);
+        assertEquals(0, stockWriteBuffer.getBufferedAdjustments());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), update.capture());
+        assertEquals(-3, update.getValue().getUpdateObject().get("$inc", Document.class).get("stockQuantity"));
+        assertEquals(100L, update.getValue().getUpdateObject().get("$set", Document.class).get("modSequence"));
+        verify(bulkOperations, times(1)).execute();
+        verify(productRepository, times(1)).findById("1");
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangeEvent.class));
+    }
+
+    /**
+     * Negative Test: adjustStock with a withdrawal larger than the buffered stock should throw InsufficientStockException.
+     */
+    @Test
+    public void testAdjustStock_InsufficientStock() throws Exception {
+        // Arrange
+        start();
+        stockWriteBuffer.adjustStock("1", -8);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> stockWriteBuffer.adjustStock("1", -3));
+        assertEquals(1, stockWriteBuffer.getBufferedAdjustments());
+    }
+
+    /**
+     * Test start to ensure journal segments of a previous process are written to MongoDB and removed.
+     */
+    @Test
+    public void testStart_ReplaysJournal() throws Exception {
+        // Arrange
+        Files.writeString(journalDir.resolve("stock-1.journal"), "1\t-2\n2\t5\n1\t-1\n2\t-");
+
+        // Act
+        start();
+
+        // Assert
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+        assertFalse(Files.exists(journalDir.resolve("stock-1.journal")), "The replayed segment should be deleted");
+    }
+
+    /**
+     * Test flush to ensure deltas stay buffered when the bulk write fails.
+     */
+    @Test
+    public void testFlush_KeepsDeltasOnFailure() throws Exception {
+        // Arrange
+        start();
+        when(bulkOperations.execute())
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(null);
+        when(productRepository.findAllById(List.of("1"))).thenReturn(List.of(product("1").stockQuantity(8).build()));
+        stockWriteBuffer.adjustStock("1", -2);
+
+        // Act
+        stockWriteBuffer.flush();
+        stockWriteBuffer.flush();
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), update.capture());
+        assertEquals(-2, update.getAllValues().get(1).getUpdateObject().get("$inc", Document.class).get("stockQuantity"));
+        try (var segments = Files.list(journalDir)) {
+            assertEquals(1, segments.count(), "Only the active segment should remain");
+        }
+    }
+
+    /**
+     * Test flush to ensure the sequence reservation is released when the bulk write cannot be set up, and the
+     * deltas are written at the next flush.
+     */
+    @Test
+    public void testFlush_BulkOpsFailureReleasesSequence() throws Exception {
+        // Arrange
+        start();
+        AtomicInteger released = new AtomicInteger();
+        when(productSequence.reserve(anyInt())).thenAnswer(invocation ->
+                new ProductSequence.Reservation(100, invocation.getArgument(0), released::incrementAndGet));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(bulkOperations);
+        when(productRepository.findAllById(List.of("1"))).thenReturn(List.of(product("1").stockQuantity(8).build()));
+        stockWriteBuffer.adjustStock("1", -2);
+
+        // Act
+        stockWriteBuffer.flush();
+        stockWriteBuffer.flush();
+
+        // Assert
+        assertEquals(2, released.get(), "Both reservations should have been closed");
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    /**
+     * Test flush to ensure deltas of a deleted product are dead-lettered once instead of being retried.
+     */
+    @Test
+    public void testFlush_DeadLettersDeletedProduct() throws Exception {
+        // Arrange
+        start();
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of());
+        stockWriteBuffer.adjustStock("1", -2);
+
+        // Act
+        stockWriteBuffer.flush();
+        stockWriteBuffer.flush();
+
+        // Assert
+        assertEquals("1\t-2\n", Files.readString(journalDir.resolve(StockWriteBuffer.DEAD_LETTER_FILE)));
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangeEvent.class));
+    }
+
+    /**
+     * Test flush to ensure a document rejected by MongoDB is dead-lettered while the other deltas are written.
+     */
+    @Test
+    public void testFlush_DeadLettersRejectedDocument() throws Exception {
+        // Arrange
+        start();
+        when(productRepository.findById("2")).thenReturn(Optional.of(product("2").stockQuantity(10).build()));
+        when(productRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(product("1").stockQuantity(9).build(), product("2").stockQuantity(11).build()));
+        BulkWriteError error = new BulkWriteError(121, "Document failed validation", new BsonDocument(), 0);
+        MongoBulkWriteException source = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()), List.of(error), null,
+                new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed", source));
+        stockWriteBuffer.adjustStock("1", -1);
+        stockWriteBuffer.adjustStock("2", 1);
+
+        // Act
+        stockWriteBuffer.flush();
+        stockWriteBuffer.flush();
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).updateOne(query.capture(), any(Update.class));
+        String rejected = query.getAllValues().get(0).getQueryObject().getString("id");
+        assertEquals(rejected + "\t" + (rejected.equals("1") ? -1 : 1) + "\n",
+                Files.readString(journalDir.resolve(StockWriteBuffer.DEAD_LETTER_FILE)));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    /**
+     * Negative Test: adjustStock beyond the int range of stockQuantity should throw IllegalArgumentException.
+     */
+    @Test
+    public void testAdjustStock_Overflow() throws Exception {
+        // Arrange
+        start();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> stockWriteBuffer.adjustStock("1", Integer.MAX_VALUE));
+        assertEquals("Stock quantity cannot exceed 2147483647.", exception.getMessage());
+        assertEquals(0, stockWriteBuffer.getBufferedAdjustments());
+    }
+
+    /**
+     * Test start to ensure a replayed delta that does not fit in an int is dead-lettered without stopping the replay.
+     */
+    @Test
+    public void testStart_ReplayDeadLettersOverflow() throws Exception {
+        // Arrange
+        Files.writeString(journalDir.resolve("stock-1.journal"), "1\t2147483647\n1\t1\n2\t5\n");
+
+        // Act
+        start();
+
+        // Assert
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        assertEquals("1\t2147483648\n", Files.readString(journalDir.resolve(StockWriteBuffer.DEAD_LETTER_FILE)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.unit_testing.sync;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryProductSequenceTest {
+
+    /**
+     * Test safe to ensure it stays below a slow write until that write's reservation is closed.
+     */
+    @Test
+    public void testSafe_WaitsForSlowWriter() {
+        // Arrange
+        InMemoryProductSequence sequence = new InMemoryProductSequence();
+        ProductSequence.Reservation slow = sequence.next();
+        ProductSequence.Reservation fast = sequence.reserve(3);
+
+        // Act & Assert
+        fast.close();
+        assertEquals(4, sequence.current());
+        assertEquals(0, sequence.safe());
+
+        slow.close();
+        slow.close();
+        assertEquals(4, sequence.safe());
+    }
+
+    /**
+     * Test takenLocally to ensure numbers skipped by advanceTo are not counted as local.
+     */
+    @Test
+    public void testTakenLocally_AfterAdvance() {
+        // Arrange
+        InMemoryProductSequence sequence = new InMemoryProductSequence();
+        sequence.advanceTo(10);
+        sequence.reserve(5).close();
+
+        // Act & Assert
+        assertFalse(sequence.takenLocally(0, 15));
+        assertTrue(sequence.takenLocally(10, 15));
+    }
+
+    /**
+     * Negative Test: reserve with a count below 1 should throw IllegalArgumentException.
+     */
+    @Test
+    public void testReserve_InvalidCount() {
+        // Arrange
+        InMemoryProductSequence sequence = new InMemoryProductSequence();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> sequence.reserve(0));
+        assertEquals(0, sequence.current());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.unit_testing.sync;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MongoProductSequenceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.indexOps(MongoProductSequence.LEASES)).thenReturn(indexOperations);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoProductSequence.COLLECTION)))
+                .thenReturn(new Document("value", 10L), new Document("value", 20L));
+    }
+
+    private void counterAt(long value) {
+        when(mongoTemplate.findById(MongoProductSequence.NAME, Document.class, MongoProductSequence.COLLECTION))
+                .thenReturn(new Document("value", value));
+    }
+
+    private long publishedMark() {
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, atLeastOnce()).upsert(any(Query.class), update.capture(), eq(MongoProductSequence.LEASES));
+        return update.getValue().getUpdateObject().get("$set", Document.class).getLong("mark");
+    }
+
+    /**
+     * Test reserve to ensure numbers are handed out from a block and the counter is only incremented per block.
+     */
+    @Test
+    public void testReserve_HandsOutBlocks() {
+        // Arrange
+        counterAt(0);
+        MongoProductSequence sequence = new MongoProductSequence(mongoTemplate, 10, Duration.ofSeconds(10));
+
+        // Act
+        long first = sequence.reserve(1).first();
+        long last = sequence.reserve(9).last();
+        long next = sequence.reserve(1).first();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(10, last);
+        assertEquals(11, next);
+
+        // Verify: markeringen publiceras innan blocket tas
+        InOrder inOrder = inOrder(mongoTemplate);
+        inOrder.verify(mongoTemplate).upsert(any(Query.class), any(UpdateDefinition.class), eq(MongoProductSequence.LEASES));
+        inOrder.verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoProductSequence.COLLECTION));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoProductSequence.COLLECTION));
+    }
+
+    /**
+     * Test renew to ensure the lease mark stays below the lowest reservation still in flight.
+     */
+    @Test
+    public void testRenew_PublishesLowestInFlight() {
+        // Arrange
+        counterAt(0);
+        MongoProductSequence sequence = new MongoProductSequence(mongoTemplate, 10, Duration.ofSeconds(10));
+        ProductSequence.Reservation slow = sequence.reserve(1);
+        ProductSequence.Reservation fast = sequence.reserve(2);
+
+        // Act & Assert
+        fast.close();
+        sequence.renew();
+        assertEquals(0, publishedMark());
+
+        slow.close();
+        sequence.renew();
+        assertEquals(3, publishedMark(), "The rest of the block can still be handed out");
+    }
+
+    /**
+     * Test renew to ensure an idle instance drops its block and then its lease.
+     */
+    @Test
+    public void testRenew_IdleInstanceReleasesLease() throws InterruptedException {
+        // Arrange
+        counterAt(0);
+        MongoProductSequence sequence = new MongoProductSequence(mongoTemplate, 10, Duration.ofMillis(200));
+        sequence.reserve(1).close();
+
+        // Act
+        Thread.sleep(50);
+        sequence.renew();
+
+        // Assert
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(MongoProductSequence.LEASES));
+        assertEquals(11, sequence.reserve(1).first(), "A dropped block is not used again");
+    }
+
+    /**
+     * Test takenLocally to ensure only ranges inside this instance's blocks count as local, used or not.
+     */
+    @Test
+    public void testTakenLocally_OwnBlocksOnly() {
+        // Arrange
+        counterAt(0);
+        MongoProductSequence sequence = new MongoProductSequence(mongoTemplate, 10, Duration.ofSeconds(10));
+        sequence.reserve(1).close();
+
+        // Act & Assert
+        assertTrue(sequence.takenLocally(0, 10));
+        assertFalse(sequence.takenLocally(0, 11), "11 was never taken by this instance");
+        assertTrue(sequence.takenLocally(5, 5));
+
+        sequence.reserve(10).close();
+        assertTrue(sequence.takenLocally(5, 20), "The unused rest of the first block is local as well");
+        assertFalse(sequence.takenLocally(10, 21));
+    }
+
+    /**
+     * Test safe to ensure it stops at the lowest live lease and otherwise at the counter.
+     */
+    @Test
+    public void testSafe_LowestLeaseOrCounter() {
+        // Arrange
+        counterAt(50);
+        MongoProductSequence sequence = new MongoProductSequence(mongoTemplate, 10, Duration.ofSeconds(10));
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(MongoProductSequence.LEASES)))
+                .thenReturn(new Document("mark", 30L), (Document) null);
+
+        // Act & Assert
+        assertEquals(30, sequence.safe());
+        assertEquals(50, sequence.safe());
+    }
+}
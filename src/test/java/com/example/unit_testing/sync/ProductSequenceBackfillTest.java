@@ -0,0 +1,95 @@
+package com.example.unit_testing.sync;
+
+import com.example.unit_testing.models.Product;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSequenceBackfillTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ProductSequence productSequence;
+
+    private ProductSequenceBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+        backfill = new ProductSequenceBackfill(mongoTemplate, productSequence, true);
+    }
+
+    private List<Document> ids(int from, int count) {
+        return IntStream.range(from, from + count).mapToObj(i -> new Document("_id", "id" + i)).toList();
+    }
+
+    /**
+     * Test backfill to ensure products without modSequence are stamped in batches with consecutive numbers.
+     */
+    @Test
+    public void testBackfill_StampsInBatches() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenReturn(ids(0, ProductSequenceBackfill.BATCH_SIZE), ids(1000, 2));
+        when(productSequence.reserve(ProductSequenceBackfill.BATCH_SIZE))
+                .thenReturn(new ProductSequence.Reservation(11, ProductSequenceBackfill.BATCH_SIZE, () -> { }));
+        when(productSequence.reserve(2)).thenReturn(new ProductSequence.Reservation(1999, 2, () -> { }));
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(0, 1000, 0, 1000, List.of(), List.of()),
+                BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        // Act
+        long count = backfill.backfill();
+
+        // Assert
+        assertEquals(1001, count, "A product written concurrently should not count as stamped");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(1002)).updateOne(query.capture(), update.capture());
+        assertEquals(11L, update.getAllValues().get(0).getUpdateObject().get("$set", Document.class).get("modSequence"));
+        assertEquals(2000L, update.getAllValues().get(1001).getUpdateObject().get("$set", Document.class).get("modSequence"));
+        assertEquals(new Document("$exists", false), query.getValue().getQueryObject().get("modSequence"));
+
+        // Verify
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Document.class), eq("products"));
+    }
+
+    /**
+     * Negative Test: backfillOnStartup with an unreachable database should log instead of failing startup.
+     */
+    @Test
+    public void testBackfillOnStartup_DatabaseDown() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> backfill.backfillOnStartup());
+
+        // Verify
+        verify(productSequence, never()).reserve(anyInt());
+    }
+}